@@ -0,0 +1,104 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import io.netty.channel.*;
+import io.netty.channel.epoll.Epoll;
+import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyListener;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many connections per second can be accepted with a given number of SO_REUSEPORT listeners.<br>
+ * The total number of listener threads stays the same, only the number of listeners they are spread across changes.<br>
+ * Every connection is closed by the server as soon as it is active, so the result is dominated by the accept path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class AcceptBenchmark {
+
+    private static final int THREADS = 4;
+
+    @Param({"1", "2", "4"})
+    public int listeners;
+
+    private final List<Client2ProxyListener> servers = new ArrayList<>();
+    private SocketAddress address;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if (this.listeners > 1 && !Epoll.isAvailable()) {
+            throw new IllegalStateException("Multiple listeners require the epoll transport");
+        }
+
+        final ChannelInitializer<Channel> channelInitializer = new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(final Channel channel) {
+                channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(final ChannelHandlerContext ctx) {
+                        ctx.close();
+                    }
+                });
+            }
+        };
+        SocketAddress bindAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        for (int i = 0; i < this.listeners; i++) {
+            final Client2ProxyListener listener = new Client2ProxyListener(channelInitializer, THREADS / this.listeners, this.listeners > 1, "Accept Benchmark #" + i);
+            listener.bind(bindAddress, false);
+            bindAddress = listener.getChannel().localAddress();
+            this.servers.add(listener);
+        }
+        this.address = bindAddress;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Client2ProxyListener listener : this.servers) {
+            listener.getChannel().close().syncUninterruptibly();
+            listener.shutdown();
+        }
+        this.servers.clear();
+    }
+
+    @Benchmark
+    public void connect() throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(this.address);
+            final InputStream inputStream = socket.getInputStream();
+            while (inputStream.read() != -1) {
+                // Wait until the server closed the connection
+            }
+        }
+    }
+
+}
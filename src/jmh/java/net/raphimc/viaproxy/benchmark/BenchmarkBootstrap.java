@@ -0,0 +1,77 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.additionalclassprovider.GuavaClassPathProvider;
+import net.lenni0451.classtransform.mixinstranslator.MixinsTranslator;
+import net.lenni0451.reflect.Agents;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.plugins.PluginManager;
+import net.raphimc.viaproxy.protocoltranslator.ProtocolTranslator;
+import net.raphimc.viaproxy.protocoltranslator.viaproxy.ViaProxyConfig;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+
+/**
+ * Initializes the parts of ViaProxy which are needed to build proxy pipelines in a benchmark JVM.<br>
+ * This mirrors the startup of ViaProxy (mixins, netty, plugins, protocol translators and config) without starting the proxy server.
+ * The working directory is a temporary directory, so the benchmarks don't depend on local configs.
+ */
+public class BenchmarkBootstrap {
+
+    private static boolean initialized;
+
+    public static synchronized void init() throws Exception {
+        if (initialized) return;
+        initialized = true;
+
+        try {
+            final TransformerManager transformerManager = new TransformerManager(new GuavaClassPathProvider());
+            transformerManager.addTransformerPreprocessor(new MixinsTranslator());
+            transformerManager.addTransformer("net.raphimc.viaproxy.injection.mixins.**");
+            transformerManager.hookInstrumentation(Agents.getInstrumentation());
+        } catch (Throwable e) {
+            Logger.LOGGER.warn("Failed to hook instrumentation. The benchmarks will run without the ViaProxy mixins.", e);
+        }
+
+        final File cwd = Files.createTempDirectory("viaproxy-benchmark").toFile();
+        cwd.deleteOnExit();
+        System.setProperty("user.dir", cwd.getAbsolutePath());
+        setField("CWD", cwd);
+
+        final Method loadNetty = ViaProxy.class.getDeclaredMethod("loadNetty");
+        loadNetty.setAccessible(true);
+        loadNetty.invoke(null);
+
+        setField("PLUGIN_MANAGER", new PluginManager());
+        ProtocolTranslator.init();
+        setField("CONFIG", ViaProxyConfig.create(new File(cwd, "viaproxy.yml")));
+    }
+
+    private static void setField(final String name, final Object value) throws ReflectiveOperationException {
+        final Field field = ViaProxy.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(null, value);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.raphimc.netminecraft.util.TransportType;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+
+import java.lang.reflect.Field;
+import java.net.SocketAddress;
+
+/**
+ * A proxy connection which uses an {@link EmbeddedChannel} instead of a network connection to the server.
+ */
+public class BenchmarkProxyConnection extends ProxyConnection {
+
+    private final EmbeddedChannel p2s;
+
+    public BenchmarkProxyConnection(final ChannelInitializer<Channel> channelInitializer, final Channel c2p, final EmbeddedChannel p2s) {
+        super(channelInitializer, c2p);
+        this.p2s = p2s;
+    }
+
+    @Override
+    public void initialize(final TransportType transportType, final Bootstrap bootstrap) {
+        this.p2s.attr(PROXY_CONNECTION_ATTRIBUTE_KEY).set(this);
+        this.p2s.pipeline().addLast(this.channelInitializer);
+        try {
+            this.p2s.register().syncUninterruptibly();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to register embedded channel", e);
+        }
+        this.channelFuture = this.p2s.newSucceededFuture();
+    }
+
+    @Override
+    public ChannelFuture connectToServer(final SocketAddress serverAddress, final ProtocolVersion targetVersion) {
+        try {
+            setField("serverAddress", serverAddress);
+            setField("serverVersion", targetVersion);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to set server details", e);
+        }
+        this.initialize(null, null);
+        return this.channelFuture;
+    }
+
+    private void setField(final String name, final Object value) throws ReflectiveOperationException {
+        final Field field = ProxyConnection.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(this, value);
+    }
+
+}
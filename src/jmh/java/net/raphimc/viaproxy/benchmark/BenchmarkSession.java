@@ -0,0 +1,141 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.constants.IntendedState;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.packet.impl.handshaking.C2SHandshakingClientIntentionPacket;
+import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyViaCodec;
+import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyChannelInitializer;
+import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyHandler;
+import net.raphimc.viaproxy.proxy.proxy2server.Proxy2ServerChannelInitializer;
+import net.raphimc.viaproxy.proxy.proxy2server.Proxy2ServerHandler;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+
+import java.net.InetSocketAddress;
+
+/**
+ * A proxy session between two {@link EmbeddedChannel}s.<br>
+ * Server frames are injected in front of the Via codec of the server channel and run through the same handlers as in a real session.
+ * Everything which is sent to the client is released without being sent anywhere.
+ */
+public class BenchmarkSession implements AutoCloseable {
+
+    private static final String INJECTOR_NAME = "benchmark-injector";
+
+    private final EmbeddedChannel c2p;
+    private final EmbeddedChannel p2s;
+    private final BenchmarkProxyConnection proxyConnection;
+    private final ChannelHandlerContext injector;
+    private ConnectionState connectionState;
+
+    public BenchmarkSession(final ProtocolVersion serverVersion, final ProtocolVersion clientVersion) {
+        this.c2p = new EmbeddedChannel(false, false);
+        this.c2p.pipeline().addLast(new Client2ProxyChannelInitializer(ChannelInboundHandlerAdapter::new));
+        this.c2p.register().syncUninterruptibly();
+
+        this.p2s = new EmbeddedChannel(false, false);
+        this.proxyConnection = new BenchmarkProxyConnection(new Proxy2ServerChannelInitializer(Proxy2ServerHandler::new), this.c2p, this.p2s);
+        this.c2p.attr(ProxyConnection.PROXY_CONNECTION_ATTRIBUTE_KEY).set(this.proxyConnection);
+        this.proxyConnection.setClientVersion(clientVersion);
+        this.proxyConnection.setC2pConnectionState(ConnectionState.LOGIN);
+        Client2ProxyHandler.addPacketHandlers(this.proxyConnection, serverVersion, clientVersion, null);
+
+        this.proxyConnection.connectToServer(new InetSocketAddress("127.0.0.1", 25565), serverVersion);
+        this.p2s.pipeline().addBefore(ViaProxyViaCodec.NAME, INJECTOR_NAME, new ChannelInboundHandlerAdapter());
+        this.injector = this.p2s.pipeline().context(INJECTOR_NAME);
+
+        this.p2s.writeAndFlush(new C2SHandshakingClientIntentionPacket(clientVersion.getOriginalVersion(), "127.0.0.1", 25565, IntendedState.LOGIN));
+        this.setConnectionState(ConnectionState.LOGIN);
+        this.drain();
+    }
+
+    /**
+     * Runs a recorded server frame through the proxy.
+     *
+     * @param record The recorded frame
+     */
+    public void inject(final PacketCorpus.Record record) {
+        if (record.connectionState() != this.connectionState) {
+            this.setConnectionState(record.connectionState());
+        }
+
+        final ByteBuf frame = this.injector.alloc().buffer(record.data().length).writeBytes(record.data());
+        this.injector.fireChannelRead(frame);
+        this.injector.fireChannelReadComplete();
+        this.drain();
+    }
+
+    /**
+     * Runs a recorded server frame through the proxy, starting right after the frame decoder. The frame has to be compressed if the server channel uses compression.
+     *
+     * @param record The recorded frame
+     */
+    public void injectFrame(final PacketCorpus.Record record) {
+        if (record.connectionState() != this.connectionState) {
+            this.setConnectionState(record.connectionState());
+        }
+
+        final ChannelHandlerContext sizer = this.p2s.pipeline().context(MCPipeline.SIZER_HANDLER_NAME);
+        final ByteBuf frame = sizer.alloc().buffer(record.data().length).writeBytes(record.data());
+        sizer.fireChannelRead(frame);
+        sizer.fireChannelReadComplete();
+        this.drain();
+    }
+
+    public ProxyConnection getProxyConnection() {
+        return this.proxyConnection;
+    }
+
+    @Override
+    public void close() {
+        this.drain();
+        this.p2s.finishAndReleaseAll();
+        this.c2p.finishAndReleaseAll();
+    }
+
+    private void setConnectionState(final ConnectionState connectionState) {
+        this.connectionState = connectionState;
+        this.proxyConnection.setC2pConnectionState(connectionState);
+        this.proxyConnection.setP2sConnectionState(connectionState);
+        final State state = State.valueOf(connectionState.name());
+        this.proxyConnection.getUserConnection().getProtocolInfo().setServerState(state);
+        this.proxyConnection.getUserConnection().getProtocolInfo().setClientState(state);
+    }
+
+    private void drain() {
+        this.c2p.runPendingTasks();
+        this.p2s.runPendingTasks();
+        Object msg;
+        while ((msg = this.c2p.readOutbound()) != null) {
+            ReferenceCountUtil.release(msg);
+        }
+        while ((msg = this.p2s.readOutbound()) != null) {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+}
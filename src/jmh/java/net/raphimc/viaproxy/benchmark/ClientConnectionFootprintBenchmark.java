@@ -0,0 +1,140 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.platform.ViaChannelInitializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.netty.codec.NoReadFlowControlHandler;
+import net.raphimc.netminecraft.packet.PacketTypes;
+import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyViaCodec;
+import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyChannelInitializer;
+import net.raphimc.viaproxy.proxy.client2proxy.LazyViaCodecHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per connection cost of the client pipeline up to the handshake of a supported release client.<br>
+ * {@code eager} creates the Via codec on connect like before the {@link LazyViaCodecHandler}, {@code lazy} is the current behaviour.<br>
+ * {@code connect} reports the allocated bytes per connection when run with {@code -prof gc} (gc.alloc.rate.norm).
+ * {@code retainedHeap} keeps {@value #RETAINED_CONNECTIONS} connections open and reports the retained heap per connection in the bytesPerConnection counter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientConnectionFootprintBenchmark {
+
+    private static final int RETAINED_CONNECTIONS = 10000;
+
+    @Param({"lazy", "eager"})
+    public String codec;
+
+    private ByteBuf handshake;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkBootstrap.init();
+
+        final ByteBuf packet = Unpooled.buffer();
+        PacketTypes.writeVarInt(packet, 0x00);
+        PacketTypes.writeVarInt(packet, ProtocolVersion.v1_21_5.getVersion());
+        PacketTypes.writeString(packet, "127.0.0.1");
+        packet.writeShort(25565);
+        PacketTypes.writeVarInt(packet, 1); // Status
+        this.handshake = Unpooled.buffer();
+        PacketTypes.writeVarInt(this.handshake, packet.readableBytes());
+        this.handshake.writeBytes(packet);
+        packet.release();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.handshake.release();
+    }
+
+    @Benchmark
+    public void connect() {
+        this.open().finishAndReleaseAll();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public void retainedHeap(final RetainedHeap retainedHeap) {
+        final List<EmbeddedChannel> channels = new ArrayList<>(RETAINED_CONNECTIONS);
+        final long before = usedHeapAfterGc();
+        for (int i = 0; i < RETAINED_CONNECTIONS; i++) {
+            channels.add(this.open());
+        }
+        retainedHeap.bytesPerConnection = (usedHeapAfterGc() - before) / RETAINED_CONNECTIONS;
+        for (EmbeddedChannel channel : channels) {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    private EmbeddedChannel open() {
+        final EmbeddedChannel channel = new EmbeddedChannel(false, false);
+        channel.pipeline().addLast(new Client2ProxyChannelInitializer(Sink::new));
+        channel.register().syncUninterruptibly();
+        if (this.codec.equals("eager")) {
+            channel.pipeline().replace(ViaProxyViaCodec.NAME, ViaProxyViaCodec.NAME, new ViaProxyViaCodec(ViaChannelInitializer.createUserConnection(channel, false)));
+            channel.pipeline().addAfter(ViaProxyViaCodec.NAME, "via-" + MCPipeline.FLOW_CONTROL_HANDLER_NAME, new NoReadFlowControlHandler());
+        }
+        channel.writeInbound(this.handshake.retainedDuplicate());
+        return channel;
+    }
+
+    private static long usedHeapAfterGc() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedHeap {
+
+        public long bytesPerConnection;
+
+    }
+
+    private static class Sink extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+        }
+
+    }
+
+}
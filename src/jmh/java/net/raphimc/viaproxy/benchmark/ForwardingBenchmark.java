@@ -0,0 +1,95 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import io.netty.channel.*;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.raphimc.netminecraft.packet.UnknownPacket;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.proxy.util.FlushConsolidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of forwarding a batch of packets to the opposite channel of a session.<br>
+ * Run with {@code -prof gc} to see the allocations saved by void promises and the flushes saved by flush consolidation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(ForwardingBenchmark.BATCH_SIZE)
+public class ForwardingBenchmark {
+
+    static final int BATCH_SIZE = 16;
+
+    @Param({"false", "true"})
+    public boolean flushConsolidation;
+
+    private final UnknownPacket packet = new UnknownPacket(0);
+    private EmbeddedChannel source;
+    private EmbeddedChannel target;
+    private ChannelHandlerContext sourceContext;
+    private FlushConsolidator flushConsolidator;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkBootstrap.init();
+        ViaProxy.getConfig().setFlushConsolidation(this.flushConsolidation);
+
+        this.source = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        this.sourceContext = this.source.pipeline().firstContext();
+        this.target = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                promise.trySuccess(); // Swallow the packet, the encoders are not part of this benchmark
+            }
+        });
+        this.flushConsolidator = new FlushConsolidator();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.source.finishAndReleaseAll();
+        this.target.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public void newPromise() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            final ChannelPromise promise = this.target.newPromise();
+            promise.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            this.flushConsolidator.write(this.sourceContext, this.target, this.packet, promise);
+        }
+        this.flushConsolidator.flush();
+        this.source.runPendingTasks();
+    }
+
+    @Benchmark
+    public void voidPromise() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            this.flushConsolidator.write(this.sourceContext, this.target, this.packet, this.target.voidPromise());
+        }
+        this.flushConsolidator.flush();
+        this.source.runPendingTasks();
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import net.raphimc.viaproxy.util.logging.IpRedactor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the single pass {@link IpRedactor} scanner against the regular expressions it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IpRedactorBenchmark {
+
+    private static final Pattern IPV4_REGEX = Pattern.compile("(\\b25[0-5]|\\b2[0-4][0-9]|\\b[01]?[0-9][0-9]?)(\\.(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)){3}");
+    private static final Pattern IPV6_REGEX = Pattern.compile("(([0-9a-fA-F]{1,4}:){7}[0-9a-fA-F]{1,4}|([0-9a-fA-F]{1,4}:){1,7}:|([0-9a-fA-F]{1,4}:){1,6}:[0-9a-fA-F]{1,4}|([0-9a-fA-F]{1,4}:){1,5}(:[0-9a-fA-F]{1,4}){1,2}|([0-9a-fA-F]{1,4}:){1,4}(:[0-9a-fA-F]{1,4}){1,3}|([0-9a-fA-F]{1,4}:){1,3}(:[0-9a-fA-F]{1,4}){1,4}|([0-9a-fA-F]{1,4}:){1,2}(:[0-9a-fA-F]{1,4}){1,5}|[0-9a-fA-F]{1,4}:((:[0-9a-fA-F]{1,4}){1,6})|:((:[0-9a-fA-F]{1,4}){1,7}|:)|fe80:(:[0-9a-fA-F]{0,4}){0,4}%[0-9a-zA-Z]+|::(ffff(:0{1,4})?:)?((25[0-5]|(2[0-4]|1?[0-9])?[0-9])\\.){3}(25[0-5]|(2[0-4]|1?[0-9])?[0-9])|([0-9a-fA-F]{1,4}:){1,4}:((25[0-5]|(2[0-4]|1?[0-9])?[0-9])\\.){3}(25[0-5]|(2[0-4]|1?[0-9])?[0-9]))");
+
+    @Param({"plain", "ipv4", "ipv6", "method_reference"})
+    public String message;
+
+    private final StringBuilder builder = new StringBuilder();
+    private String line;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.line = switch (this.message) {
+            case "plain" -> "[12:34:56] [Netty Epoll Server IO #3/INFO] (ViaProxy) [C2P] (REDACTED | Steve) Connected to the target server using 1.21.4";
+            case "ipv4" -> "[12:34:56] [Netty Epoll Server IO #3/INFO] (ViaProxy) [C2P] (203.0.113.42:51234 | Steve) Connecting to 198.51.100.7:25565";
+            case "ipv6" -> "[12:34:56] [Netty Epoll Server IO #3/INFO] (ViaProxy) [C2P] (2001:db8:85a3::8a2e:370:7334:51234 | Steve) Connecting to [::ffff:198.51.100.7]:25565";
+            case "method_reference" -> "[12:34:56] [Netty Epoll Server IO #3/ERROR] (ViaProxy) Exception in Face::add while handling Bad::cafe"; // All hex, must not be redacted
+            default -> throw new IllegalArgumentException("Unknown message type: " + this.message);
+        };
+    }
+
+    @Benchmark
+    public StringBuilder regex() {
+        this.builder.setLength(0);
+        this.builder.append(this.line);
+        String message = this.builder.toString();
+        message = IPV4_REGEX.matcher(message).replaceAll(IpRedactor.REPLACEMENT);
+        message = IPV6_REGEX.matcher(message).replaceAll(IpRedactor.REPLACEMENT);
+        this.builder.setLength(0);
+        this.builder.append(message);
+        return this.builder;
+    }
+
+    @Benchmark
+    public StringBuilder singlePass() {
+        this.builder.setLength(0);
+        this.builder.append(this.line);
+        IpRedactor.redact(this.builder);
+        return this.builder;
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.libs.gson.JsonElement;
+import com.viaversion.viaversion.libs.gson.JsonObject;
+import com.viaversion.viaversion.libs.gson.JsonParser;
+import net.raphimc.viaproxy.protocoltranslator.impl.BlockMaterials;
+import net.raphimc.viaproxy.protocoltranslator.impl.CompiledMappingData;
+import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyMappingDataLoader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading the ViaProxy mapping data from json against loading the compiled binary data.<br>
+ * Both variants include reading the resource. Run with {@code -prof gc} to compare the allocated memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingDataBenchmark {
+
+    private static final String DATA_PATH = "assets/viaproxy/data/";
+
+    @Benchmark
+    public Object materialsJson() throws IOException {
+        final JsonObject materialsData = readJson("materials-1.19.4.json");
+        final Map<String, ViaProxyMappingDataLoader.Material> materials = new HashMap<>();
+        for (Map.Entry<String, JsonElement> entry : materialsData.getAsJsonObject("materials").entrySet()) {
+            final JsonObject materialData = entry.getValue().getAsJsonObject();
+            materials.put(entry.getKey(), new ViaProxyMappingDataLoader.Material(
+                    materialData.get("blocksMovement").getAsBoolean(),
+                    materialData.get("burnable").getAsBoolean(),
+                    materialData.get("liquid").getAsBoolean(),
+                    materialData.get("blocksLight").getAsBoolean(),
+                    materialData.get("replaceable").getAsBoolean(),
+                    materialData.get("solid").getAsBoolean()
+            ));
+        }
+        final Map<String, Map<ProtocolVersion, String>> blockMaterials = new HashMap<>();
+        for (Map.Entry<String, JsonElement> blockEntry : materialsData.getAsJsonObject("blocks").entrySet()) {
+            final Map<ProtocolVersion, String> versionMaterials = new HashMap<>();
+            for (Map.Entry<String, JsonElement> entry : blockEntry.getValue().getAsJsonObject().entrySet()) {
+                versionMaterials.put(ProtocolVersion.getClosest(entry.getKey()), entry.getValue().getAsString());
+            }
+            blockMaterials.put(blockEntry.getKey(), versionMaterials);
+        }
+        return blockMaterials;
+    }
+
+    @Benchmark
+    public Object materialsCompiled() throws IOException {
+        return BlockMaterials.read(loadCompiled("materials-1.19.4.bin"), new HashMap<>());
+    }
+
+    @Benchmark
+    public void itemToolComponentsJson(final Blackhole blackhole) throws IOException {
+        final JsonObject itemToolComponents = readJson("item-tool-components.json");
+        for (Map.Entry<String, JsonElement> entry : itemToolComponents.entrySet()) {
+            blackhole.consume(ProtocolVersion.getClosest(entry.getKey()));
+            for (JsonElement toolComponent : entry.getValue().getAsJsonArray()) {
+                final JsonObject toolComponentObject = toolComponent.getAsJsonObject();
+                blackhole.consume(toolComponentObject.get("item").getAsString());
+                blackhole.consume(toolComponentObject.get("default_mining_speed").getAsFloat());
+                blackhole.consume(toolComponentObject.get("damage_per_block").getAsInt());
+                for (JsonElement block : toolComponentObject.getAsJsonArray("suitable_for")) {
+                    blackhole.consume(block.getAsString());
+                }
+                for (JsonElement miningSpeed : toolComponentObject.getAsJsonArray("mining_speeds")) {
+                    final JsonObject miningSpeedObject = miningSpeed.getAsJsonObject();
+                    for (JsonElement block : miningSpeedObject.getAsJsonArray("blocks")) {
+                        blackhole.consume(block.getAsString());
+                    }
+                    blackhole.consume(miningSpeedObject.get("speed").getAsFloat());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void itemToolComponentsCompiled(final Blackhole blackhole) throws IOException {
+        final CompiledMappingData itemToolComponents = loadCompiled("item-tool-components.bin");
+        final int versionCount = itemToolComponents.readInt();
+        for (int i = 0; i < versionCount; i++) {
+            blackhole.consume(ProtocolVersion.getClosest(itemToolComponents.readString()));
+            final int toolCount = itemToolComponents.readInt();
+            for (int j = 0; j < toolCount; j++) {
+                blackhole.consume(itemToolComponents.readString());
+                blackhole.consume(itemToolComponents.readFloat());
+                blackhole.consume(itemToolComponents.readInt());
+                consumeStrings(itemToolComponents, blackhole);
+                final int miningSpeedCount = itemToolComponents.readInt();
+                for (int k = 0; k < miningSpeedCount; k++) {
+                    blackhole.consume(itemToolComponents.readFloat());
+                    consumeStrings(itemToolComponents, blackhole);
+                }
+            }
+        }
+    }
+
+    private static void consumeStrings(final CompiledMappingData data, final Blackhole blackhole) {
+        final int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(data.readString());
+        }
+    }
+
+    private static JsonObject readJson(final String name) throws IOException {
+        try (InputStream inputStream = MappingDataBenchmark.class.getClassLoader().getResourceAsStream(DATA_PATH + name); Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        }
+    }
+
+    private static CompiledMappingData loadCompiled(final String name) throws IOException {
+        return CompiledMappingData.load(MappingDataBenchmark.class.getClassLoader(), DATA_PATH + name);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.api.protocol.version.VersionType;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.viabedrock.api.BedrockProtocolVersion;
+import net.raphimc.viaproxy.proxy.util.PacketCorpusRecorder;
+import net.raphimc.viaproxy.util.ProtocolVersionUtil;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A recorded sequence of server packets, which is replayed by the pipeline benchmarks.<br>
+ * Corpora are recorded with the {@link PacketCorpusRecorder} and loaded from {@code src/jmh/resources/corpora/<name>.corpus.gz}.
+ *
+ * @param serverVersion The version of the server the corpus was recorded from
+ * @param clientVersion The version of the client which was connected while recording
+ * @param records       The recorded packets
+ */
+public record PacketCorpus(ProtocolVersion serverVersion, ProtocolVersion clientVersion, List<Record> records) {
+
+    public static PacketCorpus load(final String name) throws IOException {
+        final InputStream inputStream = PacketCorpus.class.getResourceAsStream("/corpora/" + name + ".corpus.gz");
+        if (inputStream == null) {
+            throw new IllegalStateException("Packet corpus '" + name + "' is missing. Record one by starting ViaProxy with -D" + PacketCorpusRecorder.DIRECTORY_PROPERTY + "=<directory> and copy the file to src/jmh/resources/corpora/" + name + ".corpus.gz");
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(inputStream)))) {
+            if (in.readInt() != PacketCorpusRecorder.MAGIC) {
+                throw new IOException("Invalid packet corpus '" + name + "'");
+            }
+            final int formatVersion = in.readUnsignedByte();
+            if (formatVersion != PacketCorpusRecorder.FORMAT_VERSION) {
+                throw new IOException("Unsupported packet corpus format version " + formatVersion);
+            }
+            final ProtocolVersion serverVersion = parseVersion(in.readUTF());
+            final ProtocolVersion clientVersion = parseVersion(in.readUTF());
+
+            final List<Record> records = new ArrayList<>();
+            int connectionState;
+            while ((connectionState = in.read()) != -1) {
+                final byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                records.add(new Record(connectionState == 1 ? ConnectionState.PLAY : ConnectionState.CONFIGURATION, data));
+            }
+            return new PacketCorpus(serverVersion, clientVersion, records);
+        }
+    }
+
+    /**
+     * Parses a version name. Additionally to the names known by {@link ProtocolVersionUtil#fromNameLenient(String)}, "latest" and "bedrock" are supported.
+     *
+     * @param name The version name
+     * @return The parsed version
+     */
+    public static ProtocolVersion parseVersion(final String name) {
+        if (name.equalsIgnoreCase("latest")) {
+            return ProtocolVersion.getProtocols().stream().filter(version -> version.getVersionType() == VersionType.RELEASE).max(Comparator.naturalOrder()).orElseThrow();
+        } else if (name.equalsIgnoreCase("bedrock")) {
+            return BedrockProtocolVersion.bedrockLatest;
+        }
+
+        final ProtocolVersion version = ProtocolVersionUtil.fromNameLenient(name);
+        if (version == null) {
+            throw new IllegalArgumentException("Unknown version: " + name);
+        }
+        return version;
+    }
+
+    public record Record(ConnectionState connectionState, byte[] data) {
+    }
+
+}
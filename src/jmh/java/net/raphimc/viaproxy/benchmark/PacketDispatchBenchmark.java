@@ -0,0 +1,122 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import io.netty.channel.ChannelFutureListener;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.packet.Packet;
+import net.raphimc.netminecraft.packet.UnknownPacket;
+import net.raphimc.netminecraft.packet.impl.common.S2CCustomPayloadPacket;
+import net.raphimc.viaproxy.proxy.packethandler.PacketHandler;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares offering every packet to every packet handler with the per packet type dispatch tables of {@link ProxyConnection}.<br>
+ * The packet mix resembles the play traffic of a server with plugin channels: Most packets are ones none of the handlers subscribed to (movement, chunks, entity updates)
+ * and {@link #customPayloadPercent} percent are plugin messages, which the brand and voice chat handlers subscribe to and inspect.
+ * Packets which change the session (join game, disconnect, transfer, resource packs, configuration) are left out, since they are sent once per session at most.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(PacketDispatchBenchmark.PACKET_COUNT)
+public class PacketDispatchBenchmark {
+
+    static final int PACKET_COUNT = 1024;
+
+    @Param({"1.20.1", "latest"})
+    public String serverVersion;
+
+    @Param({"1.8", "latest"})
+    public String clientVersion;
+
+    @Param({"3"})
+    public int customPayloadPercent;
+
+    private final List<ChannelFutureListener> listeners = new ArrayList<>();
+    private BenchmarkSession session;
+    private ProxyConnection proxyConnection;
+    private Packet[] packets;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkBootstrap.init();
+        this.session = new BenchmarkSession(PacketCorpus.parseVersion(this.serverVersion), PacketCorpus.parseVersion(this.clientVersion));
+        this.proxyConnection = this.session.getProxyConnection();
+        this.proxyConnection.setP2sConnectionState(ConnectionState.PLAY);
+
+        final List<Packet> unhandledPackets = new ArrayList<>();
+        for (int packetId = 0; packetId < 128; packetId++) {
+            final UnknownPacket packet = new UnknownPacket(packetId);
+            if (this.proxyConnection.getP2SPacketHandlers(packet).length == 0) {
+                unhandledPackets.add(packet);
+            }
+        }
+        final S2CCustomPayloadPacket customPayloadPacket = new S2CCustomPayloadPacket();
+        customPayloadPacket.channel = "bungeecord:main";
+        customPayloadPacket.data = new byte[64];
+        final Random random = new Random(0);
+        this.packets = new Packet[PACKET_COUNT];
+        for (int i = 0; i < this.packets.length; i++) {
+            if (random.nextInt(100) < this.customPayloadPercent) {
+                this.packets[i] = customPayloadPacket;
+            } else {
+                this.packets[i] = unhandledPackets.get(random.nextInt(unhandledPackets.size()));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.session.close();
+    }
+
+    @Benchmark
+    public boolean allHandlers() throws Exception {
+        boolean forward = true;
+        for (Packet packet : this.packets) {
+            for (PacketHandler packetHandler : this.proxyConnection.getPacketHandlers()) {
+                forward &= packetHandler.handleP2S(packet, this.listeners);
+            }
+        }
+        this.listeners.clear();
+        return forward;
+    }
+
+    @Benchmark
+    public boolean dispatchTable() throws Exception {
+        boolean forward = true;
+        for (Packet packet : this.packets) {
+            for (PacketHandler packetHandler : this.proxyConnection.getP2SPacketHandlers(packet)) {
+                forward &= packetHandler.handleP2S(packet, this.listeners);
+            }
+        }
+        this.listeners.clear();
+        return forward;
+    }
+
+}
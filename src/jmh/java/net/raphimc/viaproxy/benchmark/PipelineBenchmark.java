@@ -0,0 +1,86 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays recorded server packets through a complete proxy pipeline (framing, Via translation, packet handlers and forwarding to the client).<br>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=PipelineBenchmark}. Add {@code -prof gc} to the JMH arguments to also measure the allocation rate per packet.<br>
+ * The default parameters replay the checked-in 1.8 corpus to a 1.8 client (same version, no translation) and to a latest client (1.8 to latest translation).<br>
+ * The checked-in corpus is synthetic and only contains simple packets (keep alive, chat, time update, tab list and brand), so it measures the per packet overhead of the pipeline
+ * rather than the translation of heavy packets like chunks or entity metadata. For that, record corpora from real servers with the {@link net.raphimc.viaproxy.proxy.util.PacketCorpusRecorder},
+ * copy them to {@code src/jmh/resources/corpora} (for example {@code latest}, {@code 1.12} and {@code b1.7.3}) and select them with {@code -p corpus=<name> -p clientVersion=<version>}.
+ * Bedrock corpora can't be replayed, since the benchmark session doesn't set up the Bedrock transport.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"1.8"})
+    public String corpus;
+
+    @Param({"1.8", "latest"})
+    public String clientVersion;
+
+    private PacketCorpus packetCorpus;
+    private ProtocolVersion targetClientVersion;
+    private BenchmarkSession session;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkBootstrap.init();
+        this.packetCorpus = PacketCorpus.load(this.corpus);
+        this.targetClientVersion = PacketCorpus.parseVersion(this.clientVersion);
+        this.newSession();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (this.session != null) {
+            this.session.close();
+        }
+    }
+
+    @Benchmark
+    public void translatePacket() {
+        final List<PacketCorpus.Record> records = this.packetCorpus.records();
+        if (this.cursor >= records.size()) { // The session state depends on the previous packets, so replay from the beginning in a new session
+            this.newSession();
+        }
+        this.session.inject(records.get(this.cursor++));
+    }
+
+    private void newSession() {
+        if (this.session != null) {
+            this.session.close();
+        }
+        this.session = new BenchmarkSession(this.packetCorpus.serverVersion(), this.targetClientVersion);
+        this.cursor = 0;
+    }
+
+}
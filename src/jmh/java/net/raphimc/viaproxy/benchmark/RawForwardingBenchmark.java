@@ -0,0 +1,131 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.constants.MCPackets;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.packet.PacketTypes;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.RawForwardingHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.zip.Deflater;
+
+/**
+ * Forwards server PLAY frames of a same-version session with and without raw forwarding.<br>
+ * The session gets the same packet handlers as a real session, so the setup fails if raw forwarding or compressed frame passthrough doesn't turn on for the given version.
+ * Divide the time per frame by the frame size to get the CPU time per MB of the decoded path, raw forwarding and compressed frame passthrough.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RawForwardingBenchmark {
+
+    private static final int COMPRESSION_THRESHOLD = 256;
+
+    @Param({"1.20.4", "latest"})
+    public String version;
+
+    @Param({"false", "true"})
+    public boolean rawForwarding;
+
+    @Param({"false", "true"})
+    public boolean compression;
+
+    @Param({"64", "8192"})
+    public int payloadSize;
+
+    private BenchmarkSession session;
+    private PacketCorpus.Record frame;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkBootstrap.init();
+        ViaProxy.getConfig().setSameVersionRawForwarding(this.rawForwarding);
+        ViaProxy.getConfig().setCompressedFramePassthrough(this.rawForwarding);
+
+        final ProtocolVersion protocolVersion = PacketCorpus.parseVersion(this.version);
+        this.session = new BenchmarkSession(protocolVersion, protocolVersion);
+        final ProxyConnection proxyConnection = this.session.getProxyConnection();
+        if (this.compression) {
+            proxyConnection.getChannel().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(COMPRESSION_THRESHOLD);
+            proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(COMPRESSION_THRESHOLD);
+        }
+
+        final ByteBuf data = Unpooled.buffer();
+        PacketTypes.writeVarInt(data, MCPackets.S2C_CUSTOM_PAYLOAD.getId(protocolVersion.getVersion()));
+        PacketTypes.writeString(data, "viaproxy:benchmark"); // channel
+        final byte[] payload = new byte[this.payloadSize];
+        Arrays.fill(payload, (byte) 'a');
+        data.writeBytes(payload); // data
+        this.frame = new PacketCorpus.Record(ConnectionState.PLAY, this.compression ? compress(ByteBufUtil.getBytes(data)) : ByteBufUtil.getBytes(data));
+
+        this.session.injectFrame(this.frame); // Switches the session to the PLAY state
+        RawForwardingHandler.enableIfPossible(proxyConnection);
+        if (this.rawForwarding) {
+            final LongSupplier forwardedBytes = this.compression ? RawForwardingHandler::getCompressedBytes : RawForwardingHandler::getRawBytes;
+            final long before = forwardedBytes.getAsLong();
+            this.session.injectFrame(this.frame);
+            if (forwardedBytes.getAsLong() == before) {
+                throw new IllegalStateException((this.compression ? "Compressed frame passthrough" : "Raw forwarding") + " is not used for " + protocolVersion.getName() + " sessions");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.session.close();
+    }
+
+    @Benchmark
+    public void forwardFrame() {
+        this.session.injectFrame(this.frame);
+    }
+
+    private static byte[] compress(final byte[] data) {
+        final ByteBuf frame = Unpooled.buffer();
+        if (data.length < COMPRESSION_THRESHOLD) {
+            PacketTypes.writeVarInt(frame, 0);
+            frame.writeBytes(data);
+        } else {
+            PacketTypes.writeVarInt(frame, data.length);
+            final Deflater deflater = new Deflater();
+            deflater.setInput(data);
+            deflater.finish();
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                frame.writeBytes(buffer, 0, deflater.deflate(buffer));
+            }
+            deflater.end();
+        }
+        return ByteBufUtil.getBytes(frame);
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import net.raphimc.viaproxy.proxy.util.AffinityBootstrap;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip latency of a small packet through a relay on loopback, with and without session affinity.<br>
+ * The relay connects to the echo server with an {@link AffinityBootstrap} or with a separate event loop group, like the proxy does for backend connections.
+ * Run with {@code -prof perfnorm} on Linux to also see the context switches per round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionAffinityBenchmark {
+
+    private static final int PACKET_SIZE = 32;
+
+    @Param({"false", "true"})
+    public boolean sessionAffinity;
+
+    private EventLoopGroup echoGroup;
+    private EventLoopGroup relayClientGroup;
+    private EventLoopGroup relayServerGroup;
+    private EventLoopGroup clientGroup;
+    private Channel echoServer;
+    private Channel relayServer;
+    private Channel client;
+    private volatile CountDownLatch latch;
+    private int received;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        final IoHandlerFactory ioHandlerFactory = NioIoHandler.newFactory();
+        this.echoGroup = new MultiThreadIoEventLoopGroup(1, ioHandlerFactory);
+        this.relayClientGroup = new MultiThreadIoEventLoopGroup(1, ioHandlerFactory);
+        this.relayServerGroup = new MultiThreadIoEventLoopGroup(1, ioHandlerFactory);
+        this.clientGroup = new MultiThreadIoEventLoopGroup(1, ioHandlerFactory);
+
+        this.echoServer = new ServerBootstrap()
+                .group(this.echoGroup)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ctx.writeAndFlush(msg, ctx.voidPromise());
+                    }
+                })
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).sync().channel();
+
+        this.relayServer = new ServerBootstrap()
+                .group(this.relayClientGroup)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.AUTO_READ, false)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel c2p) {
+                        final Bootstrap bootstrap = SessionAffinityBenchmark.this.sessionAffinity ? new AffinityBootstrap(c2p) : new Bootstrap();
+                        final Channel p2s = bootstrap
+                                .group(SessionAffinityBenchmark.this.relayServerGroup)
+                                .channel(NioSocketChannel.class)
+                                .option(ChannelOption.TCP_NODELAY, true)
+                                .handler(new Relay(c2p))
+                                .connect(SessionAffinityBenchmark.this.echoServer.localAddress())
+                                .addListener((ChannelFutureListener) f -> c2p.config().setAutoRead(true))
+                                .channel();
+                        c2p.pipeline().addLast(new Relay(p2s));
+                    }
+                })
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).sync().channel();
+
+        this.client = new Bootstrap()
+                .group(this.clientGroup)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        final ByteBuf buf = (ByteBuf) msg;
+                        SessionAffinityBenchmark.this.received += buf.readableBytes();
+                        buf.release();
+                        if (SessionAffinityBenchmark.this.received >= PACKET_SIZE) {
+                            SessionAffinityBenchmark.this.received -= PACKET_SIZE;
+                            SessionAffinityBenchmark.this.latch.countDown();
+                        }
+                    }
+                })
+                .connect(this.relayServer.localAddress()).sync().channel();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.client.close().syncUninterruptibly();
+        this.relayServer.close().syncUninterruptibly();
+        this.echoServer.close().syncUninterruptibly();
+        this.clientGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        this.relayClientGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        this.relayServerGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        this.echoGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @Benchmark
+    public void roundTrip() throws InterruptedException {
+        final CountDownLatch latch = this.latch = new CountDownLatch(1);
+        this.client.writeAndFlush(this.client.alloc().buffer(PACKET_SIZE).writeZero(PACKET_SIZE), this.client.voidPromise());
+        latch.await();
+    }
+
+    private static class Relay extends ChannelInboundHandlerAdapter {
+
+        private final Channel target;
+
+        private Relay(final Channel target) {
+            this.target = target;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            this.target.writeAndFlush(msg, this.target.voidPromise());
+        }
+
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.benchmark;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.*;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import io.netty.channel.uring.IoUringSocketChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the NIO, epoll and io_uring transports on loopback.<br>
+ * Every operation sends a mix of small and large writes over a fixed number of sessions and waits until the echo server sent everything back.<br>
+ * Transports which aren't available on the current system fail during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+
+    private static final int SESSIONS = 32;
+    private static final int[] WRITE_SIZES = {8, 8, 32, 32, 32, 128, 512, 2048}; // Mostly small packets like movement and keep alive, some larger ones like chunks
+    private static final int BYTES_PER_SESSION;
+
+    static {
+        int bytes = 0;
+        for (int size : WRITE_SIZES) {
+            bytes += size;
+        }
+        BYTES_PER_SESSION = bytes;
+    }
+
+    @Param({"nio", "epoll", "io_uring"})
+    public String transport;
+
+    private EventLoopGroup group;
+    private Channel server;
+    private final Channel[] sessions = new Channel[SESSIONS];
+    private final AtomicLong[] received = new AtomicLong[SESSIONS];
+    private volatile CountDownLatch latch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final IoHandlerFactory ioHandlerFactory;
+        final Class<? extends ServerChannel> serverChannelClass;
+        final Class<? extends Channel> channelClass;
+        switch (this.transport) {
+            case "nio" -> {
+                ioHandlerFactory = NioIoHandler.newFactory();
+                serverChannelClass = NioServerSocketChannel.class;
+                channelClass = NioSocketChannel.class;
+            }
+            case "epoll" -> {
+                Epoll.ensureAvailability();
+                ioHandlerFactory = EpollIoHandler.newFactory();
+                serverChannelClass = EpollServerSocketChannel.class;
+                channelClass = EpollSocketChannel.class;
+            }
+            case "io_uring" -> {
+                IoUring.ensureAvailability();
+                ioHandlerFactory = IoUringIoHandler.newFactory();
+                serverChannelClass = IoUringServerSocketChannel.class;
+                channelClass = IoUringSocketChannel.class;
+            }
+            default -> throw new IllegalArgumentException("Unknown transport: " + this.transport);
+        }
+        this.group = new MultiThreadIoEventLoopGroup(4, ioHandlerFactory);
+
+        this.server = new ServerBootstrap()
+                .group(this.group)
+                .channel(serverChannelClass)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+                        ctx.write(msg, ctx.voidPromise());
+                    }
+
+                    @Override
+                    public void channelReadComplete(final ChannelHandlerContext ctx) {
+                        ctx.flush();
+                    }
+
+                    @Override
+                    public boolean isSharable() {
+                        return true;
+                    }
+                })
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).syncUninterruptibly().channel();
+
+        final Bootstrap bootstrap = new Bootstrap()
+                .group(this.group)
+                .channel(channelClass)
+                .option(ChannelOption.TCP_NODELAY, true);
+        for (int i = 0; i < SESSIONS; i++) {
+            final AtomicLong received = this.received[i] = new AtomicLong();
+            this.sessions[i] = bootstrap.handler(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+                    final ByteBuf buf = (ByteBuf) msg;
+                    try {
+                        if (received.addAndGet(buf.readableBytes()) >= BYTES_PER_SESSION) {
+                            received.addAndGet(-BYTES_PER_SESSION);
+                            TransportBenchmark.this.latch.countDown();
+                        }
+                    } finally {
+                        buf.release();
+                    }
+                }
+            }).connect(this.server.localAddress()).syncUninterruptibly().channel();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Channel session : this.sessions) {
+            if (session != null) {
+                session.close().syncUninterruptibly();
+            }
+        }
+        if (this.server != null) {
+            this.server.close().syncUninterruptibly();
+        }
+        this.group.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SESSIONS)
+    public void sessionMix() throws InterruptedException {
+        this.latch = new CountDownLatch(SESSIONS);
+        for (Channel session : this.sessions) {
+            session.eventLoop().execute(() -> {
+                for (int size : WRITE_SIZES) {
+                    session.write(session.alloc().buffer(size).writeZero(size), session.voidPromise());
+                }
+                session.flush();
+            });
+        }
+        this.latch.await();
+    }
+
+}
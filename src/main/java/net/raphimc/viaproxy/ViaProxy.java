@@ -20,6 +20,7 @@ package net.raphimc.viaproxy;
 import io.netty.channel.Channel;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.NettyRuntime;
 import io.netty.util.ResourceLeakDetector;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import io.netty.util.internal.PlatformDependent;
@@ -38,24 +39,33 @@ import net.lenni0451.reflect.Methods;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.netminecraft.netty.connection.NetServer;
 import net.raphimc.viaproxy.cli.ConsoleHandler;
+import net.raphimc.viaproxy.injection.CachingTransformerManager;
+import net.raphimc.viaproxy.loadtest.LoadTest;
+import net.raphimc.viaproxy.metrics.MetricsServer;
 import net.raphimc.viaproxy.plugins.PluginManager;
 import net.raphimc.viaproxy.plugins.events.Client2ProxyHandlerCreationEvent;
 import net.raphimc.viaproxy.plugins.events.ProxyStartEvent;
 import net.raphimc.viaproxy.plugins.events.ProxyStopEvent;
 import net.raphimc.viaproxy.plugins.events.ViaProxyLoadedEvent;
 import net.raphimc.viaproxy.protocoltranslator.ProtocolTranslator;
+import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyMappingDataLoader;
 import net.raphimc.viaproxy.protocoltranslator.viaproxy.ViaProxyConfig;
 import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyChannelInitializer;
 import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyHandler;
+import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyListener;
+import net.raphimc.viaproxy.proxy.routing.BackendHealthChecker;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.EventLoopGroups;
 import net.raphimc.viaproxy.saves.SaveManager;
 import net.raphimc.viaproxy.tasks.SystemRequirementsCheck;
 import net.raphimc.viaproxy.tasks.UpdateCheckTask;
+import net.raphimc.viaproxy.ui.I18n;
 import net.raphimc.viaproxy.ui.SplashScreen;
 import net.raphimc.viaproxy.ui.ViaProxyWindow;
 import net.raphimc.viaproxy.util.AddressUtil;
 import net.raphimc.viaproxy.util.ClassLoaderPriorityUtil;
 import net.raphimc.viaproxy.util.JarUtil;
+import net.raphimc.viaproxy.util.StartupProfiler;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import javax.swing.*;
@@ -64,10 +74,12 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.instrument.Instrumentation;
 import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -85,6 +97,7 @@ public class ViaProxy {
 
     private static Instrumentation instrumentation;
     private static NetServer currentProxyServer;
+    private static List<Client2ProxyListener> proxyListeners = List.of();
     private static ViaProxyWindow viaProxyWindow;
     private static JFrame foregroundWindow;
 
@@ -94,7 +107,13 @@ public class ViaProxy {
 
     public static void main(String[] args) throws Throwable {
         final IClassProvider classProvider = new GuavaClassPathProvider();
-        final TransformerManager transformerManager = new TransformerManager(classProvider);
+        final TransformerManager transformerManager;
+        final File cwd = System.getProperty("skipTransformedClassCache") == null ? findCwd(new ArrayList<>()) : null;
+        if (cwd != null) {
+            transformerManager = new CachingTransformerManager(classProvider, new File(cwd, "cache/transformed-classes").toPath(), IMPL_VERSION);
+        } else {
+            transformerManager = new TransformerManager(classProvider);
+        }
         transformerManager.addTransformerPreprocessor(new MixinsTranslator());
         transformerManager.addTransformer("net.raphimc.viaproxy.injection.mixins.**");
         if (instrumentation != null) {
@@ -114,11 +133,13 @@ public class ViaProxy {
         injectedMain("Runtime Agent", args);
     }
 
-    public static void injectedMain(final String injectionMethod, final String[] args) throws InterruptedException, IOException, InvocationTargetException {
-        final boolean useUI = args.length == 0 && !GraphicsEnvironment.isHeadless();
-        final boolean useConfig = args.length == 2 && args[0].equals("config");
-        final boolean useCLI = args.length > 0 && args[0].equals("cli");
-
+    /**
+     * Finds a writable directory which can be used as working directory.
+     *
+     * @param failedCwds A list to which all directories which could not be used are added
+     * @return The working directory or null if none of the candidates is writable
+     */
+    private static File findCwd(final List<File> failedCwds) {
         final List<File> potentialCwds = new ArrayList<>();
         if (System.getenv("VP_RUN_DIR") != null) {
             potentialCwds.add(new File(System.getenv("VP_RUN_DIR")));
@@ -127,31 +148,39 @@ public class ViaProxy {
         potentialCwds.add(new File("."));
         JarUtil.getJarFile().map(File::getParentFile).ifPresent(potentialCwds::add);
 
-        final List<File> failedCwds = new ArrayList<>();
         for (File potentialCwd : potentialCwds) {
             if (potentialCwd.isDirectory()) {
                 if (Files.isWritable(potentialCwd.toPath())) {
-                    CWD = potentialCwd;
-                    break;
+                    return potentialCwd;
                 }
             }
             failedCwds.add(potentialCwd);
         }
-        if (CWD == null) { // Backup strategy for weird permission setups: Attempt to write a dummy file to check if the directory is writable
-            for (File potentialCwd : potentialCwds) {
-                if (potentialCwd.isDirectory()) {
-                    try {
-                        final Path testFile = new File(potentialCwd, "viaproxy_writable_test.txt").toPath();
-                        Files.deleteIfExists(testFile);
-                        Files.writeString(testFile, "This is just a test. This file can be deleted.");
-                        Files.deleteIfExists(testFile);
-                        CWD = potentialCwd;
-                        break;
-                    } catch (IOException ignored) {
-                    }
+        // Backup strategy for weird permission setups: Attempt to write a dummy file to check if the directory is writable
+        for (File potentialCwd : potentialCwds) {
+            if (potentialCwd.isDirectory()) {
+                try {
+                    final Path testFile = new File(potentialCwd, "viaproxy_writable_test.txt").toPath();
+                    Files.deleteIfExists(testFile);
+                    Files.writeString(testFile, "This is just a test. This file can be deleted.");
+                    Files.deleteIfExists(testFile);
+                    return potentialCwd;
+                } catch (IOException ignored) {
                 }
             }
         }
+        return null;
+    }
+
+    public static void injectedMain(final String injectionMethod, final String[] args) throws InterruptedException, IOException, InvocationTargetException {
+        final StartupProfiler startupProfiler = new StartupProfiler();
+        final boolean useUI = args.length == 0 && !GraphicsEnvironment.isHeadless();
+        final boolean useConfig = args.length == 2 && args[0].equals("config");
+        final boolean useCLI = args.length > 0 && args[0].equals("cli");
+        final boolean useLoadTest = args.length > 0 && args[0].equals("loadtest");
+
+        final List<File> failedCwds = new ArrayList<>();
+        CWD = findCwd(failedCwds);
         if (CWD != null) {
             System.setProperty("user.dir", CWD.getAbsolutePath());
         } else if (useUI) {
@@ -167,11 +196,12 @@ public class ViaProxy {
         }
 
         Logger.setup();
-        if (!useUI && !useConfig && !useCLI) {
+        if (!useUI && !useConfig && !useCLI && !useLoadTest) {
             final String fileName = JarUtil.getJarFile().map(File::getName).orElse("ViaProxy.jar");
             Logger.LOGGER.info("Usage: java -jar " + fileName + " | Starts ViaProxy in graphical mode if available");
             Logger.LOGGER.info("Usage: java -jar " + fileName + " config <config file> | Starts ViaProxy with the specified config file");
             Logger.LOGGER.info("Usage: java -jar " + fileName + " cli --help | Starts ViaProxy in CLI mode");
+            Logger.LOGGER.info("Usage: java -jar " + fileName + " loadtest --help | Runs a load test against a local stub server");
             System.exit(1);
         }
 
@@ -210,15 +240,22 @@ public class ViaProxy {
         progressConsumer.accept("Initializing ViaProxy");
 
         ConsoleHandler.hookConsole();
-        ViaProxy.loadNetty();
-        ClassLoaderPriorityUtil.loadOverridingJars();
+        startupProfiler.run("Netty", ViaProxy::loadNetty);
+        startupProfiler.run("Overriding jars", ClassLoaderPriorityUtil::loadOverridingJars);
 
         progressConsumer.accept("Loading Plugins");
-        PLUGIN_MANAGER = new PluginManager();
+        startupProfiler.run("Plugins", () -> PLUGIN_MANAGER = new PluginManager());
+
+        // Plugins have to be enabled before this point, as they can listen to the ProtocolTranslatorInitEvent and ViaLoadingEvent.
+        // The saves need the plugin class loaders, but nothing else, so they are loaded while the protocol translators are initialized.
+        final CompletableFuture<Void> savesFuture = startupProfiler.runAsync("Saves", () -> SAVE_MANAGER = new SaveManager());
+        final CompletableFuture<Void> translationsFuture = useUI ? startupProfiler.runAfter(savesFuture, "Translations", I18n::getCurrentLocale) : CompletableFuture.completedFuture(null);
+        final CompletableFuture<Void> mappingDataFuture = startupProfiler.runAsync("ViaProxy mapping data", () -> Objects.requireNonNull(ViaProxyMappingDataLoader.INSTANCE));
         progressConsumer.accept("Loading Protocol Translators");
-        ProtocolTranslator.init();
+        startupProfiler.run("Protocol translators", ProtocolTranslator::init);
+        startupProfiler.await("ViaProxy mapping data", mappingDataFuture);
         progressConsumer.accept("Loading Saves");
-        SAVE_MANAGER = new SaveManager();
+        startupProfiler.await("Saves", savesFuture);
         progressConsumer.accept("Loading Config");
         final File viaProxyConfigFile;
         if (useConfig) {
@@ -228,28 +265,38 @@ public class ViaProxy {
             } else {
                 viaProxyConfigFile = new File(ViaProxy.getCwd(), args[1]);
             }
+        } else if (useLoadTest) { // Use a separate config, because the load test overrides the bind and target address
+            viaProxyConfigFile = new File(ViaProxy.getCwd(), "viaproxy-loadtest.yml");
         } else {
             viaProxyConfigFile = new File(ViaProxy.getCwd(), "viaproxy.yml");
         }
         final boolean firstStart = !viaProxyConfigFile.exists();
-        CONFIG = ViaProxyConfig.create(viaProxyConfigFile);
+        startupProfiler.run("Config", () -> CONFIG = ViaProxyConfig.create(viaProxyConfigFile));
 
         if (useUI) {
+            startupProfiler.await("Translations", translationsFuture);
             progressConsumer.accept("Loading GUI");
-            SwingUtilities.invokeAndWait(() -> {
+            startupProfiler.run("GUI", () -> {
                 try {
-                    foregroundWindow = viaProxyWindow = new ViaProxyWindow();
-                    progressConsumer.accept("Done");
-                    splashScreen.dispose();
-                } catch (Throwable e) {
-                    Logger.LOGGER.fatal("Failed to initialize UI", e);
-                    System.exit(1);
+                    SwingUtilities.invokeAndWait(() -> {
+                        try {
+                            foregroundWindow = viaProxyWindow = new ViaProxyWindow();
+                            progressConsumer.accept("Done");
+                            splashScreen.dispose();
+                        } catch (Throwable e) {
+                            Logger.LOGGER.fatal("Failed to initialize UI", e);
+                            System.exit(1);
+                        }
+                    });
+                } catch (InterruptedException | InvocationTargetException e) {
+                    throw new RuntimeException("Failed to initialize UI", e);
                 }
             });
             if (System.getProperty("skipUpdateCheck") == null) {
                 CompletableFuture.runAsync(new UpdateCheckTask(true));
             }
-            EVENT_MANAGER.call(new ViaProxyLoadedEvent());
+            startupProfiler.run("ViaProxyLoadedEvent", () -> EVENT_MANAGER.call(new ViaProxyLoadedEvent()));
+            startupProfiler.finish();
             Logger.LOGGER.info("ViaProxy started successfully!");
         } else {
             if (useCLI) {
@@ -260,15 +307,22 @@ public class ViaProxy {
                 } catch (Throwable e) {
                     throw new RuntimeException("Failed to load CLI arguments", e);
                 }
-            } else if (firstStart) {
+            } else if (firstStart && !useLoadTest) {
                 Logger.LOGGER.info("This is the first start of ViaProxy. Please configure the settings in the " + viaProxyConfigFile.getName() + " file and restart ViaProxy.");
                 System.exit(0);
             }
 
-            if (System.getProperty("skipUpdateCheck") == null) {
+            if (System.getProperty("skipUpdateCheck") == null && !useLoadTest) {
                 CompletableFuture.runAsync(new UpdateCheckTask(false));
             }
-            EVENT_MANAGER.call(new ViaProxyLoadedEvent());
+            startupProfiler.run("ViaProxyLoadedEvent", () -> EVENT_MANAGER.call(new ViaProxyLoadedEvent()));
+            startupProfiler.finish();
+            if (useLoadTest) {
+                final String[] loadTestArgs = new String[args.length - 1];
+                System.arraycopy(args, 1, loadTestArgs, 0, loadTestArgs.length);
+                LoadTest.run(loadTestArgs);
+                System.exit(0);
+            }
             Logger.LOGGER.info("ViaProxy started successfully!");
             ViaProxy.startProxy();
 
@@ -282,11 +336,33 @@ public class ViaProxy {
         }
         try {
             Logger.LOGGER.info("Starting proxy server");
-            currentProxyServer = new NetServer(new Client2ProxyChannelInitializer(() -> EVENT_MANAGER.call(new Client2ProxyHandlerCreationEvent(new Client2ProxyHandler(), false)).getHandler()));
+            final Client2ProxyChannelInitializer channelInitializer = new Client2ProxyChannelInitializer(() -> EVENT_MANAGER.call(new Client2ProxyHandlerCreationEvent(new Client2ProxyHandler(), false)).getHandler());
+            int listenerCount = Math.max(1, CONFIG.getListenerCount());
+            if (listenerCount > 1 && (!EventLoopGroups.supportsReusePort() || !(CONFIG.getBindAddress() instanceof InetSocketAddress))) {
+                Logger.LOGGER.warn("Multiple listeners require the epoll or io_uring transport and an IP bind address. Only one listener will be bound.");
+                listenerCount = 1;
+            }
+            int threads = CONFIG.getClientEventLoopThreads();
+            if (threads <= 0 && listenerCount > 1) { // Every listener needs its own event loop group
+                threads = NettyRuntime.availableProcessors() * 2;
+            }
+            final int threadsPerListener = threads > 0 ? Math.max(1, threads / listenerCount) : 0;
+            final List<Client2ProxyListener> listeners = new ArrayList<>(listenerCount);
+            for (int i = 0; i < listenerCount; i++) {
+                listeners.add(new Client2ProxyListener(channelInitializer, threadsPerListener, listenerCount > 1, "ViaProxy Client Event Loop #" + i));
+            }
+            currentProxyServer = listeners.get(0);
+            proxyListeners = listeners;
             EVENT_MANAGER.call(new ProxyStartEvent());
-            Logger.LOGGER.info("Binding proxy server to " + AddressUtil.toString(CONFIG.getBindAddress()));
+            Logger.LOGGER.info("Binding proxy server to " + AddressUtil.toString(CONFIG.getBindAddress()) + (listenerCount > 1 ? " with " + listenerCount + " listeners" : ""));
             currentProxyServer.bind(CONFIG.getBindAddress(), false);
+            for (int i = 1; i < listeners.size(); i++) {
+                listeners.get(i).bind(currentProxyServer.getChannel().localAddress(), false); // Use the bound address in case an ephemeral port was requested
+            }
+            MetricsServer.start(CONFIG.getMetricsBindAddress());
+            BackendHealthChecker.start(CONFIG.getBackendHealthCheckInterval());
         } catch (Throwable e) {
+            closeProxyListeners();
             currentProxyServer = null;
             throw e;
         }
@@ -297,8 +373,12 @@ public class ViaProxy {
             Logger.LOGGER.info("Stopping proxy server");
             EVENT_MANAGER.call(new ProxyStopEvent());
 
-            currentProxyServer.getChannel().close();
+            for (Client2ProxyListener listener : proxyListeners) {
+                listener.getChannel().close();
+            }
             currentProxyServer = null;
+            MetricsServer.stop();
+            BackendHealthChecker.stop();
 
             for (Channel channel : CLIENT_CHANNELS) {
                 try {
@@ -306,7 +386,19 @@ public class ViaProxy {
                 } catch (Throwable ignored) {
                 }
             }
+            closeProxyListeners();
+        }
+    }
+
+    private static void closeProxyListeners() {
+        for (Client2ProxyListener listener : proxyListeners) {
+            try {
+                listener.getChannel().close();
+            } catch (Throwable ignored) { // The listener wasn't bound
+            }
+            listener.shutdown();
         }
+        proxyListeners = List.of();
     }
 
     private static void loadNetty() {
@@ -342,6 +434,10 @@ public class ViaProxy {
         return currentProxyServer;
     }
 
+    public static List<? extends NetServer> getProxyListeners() {
+        return proxyListeners;
+    }
+
     public static ViaProxyWindow getViaProxyWindow() {
         return viaProxyWindow;
     }
@@ -54,6 +54,8 @@ public class CommandManager implements CommandBuilder<CommandExecutor> {
     // Debugging commands
     private final GcCommand GcCommand = new GcCommand();
     private final ThreadDumpCommand ThreadDumpCommand = new ThreadDumpCommand();
+    private final StatsCommand StatsCommand = new StatsCommand();
+    private final TranslationStatsCommand TranslationStatsCommand = new TranslationStatsCommand();
 
     public CommandManager() {
         RStream
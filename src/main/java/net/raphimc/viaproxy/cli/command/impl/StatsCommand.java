@@ -0,0 +1,75 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.cli.command.impl;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.cli.command.Command;
+import net.raphimc.viaproxy.cli.command.executor.CommandExecutor;
+import net.raphimc.viaproxy.proxy.client2proxy.ConnectionLimiter;
+import net.raphimc.viaproxy.proxy.routing.Backend;
+import net.raphimc.viaproxy.proxy.routing.BackendPool;
+import net.raphimc.viaproxy.proxy.util.ChannelUtil;
+import net.raphimc.viaproxy.proxy.util.FlushConsolidator;
+import net.raphimc.viaproxy.proxy.util.RawForwardingHandler;
+import net.raphimc.viaproxy.proxy.util.StatusCache;
+import net.raphimc.viaproxy.util.AddressResolver;
+import net.raphimc.viaproxy.util.ProtocolVersionDetector;
+
+import java.util.Map;
+
+public class StatsCommand extends Command {
+
+    public StatsCommand() {
+        super("stats", "Print statistics about the proxy internals", "stats");
+    }
+
+    @Override
+    public void register(final LiteralArgumentBuilder<CommandExecutor> builder) {
+        builder.executes(context -> {
+            final long forwardedPackets = FlushConsolidator.getForwardedPackets();
+            final long flushes = FlushConsolidator.getFlushes();
+            if (ViaProxy.getConfig().shouldConsolidateFlushes()) {
+                context.getSource().sendMessage("Flush consolidation: enabled, Forwarded packets: " + forwardedPackets + ", Flushes: " + flushes + ", Packets per flush: " + (flushes == 0 ? "-" : String.format("%.2f", (double) forwardedPackets / flushes)));
+            } else {
+                context.getSource().sendMessage("Flush consolidation: disabled");
+            }
+            context.getSource().sendMessage("Backpressure: " + (ViaProxy.getConfig().shouldUseBackpressure() ? "enabled" : "disabled") + ", Paused reads: " + ChannelUtil.getBackpressureEvents());
+            context.getSource().sendMessage("Raw forwarding: " + formatForwarding(RawForwardingHandler.getRawBytes(), RawForwardingHandler.getRawNanos()));
+            context.getSource().sendMessage("Compressed frame passthrough: " + formatForwarding(RawForwardingHandler.getCompressedBytes(), RawForwardingHandler.getCompressedNanos()));
+            context.getSource().sendMessage("Decoded forwarding (baseline): " + formatForwarding(RawForwardingHandler.getDecodedBytes(), RawForwardingHandler.getDecodedNanos()));
+            context.getSource().sendMessage("Client connections: " + ConnectionLimiter.getConnections() + ", Rejected by rate limit: " + ConnectionLimiter.getRejectedByRate() + ", Rejected by per IP limit: " + ConnectionLimiter.getRejectedByIpLimit() + ", Rejected by total limit: " + ConnectionLimiter.getRejectedByTotalLimit());
+            context.getSource().sendMessage("Auto detect cache: " + ProtocolVersionDetector.getCacheSize() + " entries, Hits: " + ProtocolVersionDetector.getCacheHits() + ", Misses: " + ProtocolVersionDetector.getCacheMisses());
+            context.getSource().sendMessage("Address cache: " + AddressResolver.getCacheSize() + " entries, Hits: " + AddressResolver.getCacheHits() + ", Misses: " + AddressResolver.getCacheMisses());
+            final long statusRequests = StatusCache.getHits() + StatusCache.getStaleHits() + StatusCache.getCoalesced() + StatusCache.getMisses();
+            context.getSource().sendMessage("Status cache: " + StatusCache.getSize() + " entries, Hits: " + StatusCache.getHits() + ", Stale hits: " + StatusCache.getStaleHits() + ", Coalesced: " + StatusCache.getCoalesced() + ", Misses: " + StatusCache.getMisses() + ", Hit rate: " + (statusRequests == 0 ? "-" : String.format("%.1f%%", 100D * (statusRequests - StatusCache.getMisses()) / statusRequests)));
+            for (Map.Entry<String, BackendPool> route : ViaProxy.getConfig().getRoutingTable().getRoutes().entrySet()) {
+                for (Backend backend : route.getValue().getBackends()) {
+                    context.getSource().sendMessage("Backend " + backend.getAddressString() + " (" + route.getKey() + "): " + (backend.isHealthy() ? "up" : "down") + ", Sessions: " + backend.getActiveSessions() + ", Total sessions: " + backend.getTotalSessions());
+                }
+            }
+            return 1;
+        });
+    }
+
+    private static String formatForwarding(final long bytes, final long nanos) {
+        final double megabytes = bytes / 1024D / 1024D;
+        return String.format("%.2f MB, CPU time per MB: %s", megabytes, bytes == 0 ? "-" : String.format("%.3f ms", nanos / 1_000_000D / megabytes));
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.cli.command.impl;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.cli.command.Command;
+import net.raphimc.viaproxy.cli.command.executor.CommandExecutor;
+import net.raphimc.viaproxy.metrics.TranslationTimings;
+
+import java.util.List;
+
+import static com.mojang.brigadier.arguments.IntegerArgumentType.getInteger;
+import static com.mojang.brigadier.arguments.IntegerArgumentType.integer;
+
+public class TranslationStatsCommand extends Command {
+
+    private static final int DEFAULT_COUNT = 10;
+
+    public TranslationStatsCommand() {
+        super("translationstats", "Print the packet types which take the most time to translate", "translationstats [count]/reset");
+    }
+
+    @Override
+    public void register(final LiteralArgumentBuilder<CommandExecutor> builder) {
+        builder.executes(context -> {
+            this.print(context.getSource(), DEFAULT_COUNT);
+            return 1;
+        });
+        builder.then(argument("count", integer(1)).executes(context -> {
+            this.print(context.getSource(), getInteger(context, "count"));
+            return 1;
+        }));
+        builder.then(literal("reset").executes(context -> {
+            TranslationTimings.reset();
+            context.getSource().sendMessage("Reset the translation statistics.");
+            return 1;
+        }));
+    }
+
+    private void print(final CommandExecutor executor, final int count) {
+        final int sampleRate = ViaProxy.getConfig().getTranslationTimingSampleRate();
+        if (sampleRate <= 0) {
+            executor.sendMessage("Translation timing is disabled. Set translation-timing-sample-rate in the config to enable it.");
+            return;
+        }
+
+        final List<TranslationTimings.PacketTypeTimings> top = TranslationTimings.getTop(count);
+        if (top.isEmpty()) {
+            executor.sendMessage("No packets have been sampled yet.");
+            return;
+        }
+        executor.sendMessage("Top " + top.size() + " packet types by sampled translation time (1 in " + sampleRate + " packets sampled):");
+        for (TranslationTimings.PacketTypeTimings timings : top) {
+            final long samples = timings.getSamples();
+            final long p99 = timings.getP99UpperBoundNanos();
+            executor.sendMessage(String.format("[%s] %s 0x%02X: %d samples, total: %.2f ms, avg: %.2f µs, p99: %s, avg size: %d -> %d bytes",
+                    timings.getVersionPair(),
+                    timings.isClientbound() ? "clientbound" : "serverbound",
+                    timings.getPacketId(),
+                    samples,
+                    timings.getTotalNanos() / 1_000_000D,
+                    timings.getTotalNanos() / 1_000D / samples,
+                    p99 == Long.MAX_VALUE ? "> 10 ms" : String.format("<= %.1f µs", p99 / 1_000D),
+                    timings.getInBytes() / samples,
+                    timings.getOutBytes() / samples));
+        }
+    }
+
+}
@@ -24,8 +24,6 @@ import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.cli.command.Command;
 import net.raphimc.viaproxy.cli.command.executor.CommandExecutor;
 import net.raphimc.viaproxy.util.logging.Logger;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.core.appender.RollingRandomAccessFileAppender;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -40,10 +38,7 @@ public class UploadLogCommand extends Command {
     @Override
     public void register(final LiteralArgumentBuilder<CommandExecutor> builder) {
         builder.executes(context -> {
-            final org.apache.logging.log4j.core.Logger logger = (org.apache.logging.log4j.core.Logger) LogManager.getRootLogger();
-            final RollingRandomAccessFileAppender fileAppender = (RollingRandomAccessFileAppender) logger.getAppenders().get("LatestFile");
-            fileAppender.getManager().flush();
-            final File logFile = new File(fileAppender.getFileName());
+            final File logFile = Logger.flushLatestLog();
 
             try {
                 final MclogsClient mclogsClient = new MclogsClient("ViaProxy", ViaProxy.VERSION);
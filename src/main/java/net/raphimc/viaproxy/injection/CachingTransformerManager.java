@@ -0,0 +1,182 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.injection;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.transformer.IAnnotationHandlerPreprocessor;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.tree.IClassProvider;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.io.*;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * A transformer manager which stores the transformed bytecode of all transformed classes on disk and reuses it on later starts.<br>
+ * Only the targets of the registered transformers are looked up in the cache. Cache entries are keyed by the hash of the untransformed bytecode
+ * and stored in a directory keyed by the ViaProxy version and the hash of all registered transformers.
+ */
+public class CachingTransformerManager extends TransformerManager {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final Set<String> TRANSFORMER_ANNOTATIONS = Set.of("Lorg/spongepowered/asm/mixin/Mixin;", "Lnet/lenni0451/classtransform/annotations/CTransformer;");
+
+    private final Path baseDir;
+    private final String version;
+    private final Map<String, byte[]> transformers = new TreeMap<>();
+    private final Set<String> targets = ConcurrentHashMap.newKeySet();
+    private volatile Path cacheDir;
+
+    public CachingTransformerManager(final IClassProvider classProvider, final Path baseDir, final String version) {
+        super(classProvider);
+        this.baseDir = baseDir;
+        this.version = version;
+        this.addTransformerPreprocessor(new TransformerRecorder());
+    }
+
+    @Override
+    public byte[] transform(final String className, final byte[] bytecode, final boolean calculateStackMapFrames) {
+        if (!this.targets.contains(className)) {
+            return super.transform(className, bytecode, calculateStackMapFrames);
+        }
+
+        final Path cacheFile = this.getCacheDir().resolve(className.replace('.', '/') + ".class");
+        final byte[] inputHash = sha256(bytecode);
+        if (Files.isRegularFile(cacheFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+                if (in.readInt() == FORMAT_VERSION && Arrays.equals(in.readNBytes(inputHash.length), inputHash)) {
+                    return in.readAllBytes();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        final byte[] transformedBytecode = super.transform(className, bytecode, calculateStackMapFrames);
+        if (transformedBytecode != null && transformedBytecode != bytecode) {
+            try {
+                Files.createDirectories(cacheFile.getParent());
+                final Path tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    out.writeInt(FORMAT_VERSION);
+                    out.write(inputHash);
+                    out.write(transformedBytecode);
+                }
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ignored) { // The cache is only an optimization
+            }
+        }
+        return transformedBytecode;
+    }
+
+    /**
+     * The cache directory depends on all registered transformers, so it is resolved when the first targeted class is transformed.
+     */
+    private Path getCacheDir() {
+        Path cacheDir = this.cacheDir;
+        if (cacheDir == null) {
+            synchronized (this.transformers) {
+                cacheDir = this.cacheDir;
+                if (cacheDir == null) {
+                    final MessageDigest digest = sha256();
+                    digest.update(this.version.getBytes());
+                    this.transformers.forEach((name, bytecode) -> {
+                        digest.update(name.getBytes());
+                        digest.update(bytecode);
+                    });
+                    this.cacheDir = cacheDir = this.baseDir.resolve(HexFormat.of().formatHex(digest.digest(), 0, 16));
+                    deleteStaleCaches(this.baseDir, cacheDir);
+                }
+            }
+        }
+        return cacheDir;
+    }
+
+    private static void deleteStaleCaches(final Path baseDir, final Path currentCacheDir) {
+        if (!Files.isDirectory(baseDir)) return;
+
+        try (Stream<Path> caches = Files.list(baseDir)) {
+            caches.filter(path -> !path.equals(currentCacheDir)).forEach(CachingTransformerManager::deleteRecursively);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void deleteRecursively(final Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(file -> file.toFile().delete());
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static byte[] sha256(final byte[] data) {
+        return sha256().digest(data);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Records every transformer the manager resolves, so neither the fingerprint nor the target list needs another classpath scan.
+     */
+    private class TransformerRecorder implements IAnnotationHandlerPreprocessor {
+
+        @Override
+        public void process(final ClassNode node) {
+            synchronized (CachingTransformerManager.this.transformers) {
+                CachingTransformerManager.this.transformers.put(node.name, ASMUtils.toStacklessBytes(node));
+                CachingTransformerManager.this.cacheDir = null;
+            }
+            final List<AnnotationNode> annotations = new ArrayList<>();
+            if (node.invisibleAnnotations != null) annotations.addAll(node.invisibleAnnotations);
+            if (node.visibleAnnotations != null) annotations.addAll(node.visibleAnnotations);
+            for (AnnotationNode annotation : annotations) {
+                if (!TRANSFORMER_ANNOTATIONS.contains(annotation.desc) || annotation.values == null) continue;
+
+                for (int i = 1; i < annotation.values.size(); i += 2) {
+                    if (!(annotation.values.get(i) instanceof List<?> values)) continue;
+
+                    for (Object value : values) {
+                        if (value instanceof Type type) {
+                            CachingTransformerManager.this.targets.add(type.getClassName());
+                        } else if (value instanceof String name) {
+                            CachingTransformerManager.this.targets.add(name.replace('/', '.'));
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public ClassNode replace(final ClassNode node) {
+            return node;
+        }
+
+    }
+
+}
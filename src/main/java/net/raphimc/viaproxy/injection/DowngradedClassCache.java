@@ -0,0 +1,185 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.injection;
+
+import net.raphimc.viaproxy.ViaProxy;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+
+import java.io.*;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProtectionDomain;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the downgraded bytecode of the classes of a plugin jar on disk.<br>
+ * The cache directory is keyed by the ViaProxy version, the content hash of the jar and the target class version, so it is invalidated automatically when the jar, the downgrader or the transformers change.<br>
+ * Each entry additionally stores the length and CRC32 of its input, as classes can be modified by other transformers before they are downgraded.
+ */
+public class DowngradedClassCache {
+
+    private static final int FORMAT_VERSION = 3;
+
+    private final File cacheDir;
+
+    private DowngradedClassCache(final File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public static DowngradedClassCache forJar(final File cacheRoot, final File jar, final int targetClassVersion) throws IOException {
+        final MessageDigest digest = sha256();
+        digest.update(ViaProxy.IMPL_VERSION.getBytes()); // Covers the jvmdowngrader version and the transformer preprocessors
+        try (InputStream in = new DigestInputStream(new BufferedInputStream(new FileInputStream(jar)), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return new DowngradedClassCache(new File(cacheRoot, jar.getName() + "-" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "-" + targetClassVersion));
+    }
+
+    /**
+     * Creates a cache which stores its entries in a subdirectory of this cache.<br>
+     * Inputs which are downgraded in different ways (e.g. raw class files and transformer class nodes) must use separate subdirectories, as entries are keyed by the class name.
+     *
+     * @param name The name of the subdirectory
+     * @return The cache for the subdirectory
+     */
+    public DowngradedClassCache subCache(final String name) {
+        return new DowngradedClassCache(new File(this.cacheDir, name));
+    }
+
+    /**
+     * Deletes all cache directories which do not belong to one of the given caches.
+     */
+    public static void deleteUnused(final File cacheRoot, final Collection<DowngradedClassCache> usedCaches) {
+        final File[] cacheDirs = cacheRoot.listFiles();
+        if (cacheDirs == null) return;
+
+        for (File cacheDir : cacheDirs) {
+            if (usedCaches.stream().noneMatch(cache -> cache.cacheDir.equals(cacheDir))) {
+                try (Stream<Path> files = Files.walk(cacheDir.toPath())) {
+                    files.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(file -> file.toFile().delete());
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the downgraded bytecode of the given class, either from the cache or by calling the downgrader and storing its result.<br>
+     * Results which reference classes the class loader can't find are not stored, as the downgrader defined those classes as a side effect, which can't be replayed from the cache.
+     *
+     * @param loader The class loader which loads the downgraded class
+     */
+    public byte[] downgrade(final ClassLoader loader, final String className, final byte[] bytecode, final Downgrader downgrader) throws IllegalClassFormatException {
+        final File cacheFile = new File(this.cacheDir, className.replace('.', '/') + ".class");
+        final long inputChecksum = checksum(bytecode);
+        if (cacheFile.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+                if (in.readInt() == FORMAT_VERSION && in.readInt() == bytecode.length && in.readLong() == inputChecksum) {
+                    final boolean unchanged = in.readBoolean();
+                    return unchanged ? null : in.readAllBytes();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        final byte[] downgradedBytecode = downgrader.downgrade(bytecode);
+        if (downgradedBytecode != null && referencesMissingClasses(loader != null ? loader : ClassLoader.getSystemClassLoader(), downgradedBytecode)) {
+            return downgradedBytecode;
+        }
+        try {
+            Files.createDirectories(cacheFile.getParentFile().toPath());
+            final Path tempFile = Files.createTempFile(cacheFile.getParentFile().toPath(), cacheFile.getName(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(bytecode.length);
+                out.writeLong(inputChecksum);
+                out.writeBoolean(downgradedBytecode == null);
+                if (downgradedBytecode != null) {
+                    out.write(downgradedBytecode);
+                }
+            }
+            Files.move(tempFile, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignored) { // The cache is only an optimization
+        }
+        return downgradedBytecode;
+    }
+
+    /**
+     * Wraps a class file transformer so that its results are served from this cache.
+     */
+    public ClassFileTransformer wrap(final ClassFileTransformer transformer) {
+        return new ClassFileTransformer() {
+            @Override
+            public byte[] transform(final ClassLoader loader, final String className, final Class<?> classBeingRedefined, final ProtectionDomain protectionDomain, final byte[] classfileBuffer) throws IllegalClassFormatException {
+                return DowngradedClassCache.this.downgrade(loader, className, classfileBuffer, bytecode -> transformer.transform(loader, className, classBeingRedefined, protectionDomain, bytecode));
+            }
+        };
+    }
+
+    private static long checksum(final byte[] data) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(data);
+        return crc32.getValue();
+    }
+
+    private static boolean referencesMissingClasses(final ClassLoader loader, final byte[] bytecode) {
+        final ClassReader classReader = new ClassReader(bytecode);
+        final char[] buffer = new char[classReader.getMaxStringLength()];
+        for (int i = 1; i < classReader.getItemCount(); i++) {
+            final int offset = classReader.getItem(i);
+            if (offset == 0 || classReader.readByte(offset - 1) != 7) continue; // Only CONSTANT_Class entries
+
+            String name = classReader.readUTF8(offset, buffer);
+            if (name.startsWith("[")) {
+                final Type elementType = Type.getType(name).getElementType();
+                if (elementType.getSort() != Type.OBJECT) continue;
+                name = elementType.getInternalName();
+            }
+            if (loader.getResource(name + ".class") == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Downgrader {
+
+        byte[] downgrade(final byte[] bytecode) throws IllegalClassFormatException;
+
+    }
+
+}
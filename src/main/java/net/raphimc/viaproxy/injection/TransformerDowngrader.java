@@ -29,9 +29,18 @@ public class TransformerDowngrader implements IAnnotationHandlerPreprocessor {
 
     private final ClassLoader classLoader;
     private final ClassDowngradingAgent downgrader = new ClassDowngradingAgent();
+    private final DowngradedClassCache cache;
 
     public TransformerDowngrader(final ClassLoader classLoader) {
+        this(classLoader, null);
+    }
+
+    /**
+     * @param cache The cache used to store the downgraded transformers (can be null)
+     */
+    public TransformerDowngrader(final ClassLoader classLoader, final DowngradedClassCache cache) {
         this.classLoader = classLoader;
+        this.cache = cache;
     }
 
     @Override
@@ -42,7 +51,12 @@ public class TransformerDowngrader implements IAnnotationHandlerPreprocessor {
     public ClassNode replace(final ClassNode node) {
         final byte[] bytes = ASMUtils.toStacklessBytes(node);
         try {
-            final byte[] transformed = this.downgrader.transform(this.classLoader, node.name, null, null, bytes);
+            final byte[] transformed;
+            if (this.cache != null) {
+                transformed = this.cache.downgrade(this.classLoader, node.name, bytes, b -> this.downgrader.transform(this.classLoader, node.name, null, null, b));
+            } else {
+                transformed = this.downgrader.transform(this.classLoader, node.name, null, null, bytes);
+            }
             if (transformed != null) {
                 return ASMUtils.fromBytes(transformed);
             } else {
@@ -28,7 +28,6 @@ import com.viaversion.viaversion.api.minecraft.item.data.ToolRule;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.libs.fastutil.ints.IntOpenHashSet;
 import com.viaversion.viaversion.libs.fastutil.ints.IntSet;
-import com.viaversion.viaversion.libs.gson.JsonArray;
 import com.viaversion.viaversion.libs.gson.JsonElement;
 import com.viaversion.viaversion.libs.gson.JsonObject;
 import com.viaversion.viaversion.protocols.v1_20_2to1_20_3.packet.ClientboundPacket1_20_3;
@@ -39,6 +38,7 @@ import com.viaversion.viaversion.rewriter.ItemRewriter;
 import net.raphimc.vialegacy.api.LegacyProtocolVersion;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.plugins.events.ViaLoadingEvent;
+import net.raphimc.viaproxy.protocoltranslator.impl.CompiledMappingData;
 import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyMappingDataLoader;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
@@ -82,26 +82,26 @@ public abstract class MixinBlockItemPacketRewriter1_20_5 extends ItemRewriter<Cl
         }
 
         ViaProxy.EVENT_MANAGER.registerRunnable(() -> {
-            final JsonObject itemToolComponents = ViaProxyMappingDataLoader.INSTANCE.loadData("item-tool-components.json");
-            for (Map.Entry<String, JsonElement> entry : itemToolComponents.entrySet()) {
-                final ProtocolVersion version = ProtocolVersion.getClosest(entry.getKey());
+            final CompiledMappingData itemToolComponents = ViaProxyMappingDataLoader.INSTANCE.loadCompiledData("item-tool-components.bin");
+            final int versionCount = itemToolComponents.readInt();
+            for (int i = 0; i < versionCount; i++) {
+                final String versionName = itemToolComponents.readString();
+                final ProtocolVersion version = ProtocolVersion.getClosest(versionName);
                 if (version == null) {
-                    throw new IllegalStateException("Unknown protocol version: " + entry.getKey());
+                    throw new IllegalStateException("Unknown protocol version: " + versionName);
                 }
-                final Map<String, ToolProperties> toolProperties = new HashMap<>();
-                final JsonArray toolComponents = entry.getValue().getAsJsonArray();
-                for (JsonElement toolComponent : toolComponents) {
-                    final JsonObject toolComponentObject = toolComponent.getAsJsonObject();
-                    final String item = toolComponentObject.get("item").getAsString();
-                    final float defaultMiningSpeed = toolComponentObject.get("default_mining_speed").getAsFloat();
-                    final int damagePerBlock = toolComponentObject.get("damage_per_block").getAsInt();
-                    final int[] suitableFor = this.blockJsonArrayToIds(version, toolComponentObject.getAsJsonArray("suitable_for"));
-                    final List<ToolRule> toolRules = new ArrayList<>();
-                    final JsonArray miningSpeeds = toolComponentObject.getAsJsonArray("mining_speeds");
-                    for (JsonElement miningSpeed : miningSpeeds) {
-                        final JsonObject miningSpeedObject = miningSpeed.getAsJsonObject();
-                        final int[] blocks = this.blockJsonArrayToIds(version, miningSpeedObject.getAsJsonArray("blocks"));
-                        final float speed = miningSpeedObject.get("speed").getAsFloat();
+                final int toolCount = itemToolComponents.readInt();
+                final Map<String, ToolProperties> toolProperties = new HashMap<>(toolCount);
+                for (int j = 0; j < toolCount; j++) {
+                    final String item = itemToolComponents.readString();
+                    final float defaultMiningSpeed = itemToolComponents.readFloat();
+                    final int damagePerBlock = itemToolComponents.readInt();
+                    final int[] suitableFor = this.readBlockIds(version, itemToolComponents);
+                    final int miningSpeedCount = itemToolComponents.readInt();
+                    final List<ToolRule> toolRules = new ArrayList<>(miningSpeedCount + 1);
+                    for (int k = 0; k < miningSpeedCount; k++) {
+                        final float speed = itemToolComponents.readFloat();
+                        final int[] blocks = this.readBlockIds(version, itemToolComponents);
                         toolRules.add(new ToolRule(HolderSet.of(blocks), speed, null));
                     }
                     if (suitableFor.length > 0) {
@@ -144,19 +144,14 @@ public abstract class MixinBlockItemPacketRewriter1_20_5 extends ItemRewriter<Cl
     }
 
     @Unique
-    private int[] blockJsonArrayToIds(final ProtocolVersion protocolVersion, final JsonArray jsonArray) {
+    private int[] readBlockIds(final ProtocolVersion protocolVersion, final CompiledMappingData data) {
         final IntSet ids = new IntOpenHashSet();
-        for (JsonElement element : jsonArray) {
-            final String name = element.getAsString();
+        final int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            final String name = data.readString();
             if (name.startsWith("#")) { // Material name
-                final String material = name.substring(1);
-                for (Map.Entry<String, Map<ProtocolVersion, String>> entry : ViaProxyMappingDataLoader.BLOCK_MATERIALS.entrySet()) {
-                    for (Map.Entry<ProtocolVersion, String> materialEntry : entry.getValue().entrySet()) {
-                        if (protocolVersion.olderThanOrEqualTo(materialEntry.getKey()) && materialEntry.getValue().equals(material)) {
-                            ids.add(this.protocol.getMappingData().blockId(entry.getKey()));
-                            break;
-                        }
-                    }
+                for (String block : ViaProxyMappingDataLoader.getBlockMaterials().getBlocksWithMaterial(protocolVersion, name.substring(1))) {
+                    ids.add(this.protocol.getMappingData().blockId(block));
                 }
             } else if (name.startsWith("-")) { // Block name
                 ids.remove(this.protocol.getMappingData().blockId(name.substring(1)));
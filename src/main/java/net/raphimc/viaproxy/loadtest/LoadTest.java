@@ -0,0 +1,243 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.loadtest;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.api.protocol.version.VersionType;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import joptsimple.OptionException;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.netty.connection.MinecraftChannelInitializer;
+import net.raphimc.netminecraft.netty.connection.NetClient;
+import net.raphimc.netminecraft.netty.connection.NetServer;
+import net.raphimc.netminecraft.packet.registry.DefaultPacketRegistry;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.cli.BetterHelpFormatter;
+import net.raphimc.viaproxy.cli.HelpRequestedException;
+import net.raphimc.viaproxy.protocoltranslator.viaproxy.ViaProxyConfig;
+import net.raphimc.viaproxy.util.ProtocolVersionUtil;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Measures how many concurrent players the proxy sustains.<br>
+ * A stub server and the simulated clients run in the same JVM as the proxy and only use the loopback interface, so no external servers or accounts are needed.
+ * Because of that, the reported CPU and memory usage per client includes the stub server and the simulated client itself and should be seen as an upper bound.<br>
+ * The optional login storm starts many online mode logins at once after the measurement. Their joins go through a local stub session server with a fixed latency,
+ * and the play packet latency of the already connected sessions is reported for the duration of the storm, which shows whether the joins block the event loops.
+ */
+public class LoadTest {
+
+    private static final long LOGIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    public static void run(final String[] args) throws IOException, InterruptedException {
+        final OptionParser optionParser = new OptionParser();
+        final OptionSpec<Void> optionHelp = optionParser.accepts("help").forHelp();
+        final OptionSpec<Integer> optionClients = optionParser.accepts("clients", "The number of simulated clients").withRequiredArg().ofType(Integer.class).defaultsTo(100);
+        final OptionSpec<String> optionVersion = optionParser.accepts("version", "The version of the stub server and the simulated clients").withRequiredArg().ofType(String.class).defaultsTo(getLatestVersion().getName());
+        final OptionSpec<Integer> optionRampUp = optionParser.accepts("ramp-up", "The time in seconds over which the clients connect").withRequiredArg().ofType(Integer.class).defaultsTo(10);
+        final OptionSpec<Integer> optionDuration = optionParser.accepts("duration", "The time in seconds over which the sustained load is measured").withRequiredArg().ofType(Integer.class).defaultsTo(30);
+        final OptionSpec<Integer> optionPacketsPerTick = optionParser.accepts("packets-per-tick", "The number of play packets the stub server sends to every client each tick").withRequiredArg().ofType(Integer.class).defaultsTo(20);
+        final OptionSpec<Integer> optionPayloadSize = optionParser.accepts("payload-size", "The payload size of the play packets in bytes (at least 8, which hold the send timestamp)").withRequiredArg().ofType(Integer.class).defaultsTo(64);
+        final OptionSpec<Integer> optionServerCompressionThreshold = optionParser.accepts("server-compression-threshold", "The compression threshold of the stub server (-1 to disable)").withRequiredArg().ofType(Integer.class).defaultsTo(256);
+        final OptionSpec<Integer> optionLoginStorm = optionParser.accepts("login-storm", "The number of online mode logins which are started at once after the measurement, to check that they don't delay the other sessions (0 to disable)").withRequiredArg().ofType(Integer.class).defaultsTo(0);
+        final OptionSpec<Integer> optionSessionServerLatency = optionParser.accepts("session-server-latency", "The response time of the stub session server used by the login storm in milliseconds").withRequiredArg().ofType(Integer.class).defaultsTo(200);
+
+        final OptionSet options;
+        final ProtocolVersion version;
+        try {
+            options = optionParser.parse(args);
+            if (options.has(optionHelp)) {
+                throw new HelpRequestedException();
+            }
+            version = ProtocolVersionUtil.fromNameLenient(options.valueOf(optionVersion));
+            if (version == null || version.getVersionType() != VersionType.RELEASE || version.olderThan(ProtocolVersion.v1_8)) {
+                Logger.LOGGER.fatal("Load tests only support Java Edition versions from 1.8 onwards");
+                System.exit(1);
+                return;
+            }
+        } catch (OptionException e) {
+            Logger.LOGGER.fatal("Error parsing load test options: " + e.getMessage());
+            printHelp(optionParser);
+            return;
+        } catch (HelpRequestedException e) {
+            printHelp(optionParser);
+            return;
+        }
+        final int clients = options.valueOf(optionClients);
+        final long rampUpNanos = TimeUnit.SECONDS.toNanos(options.valueOf(optionRampUp));
+
+        final NetServer stubServer = new NetServer(createInitializer(false, version, () -> new StubServerHandler(version, options.valueOf(optionServerCompressionThreshold), options.valueOf(optionPacketsPerTick), options.valueOf(optionPayloadSize))));
+        stubServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), false);
+        Logger.LOGGER.info("Stub server listening on " + stubServer.getChannel().localAddress());
+
+        final ViaProxyConfig config = ViaProxy.getConfig();
+        config.setBindAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        config.setTargetAddress(stubServer.getChannel().localAddress());
+        config.setTargetVersion(version);
+        config.setAuthMethod(ViaProxyConfig.AuthMethod.NONE);
+        ViaProxy.startProxy();
+        final InetSocketAddress proxyAddress = (InetSocketAddress) ViaProxy.getCurrentProxyServer().getChannel().localAddress();
+
+        final ResourceSnapshot baseline = ResourceSnapshot.take(true);
+        final LoadTestStats stats = new LoadTestStats(clients);
+        final List<Channel> channels = new ArrayList<>();
+        Logger.LOGGER.info("Connecting " + clients + " " + version.getName() + " clients over " + options.valueOf(optionRampUp) + " seconds");
+        final long rampUpStart = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            final long connectAt = rampUpStart + rampUpNanos * i / clients;
+            long wait;
+            while ((wait = connectAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            connectClient(stats, "LoadTest", i, version, proxyAddress, channels);
+        }
+
+        final long loginDeadline = System.nanoTime() + LOGIN_TIMEOUT_NANOS;
+        while (stats.getLoggedIn() + stats.getFailed() < clients && System.nanoTime() < loginDeadline) {
+            Thread.sleep(100);
+        }
+        Logger.LOGGER.info(stats.getLoggedIn() + " clients logged in, " + stats.getFailed() + " failed. Measuring for " + options.valueOf(optionDuration) + " seconds");
+
+        final ResourceSnapshot before = ResourceSnapshot.take(false);
+        final long packetsBefore = stats.getPlayPackets();
+        final long[] latencyBefore = stats.snapshotPlayLatency();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.valueOf(optionDuration)));
+        final long packetsAfter = stats.getPlayPackets();
+        final long[] latencyAfter = stats.snapshotPlayLatency();
+        final ResourceSnapshot after = ResourceSnapshot.take(false);
+        final ResourceSnapshot afterGc = ResourceSnapshot.take(true);
+
+        final int stormClients = options.valueOf(optionLoginStorm);
+        final LoadTestStats stormStats = new LoadTestStats(Math.max(0, stormClients));
+        long[] latencyDuringStorm = null;
+        if (stormClients > 0) {
+            final StubSessionServer sessionServer = new StubSessionServer(options.valueOf(optionSessionServerLatency));
+            Logger.LOGGER.info("Starting a login storm of " + stormClients + " online mode logins with a session server latency of " + options.valueOf(optionSessionServerLatency) + " ms");
+            final long[] latencyBeforeStorm = stats.snapshotPlayLatency();
+            for (int i = 0; i < stormClients; i++) {
+                connectClient(stormStats, StubServerHandler.ONLINE_MODE_NAME_PREFIX, i, version, proxyAddress, channels);
+            }
+            final long stormDeadline = System.nanoTime() + LOGIN_TIMEOUT_NANOS;
+            while (stormStats.getLoggedIn() + stormStats.getFailed() < stormClients && System.nanoTime() < stormDeadline) {
+                Thread.sleep(10);
+            }
+            latencyDuringStorm = stats.snapshotPlayLatency();
+            for (int i = 0; i < latencyDuringStorm.length; i++) {
+                latencyDuringStorm[i] -= latencyBeforeStorm[i];
+            }
+            sessionServer.stop();
+        }
+
+        final int loggedIn = Math.max(1, stats.getLoggedIn());
+        final double seconds = (after.nanoTime - before.nanoTime) / 1_000_000_000D;
+        final double cpuCores = (after.cpuNanos - before.cpuNanos) / 1_000_000_000D / seconds;
+        Logger.LOGGER.info("===== Load test results =====");
+        Logger.LOGGER.info("Clients: " + clients + ", Connected: " + stats.getConnected() + ", Logged in: " + stats.getLoggedIn() + ", Failed: " + stats.getFailed() + ", Disconnected: " + stats.getDisconnected());
+        if (stats.getFirstFailure() != null) {
+            Logger.LOGGER.info("First failure: " + stats.getFirstFailure());
+        }
+        Logger.LOGGER.info("Connect latency: " + stats.formatConnectLatency());
+        Logger.LOGGER.info("Login latency: " + stats.formatLoginLatency());
+        Logger.LOGGER.info(String.format("Sustained play packets: %.0f/s (%.1f/s per client)", (packetsAfter - packetsBefore) / seconds, (packetsAfter - packetsBefore) / seconds / loggedIn));
+        Logger.LOGGER.info("Play packet latency: " + LoadTestStats.formatPlayLatency(latencyBefore, latencyAfter));
+        if (latencyDuringStorm != null) {
+            Logger.LOGGER.info("Login storm: " + stormStats.getLoggedIn() + " of " + stormClients + " logged in, " + stormStats.getFailed() + " failed" + (stormStats.getFirstFailure() != null ? " (first failure: " + stormStats.getFirstFailure() + ")" : ""));
+            Logger.LOGGER.info("Login storm login latency: " + stormStats.formatLoginLatency());
+            Logger.LOGGER.info("Play packet latency of the other sessions during the login storm: " + LoadTestStats.formatPlayLatency(new long[latencyDuringStorm.length], latencyDuringStorm));
+        }
+        Logger.LOGGER.info(String.format("CPU: %.2f cores (%.2f%% of a core per client)", cpuCores, cpuCores * 100 / loggedIn));
+        Logger.LOGGER.info(String.format("Heap: %.1f KiB per client (after GC)", (afterGc.heapBytes - baseline.heapBytes) / 1024D / loggedIn));
+        if (baseline.directBytes >= 0) {
+            Logger.LOGGER.info(String.format("Direct memory: %.1f KiB per client", (after.directBytes - baseline.directBytes) / 1024D / loggedIn));
+        }
+        Logger.LOGGER.info("CPU and memory include the stub server and the simulated clients, which run in the same JVM.");
+
+        ViaProxy.stopProxy();
+        synchronized (channels) {
+            channels.forEach(Channel::close);
+        }
+        stubServer.getChannel().close().syncUninterruptibly();
+    }
+
+    private static void connectClient(final LoadTestStats stats, final String namePrefix, final int index, final ProtocolVersion version, final InetSocketAddress proxyAddress, final List<Channel> channels) {
+        final long startNanos = System.nanoTime();
+        final NetClient client = new NetClient(createInitializer(true, version, () -> new SimulatedClientHandler(stats, namePrefix, index, version, proxyAddress, startNanos)));
+        client.connect(proxyAddress).addListener((ChannelFutureListener) f -> {
+            if (f.isSuccess()) {
+                synchronized (channels) {
+                    channels.add(f.channel());
+                }
+            } else {
+                stats.failed(f.cause().toString());
+            }
+        });
+    }
+
+    private static MinecraftChannelInitializer createInitializer(final boolean clientside, final ProtocolVersion version, final Supplier<ChannelHandler> handlerSupplier) {
+        return new MinecraftChannelInitializer(handlerSupplier) {
+            @Override
+            protected void initChannel(Channel channel) {
+                super.initChannel(channel);
+                channel.attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).set(new DefaultPacketRegistry(clientside, version.getVersion()));
+            }
+        };
+    }
+
+    private static ProtocolVersion getLatestVersion() {
+        return ProtocolVersion.getProtocols().stream().filter(version -> version.getVersionType() == VersionType.RELEASE).max(Comparator.naturalOrder()).orElseThrow();
+    }
+
+    private static void printHelp(final OptionParser optionParser) throws IOException {
+        optionParser.formatHelpWith(new BetterHelpFormatter());
+        optionParser.printHelpOn(Logger.SYSOUT);
+        System.exit(1);
+    }
+
+    private record ResourceSnapshot(long nanoTime, long cpuNanos, long heapBytes, long directBytes) {
+
+        private static ResourceSnapshot take(final boolean gc) {
+            if (gc) {
+                System.gc();
+            }
+            final long cpuNanos = ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean osBean ? osBean.getProcessCpuTime() : 0;
+            final long directBytes = ByteBufAllocator.DEFAULT instanceof ByteBufAllocatorMetricProvider metricProvider ? metricProvider.metric().usedDirectMemory() : -1;
+            return new ResourceSnapshot(System.nanoTime(), cpuNanos, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), directBytes);
+        }
+
+    }
+
+}
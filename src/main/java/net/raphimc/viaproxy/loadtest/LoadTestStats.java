@@ -0,0 +1,172 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the results of the simulated clients of a load test.<br>
+ * Every client writes only to its own slot of the latency arrays, so recording is lock free.
+ * Play packet latencies are counted in power of two buckets, so the histogram has a fixed size regardless of the number of packets.
+ */
+public class LoadTestStats {
+
+    private final AtomicLongArray connectNanos;
+    private final AtomicLongArray loginNanos;
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger loggedIn = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger disconnected = new AtomicInteger();
+    private final LongAdder playPackets = new LongAdder();
+    private final AtomicLongArray playLatencyBuckets = new AtomicLongArray(Long.SIZE); // Bucket i counts latencies below 2^i microseconds
+    private volatile String firstFailure;
+
+    public LoadTestStats(final int clients) {
+        this.connectNanos = new AtomicLongArray(clients);
+        this.loginNanos = new AtomicLongArray(clients);
+        for (int i = 0; i < clients; i++) {
+            this.connectNanos.set(i, -1);
+            this.loginNanos.set(i, -1);
+        }
+    }
+
+    public void connected(final int client, final long nanos) {
+        this.connectNanos.set(client, nanos);
+        this.connected.incrementAndGet();
+    }
+
+    public void loggedIn(final int client, final long nanos) {
+        this.loginNanos.set(client, nanos);
+        this.loggedIn.incrementAndGet();
+    }
+
+    public void failed(final String reason) {
+        if (this.firstFailure == null) {
+            this.firstFailure = reason;
+        }
+        this.failed.incrementAndGet();
+    }
+
+    public void disconnected() {
+        this.disconnected.incrementAndGet();
+    }
+
+    public void playPacketReceived() {
+        this.playPackets.increment();
+    }
+
+    public void playPacketReceived(final long latencyNanos) {
+        this.playPackets.increment();
+        this.playLatencyBuckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(Math.max(0, latencyNanos / 1000)));
+    }
+
+    /**
+     * @return A copy of the play packet latency histogram, which can be passed to {@link #formatPlayLatency(long[], long[])}
+     */
+    public long[] snapshotPlayLatency() {
+        final long[] buckets = new long[this.playLatencyBuckets.length()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = this.playLatencyBuckets.get(i);
+        }
+        return buckets;
+    }
+
+    public int getConnected() {
+        return this.connected.get();
+    }
+
+    public int getLoggedIn() {
+        return this.loggedIn.get();
+    }
+
+    public int getFailed() {
+        return this.failed.get();
+    }
+
+    public int getDisconnected() {
+        return this.disconnected.get();
+    }
+
+    public long getPlayPackets() {
+        return this.playPackets.sum();
+    }
+
+    public String getFirstFailure() {
+        return this.firstFailure;
+    }
+
+    public String formatConnectLatency() {
+        return formatPercentiles(this.connectNanos);
+    }
+
+    public String formatLoginLatency() {
+        return formatPercentiles(this.loginNanos);
+    }
+
+    /**
+     * Formats the play packet latencies recorded between two snapshots. Percentiles are upper bounds of their bucket.
+     */
+    public static String formatPlayLatency(final long[] from, final long[] to) {
+        final long[] buckets = new long[to.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = to[i] - from[i];
+            count += buckets[i];
+        }
+        if (count == 0) {
+            return "-";
+        }
+        return String.format("%d packets, p50: < %.2f ms, p90: < %.2f ms, p99: < %.2f ms, max: < %.2f ms", count, bucketPercentile(buckets, count, 0.5), bucketPercentile(buckets, count, 0.9), bucketPercentile(buckets, count, 0.99), bucketPercentile(buckets, count, 1));
+    }
+
+    private static double bucketPercentile(final long[] buckets, final long count, final double percentile) {
+        final long target = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return (1L << i) / 1000D;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static String formatPercentiles(final AtomicLongArray values) {
+        final long[] sorted = new long[values.length()];
+        int count = 0;
+        for (int i = 0; i < values.length(); i++) {
+            final long value = values.get(i);
+            if (value >= 0) {
+                sorted[count++] = value;
+            }
+        }
+        if (count == 0) {
+            return "-";
+        }
+        Arrays.sort(sorted, 0, count);
+        return String.format("p50: %.2f ms, p90: %.2f ms, p99: %.2f ms, max: %.2f ms", percentile(sorted, count, 0.5), percentile(sorted, count, 0.9), percentile(sorted, count, 0.99), sorted[count - 1] / 1_000_000D);
+    }
+
+    private static double percentile(final long[] sorted, final int count, final double percentile) {
+        return sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)] / 1_000_000D;
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.loadtest;
+
+import com.google.common.primitives.Longs;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.constants.IntendedState;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.packet.Packet;
+import net.raphimc.netminecraft.packet.impl.configuration.C2SConfigFinishConfigurationPacket;
+import net.raphimc.netminecraft.packet.impl.configuration.S2CConfigDisconnectPacket;
+import net.raphimc.netminecraft.packet.impl.configuration.S2CConfigFinishConfigurationPacket;
+import net.raphimc.netminecraft.packet.impl.handshaking.C2SHandshakingClientIntentionPacket;
+import net.raphimc.netminecraft.packet.impl.login.*;
+import net.raphimc.netminecraft.packet.impl.play.S2CPlayCustomPayloadPacket;
+import net.raphimc.netminecraft.packet.impl.play.S2CPlayDisconnectPacket;
+
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+/**
+ * A simulated offline mode client which logs in to the proxy and then counts the play packets it receives and records their latency.
+ */
+public class SimulatedClientHandler extends SimpleChannelInboundHandler<Packet> {
+
+    private final LoadTestStats stats;
+    private final String namePrefix;
+    private final int index;
+    private final ProtocolVersion version;
+    private final InetSocketAddress proxyAddress;
+    private final long startNanos;
+    private ConnectionState connectionState = ConnectionState.HANDSHAKING;
+    private boolean failed;
+
+    public SimulatedClientHandler(final LoadTestStats stats, final String namePrefix, final int index, final ProtocolVersion version, final InetSocketAddress proxyAddress, final long startNanos) {
+        this.stats = stats;
+        this.namePrefix = namePrefix;
+        this.index = index;
+        this.version = version;
+        this.proxyAddress = proxyAddress;
+        this.startNanos = startNanos;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        super.channelActive(ctx);
+        this.stats.connected(this.index, System.nanoTime() - this.startNanos);
+
+        final String name = this.namePrefix + this.index;
+        ctx.writeAndFlush(new C2SHandshakingClientIntentionPacket(this.version.getOriginalVersion(), this.proxyAddress.getHostString(), this.proxyAddress.getPort(), IntendedState.LOGIN)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        this.setConnectionState(ctx, ConnectionState.LOGIN);
+        ctx.writeAndFlush(new C2SLoginHelloPacket(name, null, null, null, UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes()))).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (this.connectionState != ConnectionState.PLAY) {
+            this.fail("Connection closed during " + this.connectionState);
+        }
+        this.stats.disconnected();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Packet packet) {
+        if (this.connectionState == ConnectionState.PLAY) {
+            if (packet instanceof S2CPlayDisconnectPacket) {
+                this.fail("Disconnected during PLAY");
+                ctx.close();
+            } else if (packet instanceof S2CPlayCustomPayloadPacket customPayloadPacket && customPayloadPacket.channel.equals(StubServerHandler.getPayloadChannel(this.version)) && customPayloadPacket.data.length >= Long.BYTES) {
+                this.stats.playPacketReceived(System.nanoTime() - Longs.fromByteArray(customPayloadPacket.data));
+            } else {
+                this.stats.playPacketReceived();
+            }
+        } else if (packet instanceof S2CLoginCompressionPacket loginCompressionPacket) {
+            ctx.channel().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(loginCompressionPacket.compressionThreshold);
+        } else if (packet instanceof S2CLoginGameProfilePacket) {
+            if (this.version.newerThanOrEqualTo(ProtocolVersion.v1_20_2)) {
+                ctx.writeAndFlush(new C2SLoginAcknowledgedPacket()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                this.setConnectionState(ctx, ConnectionState.CONFIGURATION);
+            } else {
+                this.enterPlay(ctx);
+            }
+        } else if (packet instanceof S2CConfigFinishConfigurationPacket) {
+            ctx.writeAndFlush(new C2SConfigFinishConfigurationPacket()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            this.enterPlay(ctx);
+        } else if (packet instanceof S2CLoginHelloPacket) {
+            this.fail("The proxy requested encryption. Load tests only support offline mode");
+            ctx.close();
+        } else if (packet instanceof S2CLoginDisconnectPacket || packet instanceof S2CConfigDisconnectPacket) {
+            this.fail("Disconnected during " + this.connectionState);
+            ctx.close();
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        this.fail(cause.toString());
+        ctx.close();
+    }
+
+    private void enterPlay(final ChannelHandlerContext ctx) {
+        this.setConnectionState(ctx, ConnectionState.PLAY);
+        this.stats.loggedIn(this.index, System.nanoTime() - this.startNanos);
+    }
+
+    private void setConnectionState(final ChannelHandlerContext ctx, final ConnectionState connectionState) {
+        this.connectionState = connectionState;
+        ctx.channel().attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).get().setConnectionState(connectionState);
+    }
+
+    private void fail(final String reason) {
+        if (!this.failed) {
+            this.failed = true;
+            this.stats.failed(reason);
+        }
+    }
+
+}
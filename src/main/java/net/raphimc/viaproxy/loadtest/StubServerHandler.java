@@ -0,0 +1,178 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.loadtest;
+
+import com.google.common.primitives.Longs;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.concurrent.ScheduledFuture;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.constants.IntendedState;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.packet.Packet;
+import net.raphimc.netminecraft.packet.PacketTypes;
+import net.raphimc.netminecraft.packet.impl.configuration.C2SConfigFinishConfigurationPacket;
+import net.raphimc.netminecraft.packet.impl.configuration.S2CConfigFinishConfigurationPacket;
+import net.raphimc.netminecraft.packet.impl.handshaking.C2SHandshakingClientIntentionPacket;
+import net.raphimc.netminecraft.netty.crypto.AESEncryption;
+import net.raphimc.netminecraft.netty.crypto.CryptUtil;
+import net.raphimc.netminecraft.packet.impl.login.C2SLoginAcknowledgedPacket;
+import net.raphimc.netminecraft.packet.impl.login.C2SLoginHelloPacket;
+import net.raphimc.netminecraft.packet.impl.login.C2SLoginKeyPacket;
+import net.raphimc.netminecraft.packet.impl.login.S2CLoginHelloPacket;
+import net.raphimc.netminecraft.packet.impl.play.S2CPlayCustomPayloadPacket;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A minimal Minecraft server which logs players in and then streams synthetic play packets to them.<br>
+ * The play traffic consists of custom payload packets, because their layout is the same across all versions and they are forwarded by every client.
+ * The first 8 bytes of every payload contain the {@link System#nanoTime()} at which it was sent, so clients in the same JVM can measure the forwarding latency.<br>
+ * Players whose name starts with {@link #ONLINE_MODE_NAME_PREFIX} have to go through the encryption handshake, which makes the proxy join the server via the session server.
+ */
+public class StubServerHandler extends SimpleChannelInboundHandler<Packet> {
+
+    public static final String ONLINE_MODE_NAME_PREFIX = "Storm";
+
+    private static final KeyPair KEY_PAIR = CryptUtil.generateKeyPair();
+    private static final int TICK_MILLIS = 50;
+    private static final int LOGIN_SUCCESS_ID = 0x02;
+    private static final int LOGIN_COMPRESSION_ID = 0x03;
+
+    private final ProtocolVersion version;
+    private final int compressionThreshold;
+    private final int packetsPerTick;
+    private final int payloadSize;
+    private ScheduledFuture<?> trafficTask;
+
+    public StubServerHandler(final ProtocolVersion version, final int compressionThreshold, final int packetsPerTick, final int payloadSize) {
+        this.version = version;
+        this.compressionThreshold = compressionThreshold;
+        this.packetsPerTick = packetsPerTick;
+        this.payloadSize = Math.max(Long.BYTES, payloadSize);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (this.trafficTask != null) {
+            this.trafficTask.cancel(false);
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Packet packet) throws GeneralSecurityException {
+        if (packet instanceof C2SHandshakingClientIntentionPacket handshakePacket) {
+            if (handshakePacket.intendedState != IntendedState.LOGIN) {
+                ctx.close();
+                return;
+            }
+            setConnectionState(ctx, ConnectionState.LOGIN);
+        } else if (packet instanceof C2SLoginHelloPacket loginHelloPacket) {
+            if (loginHelloPacket.name.startsWith(ONLINE_MODE_NAME_PREFIX)) {
+                final byte[] nonce = new byte[4];
+                ThreadLocalRandom.current().nextBytes(nonce);
+                ctx.writeAndFlush(new S2CLoginHelloPacket("", KEY_PAIR.getPublic().getEncoded(), nonce, true));
+            } else {
+                this.finishLogin(ctx);
+            }
+        } else if (packet instanceof C2SLoginKeyPacket loginKeyPacket) {
+            final SecretKey secretKey = CryptUtil.decryptSecretKey(KEY_PAIR.getPrivate(), loginKeyPacket.encryptedSecretKey);
+            ctx.channel().attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY).set(new AESEncryption(secretKey));
+            this.finishLogin(ctx);
+        } else if (packet instanceof C2SLoginAcknowledgedPacket) {
+            setConnectionState(ctx, ConnectionState.CONFIGURATION);
+            ctx.writeAndFlush(new S2CConfigFinishConfigurationPacket());
+        } else if (packet instanceof C2SConfigFinishConfigurationPacket) {
+            this.startPlay(ctx);
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        ctx.close();
+    }
+
+    private void finishLogin(final ChannelHandlerContext ctx) {
+        if (this.compressionThreshold >= 0) {
+            final ByteBuf loginCompression = ctx.alloc().buffer();
+            PacketTypes.writeVarInt(loginCompression, LOGIN_COMPRESSION_ID);
+            PacketTypes.writeVarInt(loginCompression, this.compressionThreshold);
+            ctx.write(loginCompression);
+            ctx.channel().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(this.compressionThreshold);
+        }
+        ctx.writeAndFlush(this.createLoginSuccess(ctx));
+        if (this.version.olderThan(ProtocolVersion.v1_20_2)) {
+            this.startPlay(ctx);
+        }
+    }
+
+    private void startPlay(final ChannelHandlerContext ctx) {
+        setConnectionState(ctx, ConnectionState.PLAY);
+        final String channel = getPayloadChannel(this.version);
+        this.trafficTask = ctx.executor().scheduleAtFixedRate(() -> {
+            if (!ctx.channel().isWritable()) { // Behave like a real server and don't queue up packets for a client which can't keep up
+                return;
+            }
+            final byte[] payload = new byte[this.payloadSize];
+            System.arraycopy(Longs.toByteArray(System.nanoTime()), 0, payload, 0, Long.BYTES);
+            for (int i = 0; i < this.packetsPerTick; i++) {
+                final S2CPlayCustomPayloadPacket customPayloadPacket = new S2CPlayCustomPayloadPacket();
+                customPayloadPacket.channel = channel;
+                customPayloadPacket.data = payload;
+                ctx.write(customPayloadPacket, ctx.voidPromise());
+            }
+            ctx.flush();
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private ByteBuf createLoginSuccess(final ChannelHandlerContext ctx) {
+        final UUID uuid = UUID.randomUUID();
+        final ByteBuf loginSuccess = ctx.alloc().buffer();
+        PacketTypes.writeVarInt(loginSuccess, LOGIN_SUCCESS_ID);
+        if (this.version.newerThanOrEqualTo(ProtocolVersion.v1_16)) {
+            PacketTypes.writeUuid(loginSuccess, uuid); // uuid
+        } else {
+            PacketTypes.writeString(loginSuccess, uuid.toString()); // uuid
+        }
+        PacketTypes.writeString(loginSuccess, "LoadTest"); // name
+        if (this.version.newerThanOrEqualTo(ProtocolVersion.v1_19)) {
+            PacketTypes.writeVarInt(loginSuccess, 0); // properties
+        }
+        if (this.version.newerThanOrEqualTo(ProtocolVersion.v1_20_5) && this.version.olderThan(ProtocolVersion.v1_21_2)) {
+            loginSuccess.writeBoolean(true); // strict error handling
+        }
+        return loginSuccess;
+    }
+
+    public static String getPayloadChannel(final ProtocolVersion version) {
+        return version.newerThanOrEqualTo(ProtocolVersion.v1_13) ? "viaproxy:loadtest" : "VP|LoadTest";
+    }
+
+    private static void setConnectionState(final ChannelHandlerContext ctx, final ConnectionState connectionState) {
+        ctx.channel().attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).get().setConnectionState(connectionState);
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import net.lenni0451.lambdaevents.EventHandler;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.plugins.events.JoinServerRequestEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local replacement for the join endpoint of the Mojang session server, which answers every request after a fixed delay.<br>
+ * While it is running, joins of accounts without credentials are sent to it with a blocking HTTP request, just like the requests to the real session server.
+ */
+public class StubSessionServer {
+
+    private static final String JOIN_PATH = "/session/minecraft/join";
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final URL joinUrl;
+
+    public StubSessionServer(final int latencyMillis) throws IOException {
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.httpServer.createContext(JOIN_PATH, exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(latencyMillis);
+                exchange.sendResponseHeaders(204, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        this.httpServer.setExecutor(this.executor);
+        this.httpServer.start();
+        this.joinUrl = new URL("http", this.httpServer.getAddress().getHostString(), this.httpServer.getAddress().getPort(), JOIN_PATH);
+        ViaProxy.EVENT_MANAGER.register(this);
+    }
+
+    public void stop() {
+        ViaProxy.EVENT_MANAGER.unregister(this);
+        this.httpServer.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    @EventHandler
+    void onJoinServerRequest(final JoinServerRequestEvent event) {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) this.joinUrl.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(10));
+            connection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(10));
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(("{\"serverId\":\"" + event.getServerIdHash() + "\"}").getBytes(StandardCharsets.UTF_8));
+            }
+            try (InputStream ignored = connection.getInputStream()) {
+                if (connection.getResponseCode() == 204) {
+                    event.setCancelled(true);
+                }
+            }
+        } catch (IOException ignored) { // Not cancelling the event kicks the client, which is reported as a failed login
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram with fixed buckets, exposed as a Prometheus histogram in seconds.
+ */
+public class Histogram {
+
+    public static final double[] LATENCY_BUCKETS = {0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+
+    private final double[] buckets;
+    private final long[] bucketNanos;
+    private final LongAdder[] counts;
+    private final LongAdder sumNanos = new LongAdder();
+
+    public Histogram() {
+        this(LATENCY_BUCKETS);
+    }
+
+    /**
+     * @param buckets The upper bounds of the buckets in seconds in ascending order
+     */
+    public Histogram(final double[] buckets) {
+        this.buckets = buckets;
+        this.bucketNanos = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            this.bucketNanos[i] = (long) (buckets[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+        this.counts = new LongAdder[buckets.length + 1];
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = new LongAdder();
+        }
+    }
+
+    public void observe(final long nanos) {
+        int bucket = 0;
+        while (bucket < this.bucketNanos.length && nanos > this.bucketNanos[bucket]) {
+            bucket++;
+        }
+        this.counts[bucket].increment();
+        this.sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucketCount : this.counts) {
+            count += bucketCount.sum();
+        }
+        return count;
+    }
+
+    public long getSumNanos() {
+        return this.sumNanos.sum();
+    }
+
+    /**
+     * Estimates a quantile by returning the upper bound of the bucket it falls into.
+     *
+     * @param quantile The quantile (0-1)
+     * @return The upper bound of the bucket in nanoseconds, or {@link Long#MAX_VALUE} if the quantile is above the largest bucket
+     */
+    public long getQuantileUpperBoundNanos(final double quantile) {
+        final long target = (long) Math.ceil(quantile * this.getCount());
+        long cumulative = 0;
+        for (int i = 0; i < this.bucketNanos.length; i++) {
+            cumulative += this.counts[i].sum();
+            if (cumulative >= target) {
+                return this.bucketNanos[i];
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    void write(final MetricsWriter writer, final String name, final String labels) {
+        long cumulative = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            cumulative += this.counts[i].sum();
+            final String le = i < this.buckets.length ? Double.toString(this.buckets[i]) : "+Inf";
+            writer.sample(name + "_bucket", labels.isEmpty() ? "le=\"" + le + "\"" : labels + ",le=\"" + le + "\"", cumulative);
+        }
+        writer.sample(name + "_sum", labels, this.sumNanos.sum() / 1_000_000_000D);
+        writer.sample(name + "_count", labels, cumulative);
+    }
+
+}
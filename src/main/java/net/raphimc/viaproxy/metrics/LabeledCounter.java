@@ -0,0 +1,48 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter with a single label. The number of distinct label values is limited, further values are counted as "other".
+ */
+public class LabeledCounter {
+
+    private static final int MAX_LABEL_VALUES = 64;
+    private static final String OTHER = "other";
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public void increment(final String labelValue) {
+        LongAdder counter = this.counters.get(labelValue);
+        if (counter == null) {
+            counter = this.counters.computeIfAbsent(this.counters.size() < MAX_LABEL_VALUES ? labelValue : OTHER, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    void write(final MetricsWriter writer, final String name, final String label) {
+        for (Map.Entry<String, LongAdder> entry : this.counters.entrySet()) {
+            writer.sample(name, label + "=\"" + MetricsWriter.escape(entry.getKey()) + "\"", entry.getValue().sum());
+        }
+    }
+
+}
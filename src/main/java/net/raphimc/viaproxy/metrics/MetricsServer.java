@@ -0,0 +1,85 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import net.raphimc.viaproxy.util.AddressUtil;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the {@link ProxyMetrics} over HTTP in the Prometheus text format.
+ */
+public class MetricsServer {
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    public static synchronized void start(final String bindAddress) {
+        if (server != null || bindAddress.isBlank()) return;
+
+        try {
+            final SocketAddress address = AddressUtil.parse(bindAddress, null);
+            if (!(address instanceof InetSocketAddress inetSocketAddress)) {
+                throw new IllegalArgumentException("The metrics endpoint can only listen on an IP address");
+            }
+            server = HttpServer.create(inetSocketAddress, 0);
+            server.createContext("/metrics", exchange -> {
+                try (exchange) {
+                    if (!exchange.getRequestMethod().equals("GET")) {
+                        exchange.sendResponseHeaders(405, -1);
+                        return;
+                    }
+                    final byte[] response = ProxyMetrics.collect().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    exchange.sendResponseHeaders(200, response.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(response);
+                    }
+                }
+            });
+            server.setExecutor(executor = Executors.newSingleThreadExecutor(r -> {
+                final Thread thread = new Thread(r, "ViaProxy Metrics");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            Logger.LOGGER.info("Serving metrics at http://" + AddressUtil.toString(inetSocketAddress) + "/metrics");
+        } catch (IOException | IllegalArgumentException e) {
+            server = null;
+            Logger.LOGGER.error("Failed to start the metrics endpoint", e);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+}
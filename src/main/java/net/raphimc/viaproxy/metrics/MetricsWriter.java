@@ -0,0 +1,57 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.metrics;
+
+/**
+ * Writes metrics in the Prometheus text exposition format.
+ */
+public class MetricsWriter {
+
+    private final StringBuilder builder = new StringBuilder();
+
+    public void header(final String name, final String type, final String help) {
+        this.builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        this.builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    public void sample(final String name, final String labels, final long value) {
+        this.appendName(name, labels).append(value).append('\n');
+    }
+
+    public void sample(final String name, final String labels, final double value) {
+        this.appendName(name, labels).append(value).append('\n');
+    }
+
+    public static String escape(final String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private StringBuilder appendName(final String name, final String labels) {
+        this.builder.append(name);
+        if (!labels.isEmpty()) {
+            this.builder.append('{').append(labels).append('}');
+        }
+        return this.builder.append(' ');
+    }
+
+    @Override
+    public String toString() {
+        return this.builder.toString();
+    }
+
+}
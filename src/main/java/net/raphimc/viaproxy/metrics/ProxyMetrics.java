@@ -0,0 +1,216 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.metrics;
+
+import io.netty.channel.Channel;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.netty.connection.NetServer;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.proxy.client2proxy.ConnectionLimiter;
+import net.raphimc.viaproxy.proxy.routing.Backend;
+import net.raphimc.viaproxy.proxy.routing.BackendPool;
+import net.raphimc.viaproxy.proxy.session.DummyProxyConnection;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.StatusCache;
+import net.raphimc.viaproxy.util.AddressResolver;
+import net.raphimc.viaproxy.util.ProtocolVersionDetector;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global metrics about the proxy internals.<br>
+ * Counters are recorded lock free on the hot path. Session and event loop gauges are computed when the metrics are collected.
+ */
+public class ProxyMetrics {
+
+    private static final LongAdder SERVERBOUND_PACKETS = new LongAdder();
+    private static final LongAdder CLIENTBOUND_PACKETS = new LongAdder();
+    private static final LongAdder CLIENT_READ_BYTES = new LongAdder();
+    private static final LongAdder CLIENT_WRITTEN_BYTES = new LongAdder();
+    private static final LongAdder SERVER_READ_BYTES = new LongAdder();
+    private static final LongAdder SERVER_WRITTEN_BYTES = new LongAdder();
+    private static final LabeledCounter CONNECT_FAILURES = new LabeledCounter();
+    private static final LabeledCounter KICKS = new LabeledCounter();
+    private static final Histogram LOGIN_DURATION = new Histogram();
+    private static final Histogram CONFIGURATION_DURATION = new Histogram();
+
+    public static final TrafficCounterHandler CLIENT_TRAFFIC_COUNTER = new TrafficCounterHandler(CLIENT_READ_BYTES, CLIENT_WRITTEN_BYTES);
+    public static final TrafficCounterHandler SERVER_TRAFFIC_COUNTER = new TrafficCounterHandler(SERVER_READ_BYTES, SERVER_WRITTEN_BYTES);
+
+    public static void recordPacket(final boolean serverbound) {
+        (serverbound ? SERVERBOUND_PACKETS : CLIENTBOUND_PACKETS).increment();
+    }
+
+    public static void recordConnectFailure(final Throwable cause) {
+        CONNECT_FAILURES.increment(cause.getClass().getSimpleName());
+    }
+
+    public static void recordKick(final String message) {
+        String reason = message.replaceAll("§.", "");
+        final int lineEnd = reason.indexOf('\n');
+        if (lineEnd != -1) { // Only use the first line, the following lines usually contain details like exception messages
+            reason = reason.substring(0, lineEnd);
+        }
+        KICKS.increment(reason.length() > 64 ? reason.substring(0, 64) : reason);
+    }
+
+    public static void recordStateDuration(final ConnectionState connectionState, final long nanos) {
+        if (connectionState == ConnectionState.LOGIN) {
+            LOGIN_DURATION.observe(nanos);
+        } else if (connectionState == ConnectionState.CONFIGURATION) {
+            CONFIGURATION_DURATION.observe(nanos);
+        }
+    }
+
+    public static String collect() {
+        final MetricsWriter writer = new MetricsWriter();
+
+        writer.header("viaproxy_packets_total", "counter", "Packets received by the proxy.");
+        writer.sample("viaproxy_packets_total", "direction=\"serverbound\"", SERVERBOUND_PACKETS.sum());
+        writer.sample("viaproxy_packets_total", "direction=\"clientbound\"", CLIENTBOUND_PACKETS.sum());
+
+        writer.header("viaproxy_bytes_total", "counter", "Bytes transferred over the client and server connections.");
+        writer.sample("viaproxy_bytes_total", "side=\"client\",direction=\"serverbound\"", CLIENT_READ_BYTES.sum());
+        writer.sample("viaproxy_bytes_total", "side=\"client\",direction=\"clientbound\"", CLIENT_WRITTEN_BYTES.sum());
+        writer.sample("viaproxy_bytes_total", "side=\"server\",direction=\"serverbound\"", SERVER_WRITTEN_BYTES.sum());
+        writer.sample("viaproxy_bytes_total", "side=\"server\",direction=\"clientbound\"", SERVER_READ_BYTES.sum());
+
+        writer.header("viaproxy_connect_failures_total", "counter", "Failed connections to backend servers by cause.");
+        CONNECT_FAILURES.write(writer, "viaproxy_connect_failures_total", "cause");
+
+        writer.header("viaproxy_kicks_total", "counter", "Clients kicked by the proxy by reason.");
+        KICKS.write(writer, "viaproxy_kicks_total", "reason");
+
+        writer.header("viaproxy_login_phase_duration_seconds", "histogram", "Time clients spent in the login and configuration phase.");
+        LOGIN_DURATION.write(writer, "viaproxy_login_phase_duration_seconds", "phase=\"login\"");
+        CONFIGURATION_DURATION.write(writer, "viaproxy_login_phase_duration_seconds", "phase=\"configuration\"");
+
+        writer.header("viaproxy_connections_rejected_total", "counter", "Client connections which were closed because they exceeded a connection limit.");
+        writer.sample("viaproxy_connections_rejected_total", "reason=\"rate\"", ConnectionLimiter.getRejectedByRate());
+        writer.sample("viaproxy_connections_rejected_total", "reason=\"ip_limit\"", ConnectionLimiter.getRejectedByIpLimit());
+        writer.sample("viaproxy_connections_rejected_total", "reason=\"total_limit\"", ConnectionLimiter.getRejectedByTotalLimit());
+
+        writer.header("viaproxy_auto_detect_cache_requests_total", "counter", "Lookups in the server version auto detection cache.");
+        writer.sample("viaproxy_auto_detect_cache_requests_total", "result=\"hit\"", ProtocolVersionDetector.getCacheHits());
+        writer.sample("viaproxy_auto_detect_cache_requests_total", "result=\"miss\"", ProtocolVersionDetector.getCacheMisses());
+        writer.header("viaproxy_auto_detect_cache_entries", "gauge", "Entries in the server version auto detection cache.");
+        writer.sample("viaproxy_auto_detect_cache_entries", "", ProtocolVersionDetector.getCacheSize());
+
+        writer.header("viaproxy_address_cache_requests_total", "counter", "Lookups in the resolved server address cache.");
+        writer.sample("viaproxy_address_cache_requests_total", "result=\"hit\"", AddressResolver.getCacheHits());
+        writer.sample("viaproxy_address_cache_requests_total", "result=\"miss\"", AddressResolver.getCacheMisses());
+        writer.header("viaproxy_address_cache_entries", "gauge", "Entries in the resolved server address cache.");
+        writer.sample("viaproxy_address_cache_entries", "", AddressResolver.getCacheSize());
+
+        writer.header("viaproxy_status_cache_requests_total", "counter", "Lookups in the server list ping response cache.");
+        writer.sample("viaproxy_status_cache_requests_total", "result=\"hit\"", StatusCache.getHits());
+        writer.sample("viaproxy_status_cache_requests_total", "result=\"stale_hit\"", StatusCache.getStaleHits());
+        writer.sample("viaproxy_status_cache_requests_total", "result=\"coalesced\"", StatusCache.getCoalesced());
+        writer.sample("viaproxy_status_cache_requests_total", "result=\"miss\"", StatusCache.getMisses());
+        writer.header("viaproxy_status_cache_entries", "gauge", "Entries in the server list ping response cache.");
+        writer.sample("viaproxy_status_cache_entries", "", StatusCache.getSize());
+
+        TranslationTimings.write(writer);
+        writeSessions(writer);
+        writeBackends(writer);
+        return writer.toString();
+    }
+
+    private static void writeSessions(final MetricsWriter writer) {
+        final Map<String, Integer> sessionsByState = new TreeMap<>();
+        final Map<String, Integer> sessionsByVersion = new TreeMap<>();
+        final Map<EventExecutorGroup, String> eventLoopGroups = new IdentityHashMap<>();
+        for (NetServer listener : ViaProxy.getProxyListeners()) {
+            eventLoopGroups.putIfAbsent(listener.getChannel().eventLoop().parent(), "listener" + (eventLoopGroups.isEmpty() ? "" : "_" + eventLoopGroups.size()));
+        }
+
+        if (ViaProxy.getConnectedClients() != null) {
+            for (Channel channel : ViaProxy.getConnectedClients()) {
+                eventLoopGroups.putIfAbsent(channel.eventLoop().parent(), "client");
+                final ProxyConnection proxyConnection = ProxyConnection.fromChannel(channel);
+                if (proxyConnection == null) { // Legacy passthrough connections don't have a proxy connection
+                    sessionsByState.merge("legacy_passthrough", 1, Integer::sum);
+                    continue;
+                }
+                sessionsByState.merge(proxyConnection.getC2pConnectionState().name().toLowerCase(Locale.ROOT), 1, Integer::sum);
+                if (!(proxyConnection instanceof DummyProxyConnection) && proxyConnection.getServerVersion() != null) {
+                    final String versions = "client_version=\"" + MetricsWriter.escape(proxyConnection.getClientVersion().getName()) + "\",server_version=\"" + MetricsWriter.escape(proxyConnection.getServerVersion().getName()) + "\"";
+                    sessionsByVersion.merge(versions, 1, Integer::sum);
+                    if (proxyConnection.getChannel() != null) {
+                        eventLoopGroups.putIfAbsent(proxyConnection.getChannel().eventLoop().parent(), "server");
+                    }
+                }
+            }
+        }
+
+        writer.header("viaproxy_sessions", "gauge", "Active client connections by connection state.");
+        for (Map.Entry<String, Integer> entry : sessionsByState.entrySet()) {
+            writer.sample("viaproxy_sessions", "state=\"" + entry.getKey() + "\"", entry.getValue());
+        }
+        writer.header("viaproxy_sessions_by_version", "gauge", "Active proxied sessions by client and server version.");
+        for (Map.Entry<String, Integer> entry : sessionsByVersion.entrySet()) {
+            writer.sample("viaproxy_sessions_by_version", entry.getKey(), entry.getValue());
+        }
+
+        writer.header("viaproxy_event_loop_pending_tasks", "gauge", "Tasks waiting to be executed by the event loops.");
+        for (Map.Entry<EventExecutorGroup, String> entry : eventLoopGroups.entrySet()) {
+            int index = 0;
+            for (EventExecutor executor : entry.getKey()) {
+                if (executor instanceof SingleThreadEventExecutor singleThreadEventExecutor) {
+                    writer.sample("viaproxy_event_loop_pending_tasks", "group=\"" + entry.getValue() + "\",executor=\"" + index + "\"", singleThreadEventExecutor.pendingTasks());
+                }
+                index++;
+            }
+        }
+    }
+
+    private static void writeBackends(final MetricsWriter writer) {
+        final Map<String, BackendPool> routes = ViaProxy.getConfig().getRoutingTable().getRoutes();
+        if (routes.isEmpty()) {
+            return;
+        }
+
+        writer.header("viaproxy_backend_up", "gauge", "Whether a routed backend is considered healthy.");
+        for (Map.Entry<String, BackendPool> route : routes.entrySet()) {
+            for (Backend backend : route.getValue().getBackends()) {
+                writer.sample("viaproxy_backend_up", backendLabels(route.getKey(), backend), backend.isHealthy() ? 1 : 0);
+            }
+        }
+        writer.header("viaproxy_backend_sessions", "gauge", "Active sessions per routed backend.");
+        for (Map.Entry<String, BackendPool> route : routes.entrySet()) {
+            for (Backend backend : route.getValue().getBackends()) {
+                writer.sample("viaproxy_backend_sessions", backendLabels(route.getKey(), backend), backend.getActiveSessions());
+            }
+        }
+        writer.header("viaproxy_backend_sessions_total", "counter", "Sessions opened per routed backend.");
+        for (Map.Entry<String, BackendPool> route : routes.entrySet()) {
+            for (Backend backend : route.getValue().getBackends()) {
+                writer.sample("viaproxy_backend_sessions_total", backendLabels(route.getKey(), backend), backend.getTotalSessions());
+            }
+        }
+    }
+
+    private static String backendLabels(final String route, final Backend backend) {
+        return "route=\"" + MetricsWriter.escape(route) + "\",backend=\"" + MetricsWriter.escape(backend.getAddressString()) + "\"";
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.metrics;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the bytes read from and written to the network. Placed at the network end of the pipeline, so the counted bytes are the bytes on the wire.
+ */
+@ChannelHandler.Sharable
+public class TrafficCounterHandler extends ChannelDuplexHandler {
+
+    public static final String NAME = "viaproxy-traffic-counter";
+
+    private final LongAdder readBytes;
+    private final LongAdder writtenBytes;
+
+    TrafficCounterHandler(final LongAdder readBytes, final LongAdder writtenBytes) {
+        this.readBytes = readBytes;
+        this.writtenBytes = writtenBytes;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        this.readBytes.add(size(msg));
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        this.writtenBytes.add(size(msg));
+        super.write(ctx, msg, promise);
+    }
+
+    private static int size(final Object msg) {
+        if (msg instanceof ByteBuf buf) {
+            return buf.readableBytes();
+        } else if (msg instanceof ByteBufHolder holder) {
+            return holder.content().readableBytes();
+        } else {
+            return 0;
+        }
+    }
+
+}
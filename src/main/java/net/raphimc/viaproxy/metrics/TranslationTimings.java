@@ -0,0 +1,181 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.metrics;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Translation time and size per packet type, direction and version pair, recorded by the Via codec for a sample of the packets.<br>
+ * Recording only allocates when a packet type is seen for the first time.
+ */
+public class TranslationTimings {
+
+    private static final int MAX_PACKET_ID = 1024;
+    private static final double[] BUCKETS = {0.000001, 0.0000025, 0.000005, 0.00001, 0.000025, 0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01};
+    private static final Map<String, VersionPair> VERSION_PAIRS = new ConcurrentHashMap<>();
+
+    public static VersionPair get(final ProtocolVersion clientVersion, final ProtocolVersion serverVersion) {
+        return VERSION_PAIRS.computeIfAbsent(clientVersion.getName() + " <-> " + serverVersion.getName(), VersionPair::new);
+    }
+
+    public static List<PacketTypeTimings> getTop(final int count) {
+        final List<PacketTypeTimings> timings = new ArrayList<>();
+        for (VersionPair versionPair : VERSION_PAIRS.values()) {
+            versionPair.collect(versionPair.clientbound, timings);
+            versionPair.collect(versionPair.serverbound, timings);
+        }
+        timings.sort(Comparator.comparingLong(PacketTypeTimings::getTotalNanos).reversed());
+        return timings.subList(0, Math.min(count, timings.size()));
+    }
+
+    static void write(final MetricsWriter writer) { // Aggregated per version pair and direction, per packet type labels would explode the series count
+        writer.header("viaproxy_translation_sampled_packets_total", "counter", "Packets sampled for translation timing by version pair and direction.");
+        for (VersionPair versionPair : VERSION_PAIRS.values()) {
+            writer.sample("viaproxy_translation_sampled_packets_total", versionPair.labels("clientbound"), versionPair.sum(versionPair.clientbound, PacketTypeTimings::getSamples));
+            writer.sample("viaproxy_translation_sampled_packets_total", versionPair.labels("serverbound"), versionPair.sum(versionPair.serverbound, PacketTypeTimings::getSamples));
+        }
+        writer.header("viaproxy_translation_sampled_seconds_total", "counter", "Time spent translating the sampled packets by version pair and direction.");
+        for (VersionPair versionPair : VERSION_PAIRS.values()) {
+            writer.sample("viaproxy_translation_sampled_seconds_total", versionPair.labels("clientbound"), versionPair.sum(versionPair.clientbound, PacketTypeTimings::getTotalNanos) / 1_000_000_000D);
+            writer.sample("viaproxy_translation_sampled_seconds_total", versionPair.labels("serverbound"), versionPair.sum(versionPair.serverbound, PacketTypeTimings::getTotalNanos) / 1_000_000_000D);
+        }
+    }
+
+    public static void reset() {
+        for (VersionPair versionPair : VERSION_PAIRS.values()) { // Codecs keep a reference to their version pair, so clear the tables instead of removing them
+            for (int i = 0; i < MAX_PACKET_ID; i++) {
+                versionPair.clientbound.set(i, null);
+                versionPair.serverbound.set(i, null);
+            }
+        }
+    }
+
+    public static class VersionPair {
+
+        private final String name;
+        private final AtomicReferenceArray<PacketTypeTimings> clientbound = new AtomicReferenceArray<>(MAX_PACKET_ID);
+        private final AtomicReferenceArray<PacketTypeTimings> serverbound = new AtomicReferenceArray<>(MAX_PACKET_ID);
+
+        private VersionPair(final String name) {
+            this.name = name;
+        }
+
+        public void record(final boolean clientbound, final int packetId, final long nanos, final int inBytes, final int outBytes) {
+            if (packetId < 0 || packetId >= MAX_PACKET_ID) return;
+
+            final AtomicReferenceArray<PacketTypeTimings> table = clientbound ? this.clientbound : this.serverbound;
+            PacketTypeTimings timings = table.get(packetId);
+            if (timings == null) { // A concurrent reset can clear the slot at any time, so only use the instance which the exchange returned or stored
+                final PacketTypeTimings newTimings = new PacketTypeTimings(this.name, clientbound, packetId);
+                final PacketTypeTimings witness = table.compareAndExchange(packetId, null, newTimings);
+                timings = witness != null ? witness : newTimings;
+            }
+            timings.record(nanos, inBytes, outBytes);
+        }
+
+        private String labels(final String direction) {
+            return "versions=\"" + MetricsWriter.escape(this.name) + "\",direction=\"" + direction + "\"";
+        }
+
+        private long sum(final AtomicReferenceArray<PacketTypeTimings> table, final ToLongFunction<PacketTypeTimings> value) {
+            long sum = 0;
+            for (int i = 0; i < table.length(); i++) {
+                final PacketTypeTimings packetTypeTimings = table.get(i);
+                if (packetTypeTimings != null) {
+                    sum += value.applyAsLong(packetTypeTimings);
+                }
+            }
+            return sum;
+        }
+
+        private void collect(final AtomicReferenceArray<PacketTypeTimings> table, final List<PacketTypeTimings> timings) {
+            for (int i = 0; i < table.length(); i++) {
+                final PacketTypeTimings packetTypeTimings = table.get(i);
+                if (packetTypeTimings != null) {
+                    timings.add(packetTypeTimings);
+                }
+            }
+        }
+
+    }
+
+    public static class PacketTypeTimings {
+
+        private final String versionPair;
+        private final boolean clientbound;
+        private final int packetId;
+        private final Histogram histogram = new Histogram(BUCKETS);
+        private final LongAdder inBytes = new LongAdder();
+        private final LongAdder outBytes = new LongAdder();
+
+        private PacketTypeTimings(final String versionPair, final boolean clientbound, final int packetId) {
+            this.versionPair = versionPair;
+            this.clientbound = clientbound;
+            this.packetId = packetId;
+        }
+
+        private void record(final long nanos, final int inBytes, final int outBytes) {
+            this.histogram.observe(nanos);
+            this.inBytes.add(inBytes);
+            this.outBytes.add(outBytes);
+        }
+
+        public String getVersionPair() {
+            return this.versionPair;
+        }
+
+        public boolean isClientbound() {
+            return this.clientbound;
+        }
+
+        public int getPacketId() {
+            return this.packetId;
+        }
+
+        public long getSamples() {
+            return this.histogram.getCount();
+        }
+
+        public long getTotalNanos() {
+            return this.histogram.getSumNanos();
+        }
+
+        public long getP99UpperBoundNanos() {
+            return this.histogram.getQuantileUpperBoundNanos(0.99);
+        }
+
+        public long getInBytes() {
+            return this.inBytes.sum();
+        }
+
+        public long getOutBytes() {
+            return this.outBytes.sum();
+        }
+
+    }
+
+}
@@ -25,6 +25,7 @@ import net.lenni0451.classtransform.utils.loader.InjectionClassLoader;
 import net.lenni0451.classtransform.utils.tree.IClassProvider;
 import net.lenni0451.reflect.stream.RStream;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.injection.DowngradedClassCache;
 import net.raphimc.viaproxy.injection.TransformerDowngrader;
 import net.raphimc.viaproxy.util.logging.Logger;
 import org.objectweb.asm.Opcodes;
@@ -33,20 +34,28 @@ import xyz.wagyourtail.jvmdg.Constants;
 import xyz.wagyourtail.jvmdg.runtime.ClassDowngradingAgent;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 public class PluginManager {
 
     public static final File PLUGINS_DIR = new File(ViaProxy.getCwd(), "plugins");
+    public static final File DOWNGRADED_PLUGINS_CACHE_DIR = new File(ViaProxy.getCwd(), "cache/downgraded-plugins");
 
-    private final Yaml yaml = new Yaml();
     private final IClassProvider rootClassProvider = new GuavaClassPathProvider();
     private final List<ViaProxyPlugin> plugins = new ArrayList<>();
+    private final List<DowngradedClassCache> downgradedClassCaches = new ArrayList<>();
+    private boolean pluginsVoidPromiseSafe = true;
 
     public PluginManager() {
         this.loadPlugins();
@@ -57,6 +66,13 @@ public class PluginManager {
         return Collections.unmodifiableList(this.plugins);
     }
 
+    /**
+     * @return Whether every loaded plugin declared that its netty handlers support void promises
+     */
+    public boolean arePluginsVoidPromiseSafe() {
+        return this.pluginsVoidPromiseSafe;
+    }
+
     public ViaProxyPlugin getPlugin(String name) {
         for (ViaProxyPlugin plugin : this.plugins) {
             if (plugin.getName().equalsIgnoreCase(name)) {
@@ -77,15 +93,27 @@ public class PluginManager {
         final File[] files = PLUGINS_DIR.listFiles();
         if (files == null) return;
 
+        // Reading the descriptors only needs file access, so it is done for all jars at once. The plugin classes are loaded in order afterwards.
+        final List<File> jars = new ArrayList<>();
+        final List<CompletableFuture<Map<String, Object>>> descriptors = new ArrayList<>();
         for (File file : files) {
             if (!file.getName().toLowerCase().endsWith(".jar")) continue;
+            jars.add(file);
+            descriptors.add(CompletableFuture.supplyAsync(() -> readDescriptor(file)));
+        }
+
+        for (int i = 0; i < jars.size(); i++) {
+            final File file = jars.get(i);
             try {
-                loadAndScanJar(file);
+                loadAndScanJar(file, descriptors.get(i).join());
             } catch (Throwable e) {
-                Logger.LOGGER.error("Unable to load plugin '" + file.getName() + "'", e);
+                Logger.LOGGER.error("Unable to load plugin '" + file.getName() + "'", e instanceof CompletionException ? e.getCause() : e);
             }
         }
 
+        DowngradedClassCache.deleteUnused(DOWNGRADED_PLUGINS_CACHE_DIR, this.downgradedClassCaches);
+
+        this.pluginsVoidPromiseSafe = this.plugins.stream().allMatch(ViaProxyPlugin::isVoidPromiseSafe);
         for (ViaProxyPlugin plugin : this.plugins) {
             if (!plugin.isEnabled()) {
                 this.enablePlugin(plugin);
@@ -93,7 +121,21 @@ public class PluginManager {
         }
     }
 
-    private void loadAndScanJar(final File file) throws Throwable {
+    private static Map<String, Object> readDescriptor(final File file) {
+        try (JarFile jarFile = new JarFile(file)) {
+            final JarEntry entry = jarFile.getJarEntry("viaproxy.yml");
+            if (entry == null) {
+                return null;
+            }
+            try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                return new Yaml().load(inputStream); // Yaml instances are not thread safe
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the viaproxy.yml of '" + file.getName() + "'", e);
+        }
+    }
+
+    private void loadAndScanJar(final File file, final Map<String, Object> yaml) throws Throwable {
         final URL url = file.toURI().toURL();
         final TransformerManager transformerManager = new TransformerManager(new LazyFileClassProvider(Collections.singletonList(file), this.rootClassProvider));
         final InjectionClassLoader classLoader = new InjectionClassLoader(transformerManager, PluginManager.class.getClassLoader(), url);
@@ -104,16 +146,22 @@ public class PluginManager {
             final int nativeClassVersion = Integer.parseInt(versions[0]);
             if (nativeClassVersion < Opcodes.V17) {
                 System.setProperty(Constants.ALLOW_MAVEN_LOOKUP, "false");
-                transformerManager.addClassFileTransformer(classLoader, new ClassDowngradingAgent());
-                transformerManager.addTransformerPreprocessor(new TransformerDowngrader(classLoader));
+                DowngradedClassCache cache = null;
+                try {
+                    cache = DowngradedClassCache.forJar(DOWNGRADED_PLUGINS_CACHE_DIR, file, nativeClassVersion);
+                    this.downgradedClassCaches.add(cache);
+                } catch (IOException e) {
+                    Logger.LOGGER.warn("Failed to hash plugin '" + file.getName() + "', downgraded classes will not be cached", e);
+                }
+                final ClassDowngradingAgent downgradingAgent = new ClassDowngradingAgent();
+                transformerManager.addClassFileTransformer(classLoader, cache != null ? cache.subCache("classes").wrap(downgradingAgent) : downgradingAgent);
+                transformerManager.addTransformerPreprocessor(new TransformerDowngrader(classLoader, cache != null ? cache.subCache("transformers") : null));
             }
         } catch (Throwable e) {
             Logger.LOGGER.error("Failed to setup class downgrading", e);
         }
 
-        final InputStream viaproxyYml = classLoader.getResourceAsStream("viaproxy.yml");
-        if (viaproxyYml == null) throw new IllegalStateException("Plugin '" + file.getName() + "' does not have a viaproxy.yml");
-        final Map<String, Object> yaml = this.yaml.load(viaproxyYml);
+        if (yaml == null) throw new IllegalStateException("Plugin '" + file.getName() + "' does not have a viaproxy.yml");
         if (!yaml.containsKey("name")) throw new IllegalStateException("Plugin '" + file.getName() + "' does not have a name attribute in the viaproxy.yml");
         if (!yaml.containsKey("author")) throw new IllegalStateException("Plugin '" + file.getName() + "' does not have a author attribute in the viaproxy.yml");
         if (!yaml.containsKey("version")) throw new IllegalStateException("Plugin '" + file.getName() + "' does not have a version attribute in the viaproxy.yml");
@@ -76,6 +76,15 @@ public abstract class ViaProxyPlugin {
         return Collections.unmodifiableList((List<String>) this.viaProxyYaml.getOrDefault("depends", Collections.emptyList()));
     }
 
+    /**
+     * Plugins opt in by setting {@code void-promise-safe: true} in their viaproxy.yml.
+     *
+     * @return Whether all netty handlers of the plugin support void promises (They call {@link io.netty.channel.ChannelPromise#unvoid()} before adding listeners)
+     */
+    public final boolean isVoidPromiseSafe() {
+        return Boolean.TRUE.equals(this.viaProxyYaml.get("void-promise-safe"));
+    }
+
     public final URLClassLoader getClassLoader() {
         return this.classLoader;
     }
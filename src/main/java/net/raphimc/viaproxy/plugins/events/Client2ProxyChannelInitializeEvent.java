@@ -21,6 +21,12 @@ import io.netty.channel.Channel;
 import net.raphimc.viaproxy.plugins.events.types.EventCancellable;
 import net.raphimc.viaproxy.plugins.events.types.ITyped;
 
+/**
+ * Called before (PRE) and after (POST) the pipeline of a client connection has been set up.<br>
+ * In the POST phase of regular (not legacy passthrough) connections the handler registered under the name of the ViaProxyViaCodec is a placeholder and not the codec itself, and the channel has no {@link com.viaversion.viaversion.api.connection.UserConnection}.
+ * The codec is only created for clients which need client side translation once their handshake has been read.
+ * Listen to the {@link Client2ProxyViaCodecInitializeEvent} to access the codec and the user connection.
+ */
 public class Client2ProxyChannelInitializeEvent extends EventCancellable implements ITyped {
 
     private final Type type;
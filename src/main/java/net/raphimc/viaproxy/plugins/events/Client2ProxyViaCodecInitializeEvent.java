@@ -0,0 +1,46 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.plugins.events;
+
+import com.viaversion.viaversion.api.connection.UserConnection;
+import io.netty.channel.Channel;
+
+/**
+ * Called once the Via codec of a client connection has been installed.<br>
+ * The codec is only installed if the client uses a version which needs client side translation, when the first packet of the client is read.
+ * Until then (and for all other clients) the pipeline contains a placeholder under the codec name (see {@link Client2ProxyChannelInitializeEvent}).
+ */
+public class Client2ProxyViaCodecInitializeEvent {
+
+    private final Channel channel;
+    private final UserConnection userConnection;
+
+    public Client2ProxyViaCodecInitializeEvent(final Channel channel, final UserConnection userConnection) {
+        this.channel = channel;
+        this.userConnection = userConnection;
+    }
+
+    public Channel getChannel() {
+        return this.channel;
+    }
+
+    public UserConnection getUserConnection() {
+        return this.userConnection;
+    }
+
+}
@@ -20,6 +20,11 @@ package net.raphimc.viaproxy.plugins.events;
 import net.raphimc.viaproxy.plugins.events.types.EventCancellable;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 
+/**
+ * Called when an online mode server requests a session server join and no Microsoft account is used. Cancel the event if the plugin joined the server.<br>
+ * This event is called on a session join thread and not on the netty event loop, so listeners can block (for example to send the join request themselves).
+ * The login continues once all listeners returned. Listeners which access the channels of the proxy connection have to do so on their event loop.
+ */
 public class JoinServerRequestEvent extends EventCancellable  {
 
     private final ProxyConnection proxyConnection;
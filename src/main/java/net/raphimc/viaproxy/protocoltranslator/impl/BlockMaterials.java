@@ -0,0 +1,147 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.protocoltranslator.impl;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The materials of blocks in old versions, stored in flat arrays.<br>
+ * A block can have multiple entries, each assigning a material to all versions up to and including the entry version.
+ */
+public class BlockMaterials {
+
+    private final String[] materials;
+    private final ProtocolVersion[] versions;
+    private final String[] blocks;
+    private final int[] entryOffsets;
+    private final byte[] entryVersions;
+    private final byte[] entryMaterials;
+
+    private BlockMaterials(final String[] materials, final ProtocolVersion[] versions, final String[] blocks, final int[] entryOffsets, final byte[] entryVersions, final byte[] entryMaterials) {
+        this.materials = materials;
+        this.versions = versions;
+        this.blocks = blocks;
+        this.entryOffsets = entryOffsets;
+        this.entryVersions = entryVersions;
+        this.entryMaterials = entryMaterials;
+    }
+
+    /**
+     * Reads the compiled materials-1.19.4 data.
+     *
+     * @param data      The compiled data
+     * @param materials The map the material properties are added to
+     * @return The block materials
+     */
+    public static BlockMaterials read(final CompiledMappingData data, final Map<String, ViaProxyMappingDataLoader.Material> materials) {
+        final String[] materialNames = new String[data.readInt()];
+        for (int i = 0; i < materialNames.length; i++) {
+            materialNames[i] = data.readString();
+            final int flags = data.readByte();
+            materials.put(materialNames[i], new ViaProxyMappingDataLoader.Material(
+                    (flags & 1) != 0,
+                    (flags & 2) != 0,
+                    (flags & 4) != 0,
+                    (flags & 8) != 0,
+                    (flags & 16) != 0,
+                    (flags & 32) != 0
+            ));
+        }
+
+        final ProtocolVersion[] versions = new ProtocolVersion[data.readInt()];
+        for (int i = 0; i < versions.length; i++) {
+            final String versionName = data.readString();
+            versions[i] = ProtocolVersion.getClosest(versionName);
+            if (versions[i] == null) {
+                throw new IllegalStateException("Unknown protocol version: " + versionName);
+            }
+        }
+
+        final String[] blocks = new String[data.readInt()];
+        final int[] entryOffsets = new int[blocks.length + 1];
+        final byte[] entryVersions = new byte[data.readInt()];
+        final byte[] entryMaterials = new byte[entryVersions.length];
+        int entryIndex = 0;
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = data.readString();
+            final int entryCount = data.readByte();
+            for (int j = 0; j < entryCount; j++) {
+                entryVersions[entryIndex] = (byte) data.readByte();
+                entryMaterials[entryIndex] = (byte) data.readByte();
+                entryIndex++;
+            }
+            entryOffsets[i + 1] = entryIndex;
+        }
+
+        return new BlockMaterials(materialNames, versions, blocks, entryOffsets, entryVersions, entryMaterials);
+    }
+
+    /**
+     * Builds the materials per block and version in the layout of the json file (block name -> version -> material name).
+     *
+     * @return A new map with the block materials
+     */
+    public Map<String, Map<ProtocolVersion, String>> toMap() {
+        final Map<String, Map<ProtocolVersion, String>> map = new HashMap<>(this.blocks.length);
+        for (int i = 0; i < this.blocks.length; i++) {
+            final Map<ProtocolVersion, String> blockMaterials = new HashMap<>();
+            for (int j = this.entryOffsets[i]; j < this.entryOffsets[i + 1]; j++) {
+                blockMaterials.put(this.versions[this.entryVersions[j] & 0xFF], this.materials[this.entryMaterials[j] & 0xFF]);
+            }
+            map.put(this.blocks[i], blockMaterials);
+        }
+        return map;
+    }
+
+    /**
+     * Returns all blocks which have the given material in the given version.
+     *
+     * @param version  The version
+     * @param material The material name
+     * @return The block names
+     */
+    public List<String> getBlocksWithMaterial(final ProtocolVersion version, final String material) {
+        final List<String> blocks = new ArrayList<>();
+        int materialIndex = -1;
+        for (int i = 0; i < this.materials.length; i++) {
+            if (this.materials[i].equals(material)) {
+                materialIndex = i;
+                break;
+            }
+        }
+        if (materialIndex == -1) {
+            return blocks;
+        }
+
+        for (int i = 0; i < this.blocks.length; i++) {
+            for (int j = this.entryOffsets[i]; j < this.entryOffsets[i + 1]; j++) {
+                if ((this.entryMaterials[j] & 0xFF) == materialIndex && version.olderThanOrEqualTo(this.versions[this.entryVersions[j] & 0xFF])) {
+                    blocks.add(this.blocks[i]);
+                    break;
+                }
+            }
+        }
+        return blocks;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.protocoltranslator.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader for mapping data which was compiled from json into a binary format at build time (see the compileMappingData Gradle task).<br>
+ * Layout: magic (int), format version (byte), string table (int count, then u2 length + UTF-8 bytes per string), followed by the data of the file.<br>
+ * Strings in the data are referenced by their index in the string table, so every string only exists once in memory. All numbers are big endian.
+ */
+public class CompiledMappingData {
+
+    public static final int MAGIC = 0x56504D44; // VPMD
+    public static final int FORMAT_VERSION = 1;
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+
+    public CompiledMappingData(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("Invalid compiled mapping data magic");
+        }
+        final int formatVersion = buffer.get();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported compiled mapping data format version: " + formatVersion);
+        }
+
+        this.strings = new String[buffer.getInt()];
+        final byte[] stringBytes = new byte[Short.MAX_VALUE * 2 + 1];
+        for (int i = 0; i < this.strings.length; i++) {
+            final int length = Short.toUnsignedInt(buffer.getShort());
+            buffer.get(stringBytes, 0, length);
+            this.strings[i] = new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Loads compiled mapping data from the classpath. The file is memory mapped if it is not packed in a jar.
+     *
+     * @param classLoader The class loader to load the resource with
+     * @param path        The path of the resource
+     * @return The compiled mapping data or null if the resource doesn't exist
+     * @throws IOException If the resource can't be read
+     */
+    public static CompiledMappingData load(final ClassLoader classLoader, final String path) throws IOException {
+        final URL url = classLoader.getResource(path);
+        if (url == null) {
+            return null;
+        }
+
+        if (url.getProtocol().equals("file")) {
+            try (FileChannel channel = FileChannel.open(Path.of(url.toURI()), StandardOpenOption.READ)) {
+                return new CompiledMappingData(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid resource path: " + url, e);
+            }
+        } else {
+            try (InputStream inputStream = url.openStream()) {
+                return new CompiledMappingData(ByteBuffer.wrap(inputStream.readAllBytes()));
+            }
+        }
+    }
+
+    public int readByte() {
+        return Byte.toUnsignedInt(this.buffer.get());
+    }
+
+    public int readInt() {
+        return this.buffer.getInt();
+    }
+
+    public float readFloat() {
+        return this.buffer.getFloat();
+    }
+
+    public String readString() {
+        return this.strings[this.buffer.getInt()];
+    }
+
+}
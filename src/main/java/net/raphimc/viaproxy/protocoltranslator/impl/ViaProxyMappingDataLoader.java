@@ -18,42 +18,62 @@
 
 package net.raphimc.viaproxy.protocoltranslator.impl;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ForwardingMap;
 import com.viaversion.viaversion.api.data.MappingDataLoader;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
-import com.viaversion.viaversion.libs.gson.JsonElement;
-import com.viaversion.viaversion.libs.gson.JsonObject;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 public class ViaProxyMappingDataLoader extends MappingDataLoader {
 
     public static final Map<String, Material> MATERIALS = new HashMap<>();
-    public static final Map<String, Map<ProtocolVersion, String>> BLOCK_MATERIALS = new HashMap<>();
+    /**
+     * @deprecated Use {@link #getBlockMaterials()}. This map is built from it on first access and can't be modified.
+     */
+    @Deprecated
+    public static final Map<String, Map<ProtocolVersion, String>> BLOCK_MATERIALS = new ForwardingMap<>() {
+        private final Supplier<Map<String, Map<ProtocolVersion, String>>> map = Suppliers.memoize(() -> Collections.unmodifiableMap(getBlockMaterials().toMap()));
+
+        @Override
+        protected Map<String, Map<ProtocolVersion, String>> delegate() {
+            return this.map.get();
+        }
+    };
+    private static BlockMaterials blockMaterials;
 
     public static final ViaProxyMappingDataLoader INSTANCE = new ViaProxyMappingDataLoader();
 
     private ViaProxyMappingDataLoader() {
         super(ViaProxyMappingDataLoader.class, "assets/viaproxy/data/");
 
-        final JsonObject materialsData = this.loadData("materials-1.19.4.json");
-        for (Map.Entry<String, JsonElement> entry : materialsData.getAsJsonObject("materials").entrySet()) {
-            final JsonObject materialData = entry.getValue().getAsJsonObject();
-            MATERIALS.put(entry.getKey(), new Material(
-                    materialData.get("blocksMovement").getAsBoolean(),
-                    materialData.get("burnable").getAsBoolean(),
-                    materialData.get("liquid").getAsBoolean(),
-                    materialData.get("blocksLight").getAsBoolean(),
-                    materialData.get("replaceable").getAsBoolean(),
-                    materialData.get("solid").getAsBoolean()
-            ));
-        }
-        for (Map.Entry<String, JsonElement> blockEntry : materialsData.getAsJsonObject("blocks").entrySet()) {
-            final Map<ProtocolVersion, String> blockMaterials = new HashMap<>();
-            for (Map.Entry<String, JsonElement> entry : blockEntry.getValue().getAsJsonObject().entrySet()) {
-                blockMaterials.put(ProtocolVersion.getClosest(entry.getKey()), entry.getValue().getAsString());
+        blockMaterials = BlockMaterials.read(this.loadCompiledData("materials-1.19.4.bin"), MATERIALS);
+    }
+
+    public static BlockMaterials getBlockMaterials() {
+        return blockMaterials;
+    }
+
+    /**
+     * Loads a data file which was compiled at build time.
+     *
+     * @param name The name of the compiled file
+     * @return The compiled mapping data
+     */
+    public CompiledMappingData loadCompiledData(final String name) {
+        try {
+            final CompiledMappingData data = CompiledMappingData.load(ViaProxyMappingDataLoader.class.getClassLoader(), "assets/viaproxy/data/" + name);
+            if (data == null) {
+                throw new IllegalStateException("Compiled mapping data " + name + " not found. Run the compileMappingData Gradle task.");
             }
-            BLOCK_MATERIALS.put(blockEntry.getKey(), blockMaterials);
+            return data;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load compiled mapping data " + name, e);
         }
     }
 
@@ -19,12 +19,23 @@ package net.raphimc.viaproxy.protocoltranslator.impl;
 
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.platform.ViaCodecHandler;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import net.raphimc.viabedrock.api.BedrockProtocolVersion;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.metrics.TranslationTimings;
+import net.raphimc.viaproxy.proxy.session.DummyProxyConnection;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 import net.raphimc.viaproxy.util.logging.Logger;
 
+import java.util.List;
+
 public class ViaProxyViaCodec extends ViaCodecHandler {
 
+    private TranslationTimings.VersionPair translationTimings;
+    private int packetIdMask = -1;
+    private int sampleCounter;
+
     public ViaProxyViaCodec(UserConnection user) {
         super(user);
     }
@@ -42,4 +53,84 @@ public class ViaProxyViaCodec extends ViaCodecHandler {
         }
     }
 
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf bytebuf, List<Object> out) throws Exception {
+        if (this.shouldSample()) {
+            this.transformTimed(ctx, bytebuf, out, false, !this.user.isClientSide());
+        } else {
+            super.encode(ctx, bytebuf, out);
+        }
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf bytebuf, List<Object> out) throws Exception {
+        if (this.shouldSample()) {
+            this.transformTimed(ctx, bytebuf, out, true, this.user.isClientSide()); // Client side codecs decode clientbound packets, server side codecs decode serverbound packets
+        } else {
+            super.decode(ctx, bytebuf, out);
+        }
+    }
+
+    private boolean shouldSample() {
+        final int sampleRate = ViaProxy.getConfig().getTranslationTimingSampleRate();
+        if (sampleRate <= 0) {
+            return false;
+        }
+        if (++this.sampleCounter >= sampleRate) {
+            this.sampleCounter = 0;
+            return true;
+        }
+        return false;
+    }
+
+    private void transformTimed(final ChannelHandlerContext ctx, final ByteBuf bytebuf, final List<Object> out, final boolean decode, final boolean clientbound) throws Exception {
+        if (this.translationTimings == null) {
+            final ProxyConnection proxyConnection = ProxyConnection.fromChannel(ctx.channel());
+            if (proxyConnection instanceof DummyProxyConnection) { // The handshake is decoded before the versions of the session are known
+                if (decode) {
+                    super.decode(ctx, bytebuf, out);
+                } else {
+                    super.encode(ctx, bytebuf, out);
+                }
+                return;
+            }
+            this.translationTimings = TranslationTimings.get(proxyConnection.getClientVersion(), proxyConnection.getServerVersion());
+            if (proxyConnection.getServerVersion().equals(BedrockProtocolVersion.bedrockLatest)) {
+                this.packetIdMask = 0x3FF; // Bedrock packet headers also contain the sub client ids
+            }
+        }
+
+        final int header = peekVarInt(bytebuf);
+        final int packetId = header == -1 ? -1 : header & this.packetIdMask;
+        final int inBytes = bytebuf.readableBytes();
+        final int outStart = out.size();
+        final long start = System.nanoTime();
+        if (decode) {
+            super.decode(ctx, bytebuf, out);
+        } else {
+            super.encode(ctx, bytebuf, out);
+        }
+        final long nanos = System.nanoTime() - start;
+
+        int outBytes = 0;
+        for (int i = outStart; i < out.size(); i++) {
+            if (out.get(i) instanceof ByteBuf outBuf) {
+                outBytes += outBuf.readableBytes();
+            }
+        }
+        this.translationTimings.record(clientbound, packetId, nanos, inBytes, outBytes);
+    }
+
+    private static int peekVarInt(final ByteBuf buf) {
+        int value = 0;
+        for (int i = 0; i < 5 && buf.readerIndex() + i < buf.writerIndex(); i++) {
+            final byte b = buf.getByte(buf.readerIndex() + i);
+            value |= (b & 0x7F) << (i * 7);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
 }
@@ -36,6 +36,7 @@ import net.raphimc.viaproxy.cli.HelpRequestedException;
 import net.raphimc.viaproxy.plugins.events.PostOptionsParseEvent;
 import net.raphimc.viaproxy.plugins.events.PreOptionsParseEvent;
 import net.raphimc.viaproxy.protocoltranslator.ProtocolTranslator;
+import net.raphimc.viaproxy.proxy.routing.RoutingTable;
 import net.raphimc.viaproxy.saves.impl.accounts.Account;
 import net.raphimc.viaproxy.util.AddressUtil;
 import net.raphimc.viaproxy.util.Proxy;
@@ -45,6 +46,7 @@ import net.raphimc.viaproxy.util.logging.Logger;
 import java.io.File;
 import java.net.SocketAddress;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
@@ -69,10 +71,85 @@ public class ViaProxyConfig {
     @TypeSerializer(ProtocolVersionTypeSerializer.class)
     private ProtocolVersion targetVersion = ProtocolTranslator.AUTO_DETECT_PROTOCOL;
 
+    @Option(value = "routes", dependencies = "target-version")
+    @Description({
+            "Routes connections to pools of backend servers based on the hostname the client connected with. Overrides the target address and version if a route matches.",
+            "Routes can be exact hostnames (play.example.com), wildcard suffixes (*.example.com) or the default route (*).",
+            "Each route has a list of backends (address, optional version and weight) and a balancing strategy (least-connections or weighted-round-robin).",
+            "Example:",
+            "  routes:",
+            "    \"*.example.com\":",
+            "      balancing: least-connections",
+            "      backends:",
+            "        - address: 10.0.0.1:25565",
+            "          version: 1.8.x",
+            "        - address: 10.0.0.2:25565",
+            "          version: 1.8.x",
+            "          weight: 2",
+            "Routes are only used if wildcard domain handling is disabled."
+    })
+    @TypeSerializer(RoutingTableTypeSerializer.class)
+    private RoutingTable routingTable = new RoutingTable(Map.of());
+
+    @Option("backend-health-check-interval")
+    @Description("The interval in seconds in which the backends of the routes are checked for accepting connections. (0 to disable)")
+    private int backendHealthCheckInterval = 10;
+
+    @Option("auto-detect-cache-ttl")
+    @Description({
+            "The time in seconds for which the detected version of a server is cached when using automatic version detection. (0 to disable)",
+            "Cached versions are refreshed in the background shortly before they expire."
+    })
+    private int autoDetectCacheTtl = 60;
+
     @Option("connect-timeout")
     @Description("The connect timeout for backend server connections in milliseconds.")
     private int connectTimeout = 8000;
 
+    @Option("dns-cache-ttl")
+    @Description({
+            "The time in seconds for which resolved server addresses (including SRV records) from wildcard domains are cached. (0 to disable)",
+            "Failed lookups are cached for at most 10 seconds. Addresses are always resolved off the network threads."
+    })
+    private int dnsCacheTtl = 60;
+
+    @Option("session-affinity")
+    @Description({
+            "Connects to the server on the same thread which handles the client connection.",
+            "Connections which can't be registered on that thread fall back to the regular server threads."
+    })
+    private boolean sessionAffinity = false;
+
+    @Option("listener-count")
+    @Description({
+            "The number of listener channels which are bound to the bind address.",
+            "Values above 1 use SO_REUSEPORT so the kernel spreads new connections across the listeners. Each listener gets its own slice of the client event loop threads.",
+            "This requires the epoll or io_uring transport (Linux). Otherwise only one listener is bound."
+    })
+    private int listenerCount = 1;
+
+    @Option("client-event-loop-threads")
+    @Description({
+            "The number of threads which accept and handle client connections.",
+            "Set to 0 to use the default."
+    })
+    private int clientEventLoopThreads = 0;
+
+    @Option("server-event-loop-threads")
+    @Description({
+            "The number of threads which handle server connections.",
+            "Set to 0 to use the default. Not used for sessions which use session affinity."
+    })
+    private int serverEventLoopThreads = 0;
+
+    @Option("io-uring")
+    @Description({
+            "Uses the io_uring transport for client and server connections (Linux only).",
+            "io_uring can reduce the syscall overhead of many small reads and writes. If the kernel doesn't support it, the default transport is used.",
+            "Bedrock Edition server connections always use the default transport."
+    })
+    private boolean ioUring = false;
+
     @Option("proxy-online-mode")
     @Description({
             "Proxy Online Mode allows you to see skins on online mode servers and use the signed chat features.",
@@ -118,6 +195,28 @@ public class ViaProxyConfig {
     @Description("Read HAProxy protocol messages from client connections.")
     private boolean frontendHaProxy = false;
 
+    @Option("max-connections")
+    @Description("The maximum number of concurrent client connections. (0 to disable)")
+    private int maxConnections = 0;
+
+    @Option("max-connections-per-ip")
+    @Description({
+            "The maximum number of concurrent client connections from the same IP address. (0 to disable)",
+            "IPv6 addresses are grouped by their /64 subnet."
+    })
+    private int maxConnectionsPerIp = 0;
+
+    @Option("connection-rate-limit")
+    @Description({
+            "The number of new connections per second which are accepted from the same IP address. (0 to disable)",
+            "Connections exceeding the limits are closed before the Minecraft pipeline is set up. When using frontend HAProxy the limits are applied to the real client address."
+    })
+    private int connectionRateLimit = 0;
+
+    @Option("connection-rate-burst")
+    @Description("The number of connections which are accepted from the same IP address at once before the connection rate limit kicks in.")
+    private int connectionRateBurst = 10;
+
     @Option("chat-signing")
     @Description("Enables sending signed chat messages on >= 1.19 servers.")
     private boolean chatSigning = true;
@@ -126,6 +225,46 @@ public class ViaProxyConfig {
     @Description("The threshold for packet compression. Packets larger than this size will be compressed. (-1 to disable)")
     private int compressionThreshold = 256;
 
+    @Option("flush-consolidation")
+    @Description({
+            "Consolidates the flushes of forwarded packets which were received in the same read batch.",
+            "This reduces the amount of syscalls and small TCP segments when many small packets are received at once."
+    })
+    private boolean flushConsolidation = false;
+
+    @Option("flush-consolidation-max-pending-writes")
+    @Description("The maximum amount of forwarded packets which are written without a flush before a flush is forced. Only used if flush consolidation is enabled.")
+    private int flushConsolidationMaxPendingWrites = 64;
+
+    @Option("same-version-raw-forwarding")
+    @Description({
+            "Forwards PLAY packets without decoding and re-encoding them if the client and the server use the same version.",
+            "This reduces the CPU usage of such sessions. Raw forwarding is not used if a packet handler (e.g. from a plugin or a feature like the resource pack url) needs decoded PLAY packets."
+    })
+    private boolean sameVersionRawForwarding = false;
+
+    @Option("compressed-frame-passthrough")
+    @Description({
+            "Forwards compressed PLAY packets without decompressing and recompressing them. Only used if same version raw forwarding is active for a session.",
+            "The compression threshold for the client is taken from the server in that case, so both sides use the same threshold."
+    })
+    private boolean compressedFramePassthrough = false;
+
+    @Option("backpressure")
+    @Description({
+            "Pauses reading from the server while the client can't keep up with the forwarded packets and vice versa.",
+            "This limits the memory used for buffered outgoing packets of slow connections."
+    })
+    private boolean backpressure = true;
+
+    @Option("write-buffer-high-water-mark")
+    @Description("The amount of buffered outgoing bytes at which a connection is considered as not writable and reading from the other side is paused. Only used if backpressure is enabled.")
+    private int writeBufferHighWaterMark = 2 * 1024 * 1024;
+
+    @Option("write-buffer-low-water-mark")
+    @Description("The amount of buffered outgoing bytes at which a connection is considered as writable again and reading from the other side is resumed. Only used if backpressure is enabled.")
+    private int writeBufferLowWaterMark = 1024 * 1024;
+
     @Option("allow-beta-pinging")
     @Description("Enabling this will allow you to ping <= b1.7.3 servers. This may cause issues with servers that block too frequent connections.")
     private boolean allowBetaPinging = false;
@@ -137,6 +276,13 @@ public class ViaProxyConfig {
     })
     private boolean ignoreProtocolTranslationErrors = false;
 
+    @Option("translation-timing-sample-rate")
+    @Description({
+            "Records the translation time and size of every Nth translated packet per packet type, direction and version pair. Set to 0 to disable.",
+            "The most expensive packet types can be viewed with the 'translationstats' command. Totals per direction are also exported on the metrics endpoint."
+    })
+    private int translationTimingSampleRate = 0;
+
     @Option("suppress-client-protocol-errors")
     @Description({
             "Enabling this will suppress client protocol errors to prevent lag when ViaProxy is getting spammed with invalid packets.",
@@ -177,6 +323,18 @@ public class ViaProxyConfig {
     @Description("Relative file path to a custom favicon to send when clients ping the proxy. Leave empty to use the target server's favicon.")
     private String customFaviconPath = "";
 
+    @Option("status-cache-ttl")
+    @Description({
+            "The time in seconds for which server list ping responses are cached and answered by the proxy without contacting the server. (0 to disable)",
+            "Responses are cached per server address, server version and client version.",
+            "Pings answered from the cache don't fire the Proxy2ServerHandlerCreationEvent and ConnectEvent and don't pass through the packet handlers, so plugins which modify pings won't see them."
+    })
+    private int statusCacheTtl = 0;
+
+    @Option("status-cache-stale-time")
+    @Description("The time in seconds after the cache TTL for which an outdated ping response is still sent to clients while it is refreshed in the background.")
+    private int statusCacheStaleTime = 30;
+
     @Option("resource-pack-url")
     @Description({"URL of a resource pack which clients can optionally download when connecting to the server. Leave empty to disable.", "Example: http://example.com/resourcepack.zip"})
     private String resourcePackUrl = "";
@@ -223,6 +381,13 @@ public class ViaProxyConfig {
     @Description("Enable this if you want to see client status requests in the console and log files.")
     private boolean logClientStatusRequests = false;
 
+    @Option("metrics-bind-address")
+    @Description({
+            "The address of the HTTP endpoint which exposes metrics about the proxy in the Prometheus text format (e.g. 127.0.0.1:9225).",
+            "The metrics are served at /metrics. Leave empty to disable the endpoint."
+    })
+    private String metricsBindAddress = "";
+
     public static ViaProxyConfig create(final File configFile) {
         final ConfigLoader<ViaProxyConfig> configLoader = new ConfigLoader<>(ViaProxyConfig.class);
         configLoader.getConfigOptions().setResetInvalidOptions(true).setRewriteConfig(true).setCommentSpacing(1);
@@ -254,6 +419,7 @@ public class ViaProxyConfig {
                 if (option.getTypeSerializer() != null) {
                     defaultValue = option.createTypeSerializer(configLoader, ViaProxyConfig.class, this).serialize(defaultValue);
                 }
+                if (defaultValue instanceof Map || defaultValue instanceof List) continue; // Structured options can only be set in the config file
                 final OptionSpec<Object> cliOption = optionParser.accepts(option.getName()).withRequiredArg().ofType((Class<Object>) defaultValue.getClass()).defaultsTo(defaultValue);
                 optionMap.put(cliOption, option);
             }
@@ -338,6 +504,33 @@ public class ViaProxyConfig {
         this.save();
     }
 
+    public RoutingTable getRoutingTable() {
+        return this.routingTable;
+    }
+
+    public void setRoutingTable(final RoutingTable routingTable) {
+        this.routingTable = routingTable;
+        this.save();
+    }
+
+    public int getBackendHealthCheckInterval() {
+        return this.backendHealthCheckInterval;
+    }
+
+    public void setBackendHealthCheckInterval(final int backendHealthCheckInterval) {
+        this.backendHealthCheckInterval = backendHealthCheckInterval;
+        this.save();
+    }
+
+    public int getAutoDetectCacheTtl() {
+        return this.autoDetectCacheTtl;
+    }
+
+    public void setAutoDetectCacheTtl(final int autoDetectCacheTtl) {
+        this.autoDetectCacheTtl = autoDetectCacheTtl;
+        this.save();
+    }
+
     public int getConnectTimeout() {
         return this.connectTimeout;
     }
@@ -347,6 +540,60 @@ public class ViaProxyConfig {
         this.save();
     }
 
+    public int getDnsCacheTtl() {
+        return this.dnsCacheTtl;
+    }
+
+    public void setDnsCacheTtl(final int dnsCacheTtl) {
+        this.dnsCacheTtl = dnsCacheTtl;
+        this.save();
+    }
+
+    public boolean shouldUseSessionAffinity() {
+        return this.sessionAffinity;
+    }
+
+    public void setSessionAffinity(final boolean sessionAffinity) {
+        this.sessionAffinity = sessionAffinity;
+        this.save();
+    }
+
+    public int getListenerCount() {
+        return this.listenerCount;
+    }
+
+    public void setListenerCount(final int listenerCount) {
+        this.listenerCount = listenerCount;
+        this.save();
+    }
+
+    public int getClientEventLoopThreads() {
+        return this.clientEventLoopThreads;
+    }
+
+    public void setClientEventLoopThreads(final int clientEventLoopThreads) {
+        this.clientEventLoopThreads = clientEventLoopThreads;
+        this.save();
+    }
+
+    public int getServerEventLoopThreads() {
+        return this.serverEventLoopThreads;
+    }
+
+    public void setServerEventLoopThreads(final int serverEventLoopThreads) {
+        this.serverEventLoopThreads = serverEventLoopThreads;
+        this.save();
+    }
+
+    public boolean shouldUseIoUring() {
+        return this.ioUring;
+    }
+
+    public void setIoUring(final boolean ioUring) {
+        this.ioUring = ioUring;
+        this.save();
+    }
+
     public boolean isProxyOnlineMode() {
         return this.proxyOnlineMode;
     }
@@ -410,6 +657,42 @@ public class ViaProxyConfig {
         this.save();
     }
 
+    public int getMaxConnections() {
+        return this.maxConnections;
+    }
+
+    public void setMaxConnections(final int maxConnections) {
+        this.maxConnections = maxConnections;
+        this.save();
+    }
+
+    public int getMaxConnectionsPerIp() {
+        return this.maxConnectionsPerIp;
+    }
+
+    public void setMaxConnectionsPerIp(final int maxConnectionsPerIp) {
+        this.maxConnectionsPerIp = maxConnectionsPerIp;
+        this.save();
+    }
+
+    public int getConnectionRateLimit() {
+        return this.connectionRateLimit;
+    }
+
+    public void setConnectionRateLimit(final int connectionRateLimit) {
+        this.connectionRateLimit = connectionRateLimit;
+        this.save();
+    }
+
+    public int getConnectionRateBurst() {
+        return this.connectionRateBurst;
+    }
+
+    public void setConnectionRateBurst(final int connectionRateBurst) {
+        this.connectionRateBurst = connectionRateBurst;
+        this.save();
+    }
+
     public boolean shouldSignChat() {
         return this.chatSigning;
     }
@@ -428,6 +711,69 @@ public class ViaProxyConfig {
         this.save();
     }
 
+    public boolean shouldConsolidateFlushes() {
+        return this.flushConsolidation;
+    }
+
+    public void setFlushConsolidation(final boolean flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+        this.save();
+    }
+
+    public int getFlushConsolidationMaxPendingWrites() {
+        return this.flushConsolidationMaxPendingWrites;
+    }
+
+    public void setFlushConsolidationMaxPendingWrites(final int flushConsolidationMaxPendingWrites) {
+        this.flushConsolidationMaxPendingWrites = flushConsolidationMaxPendingWrites;
+        this.save();
+    }
+
+    public boolean shouldUseSameVersionRawForwarding() {
+        return this.sameVersionRawForwarding;
+    }
+
+    public void setSameVersionRawForwarding(final boolean sameVersionRawForwarding) {
+        this.sameVersionRawForwarding = sameVersionRawForwarding;
+        this.save();
+    }
+
+    public boolean shouldUseCompressedFramePassthrough() {
+        return this.compressedFramePassthrough;
+    }
+
+    public void setCompressedFramePassthrough(final boolean compressedFramePassthrough) {
+        this.compressedFramePassthrough = compressedFramePassthrough;
+        this.save();
+    }
+
+    public boolean shouldUseBackpressure() {
+        return this.backpressure;
+    }
+
+    public void setBackpressure(final boolean backpressure) {
+        this.backpressure = backpressure;
+        this.save();
+    }
+
+    public int getWriteBufferHighWaterMark() {
+        return this.writeBufferHighWaterMark;
+    }
+
+    public void setWriteBufferHighWaterMark(final int writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+        this.save();
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return this.writeBufferLowWaterMark;
+    }
+
+    public void setWriteBufferLowWaterMark(final int writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+        this.save();
+    }
+
     public boolean shouldAllowBetaPinging() {
         return this.allowBetaPinging;
     }
@@ -446,6 +792,15 @@ public class ViaProxyConfig {
         this.save();
     }
 
+    public int getTranslationTimingSampleRate() {
+        return this.translationTimingSampleRate;
+    }
+
+    public void setTranslationTimingSampleRate(final int translationTimingSampleRate) {
+        this.translationTimingSampleRate = translationTimingSampleRate;
+        this.save();
+    }
+
     public boolean shouldSuppressClientProtocolErrors() {
         return this.suppressClientProtocolErrors;
     }
@@ -509,6 +864,24 @@ public class ViaProxyConfig {
         this.save();
     }
 
+    public int getStatusCacheTtl() {
+        return this.statusCacheTtl;
+    }
+
+    public void setStatusCacheTtl(final int statusCacheTtl) {
+        this.statusCacheTtl = statusCacheTtl;
+        this.save();
+    }
+
+    public int getStatusCacheStaleTime() {
+        return this.statusCacheStaleTime;
+    }
+
+    public void setStatusCacheStaleTime(final int statusCacheStaleTime) {
+        this.statusCacheStaleTime = statusCacheStaleTime;
+        this.save();
+    }
+
     public String getResourcePackUrl() {
         return this.resourcePackUrl;
     }
@@ -581,6 +954,15 @@ public class ViaProxyConfig {
         this.save();
     }
 
+    public String getMetricsBindAddress() {
+        return this.metricsBindAddress;
+    }
+
+    public void setMetricsBindAddress(final String metricsBindAddress) {
+        this.metricsBindAddress = metricsBindAddress;
+        this.save();
+    }
+
     @Validator("target-version")
     private ProtocolVersion validateTargetVersion(final ProtocolVersion targetVersion) {
         if (targetVersion == null) {
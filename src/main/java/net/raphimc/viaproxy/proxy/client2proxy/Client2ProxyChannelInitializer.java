@@ -17,20 +17,20 @@
  */
 package net.raphimc.viaproxy.proxy.client2proxy;
 
-import com.viaversion.viaversion.api.connection.UserConnection;
-import com.viaversion.viaversion.platform.ViaChannelInitializer;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.handler.codec.haproxy.HAProxyMessageDecoder;
 import net.raphimc.netminecraft.constants.MCPipeline;
-import net.raphimc.netminecraft.netty.codec.NoReadFlowControlHandler;
 import net.raphimc.netminecraft.netty.connection.MinecraftChannelInitializer;
 import net.raphimc.netminecraft.packet.registry.DefaultPacketRegistry;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.metrics.ProxyMetrics;
+import net.raphimc.viaproxy.metrics.TrafficCounterHandler;
 import net.raphimc.viaproxy.plugins.events.Client2ProxyChannelInitializeEvent;
 import net.raphimc.viaproxy.plugins.events.types.ITyped;
 import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyViaCodec;
 import net.raphimc.viaproxy.proxy.client2proxy.passthrough.LegacyPassthroughInitialHandler;
+import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 
 import java.util.function.Supplier;
 
@@ -38,6 +38,7 @@ public class Client2ProxyChannelInitializer extends MinecraftChannelInitializer
 
     public static final String VIAPROXY_HAPROXY_DECODER_NAME = "viaproxy-haproxy-decoder";
     public static final String VIAPROXY_HAPROXY_HANDLER_NAME = "viaproxy-haproxy-handler";
+    public static final String VIAPROXY_CONNECTION_LIMIT_HANDLER_NAME = "viaproxy-connection-limit-handler";
     public static final String LEGACY_PASSTHROUGH_INITIAL_HANDLER_NAME = "legacy-passthrough-initial-handler";
 
     public Client2ProxyChannelInitializer(final Supplier<ChannelHandler> handlerSupplier) {
@@ -46,14 +47,22 @@ public class Client2ProxyChannelInitializer extends MinecraftChannelInitializer
 
     @Override
     protected void initChannel(Channel channel) {
+        if (!ViaProxy.getConfig().useFrontendHaProxy() && !ConnectionLimiter.tryAdmit(channel)) { // Reject before anything gets allocated for the connection
+            channel.close();
+            return;
+        }
         if (ViaProxy.EVENT_MANAGER.call(new Client2ProxyChannelInitializeEvent(ITyped.Type.PRE, channel, false)).isCancelled()) {
             channel.close();
             return;
         }
 
+        ChannelUtil.setWriteBufferWaterMark(channel);
+        channel.pipeline().addLast(TrafficCounterHandler.NAME, ProxyMetrics.CLIENT_TRAFFIC_COUNTER);
+
         if (ViaProxy.getConfig().useFrontendHaProxy()) {
             channel.pipeline().addLast(VIAPROXY_HAPROXY_DECODER_NAME, new HAProxyMessageDecoder());
             channel.pipeline().addLast(VIAPROXY_HAPROXY_HANDLER_NAME, new HAProxyHandler());
+            channel.pipeline().addLast(VIAPROXY_CONNECTION_LIMIT_HANDLER_NAME, new ConnectionLimitHandler());
         }
         if (ViaProxy.getConfig().shouldAllowLegacyClientPassthrough()) {
             channel.pipeline().addLast(LEGACY_PASSTHROUGH_INITIAL_HANDLER_NAME, new LegacyPassthroughInitialHandler());
@@ -62,9 +71,7 @@ public class Client2ProxyChannelInitializer extends MinecraftChannelInitializer
         super.initChannel(channel);
         channel.attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).set(new DefaultPacketRegistry(false, -1));
 
-        final UserConnection user = ViaChannelInitializer.createUserConnection(channel, false);
-        channel.pipeline().addBefore(MCPipeline.PACKET_CODEC_HANDLER_NAME, ViaProxyViaCodec.NAME, new ViaProxyViaCodec(user));
-        channel.pipeline().addAfter(ViaProxyViaCodec.NAME, "via-" + MCPipeline.FLOW_CONTROL_HANDLER_NAME, new NoReadFlowControlHandler());
+        channel.pipeline().addBefore(MCPipeline.PACKET_CODEC_HANDLER_NAME, ViaProxyViaCodec.NAME, new LazyViaCodecHandler());
 
         if (ViaProxy.EVENT_MANAGER.call(new Client2ProxyChannelInitializeEvent(ITyped.Type.POST, channel, false)).isCancelled()) {
             channel.close();
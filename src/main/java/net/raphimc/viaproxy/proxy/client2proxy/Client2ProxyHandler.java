@@ -17,24 +17,30 @@
  */
 package net.raphimc.viaproxy.proxy.client2proxy;
 
-import com.google.common.collect.Lists;
 import com.google.common.net.HostAndPort;
 import com.viaversion.viabackwards.protocol.v1_20_5to1_20_3.storage.CookieStorage;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import dev.kastle.netty.channel.nethernet.config.NetherNetAddress;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.SimpleChannelInboundHandler;
 import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.constants.IntendedState;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.impl.handshaking.C2SHandshakingClientIntentionPacket;
+import net.raphimc.netminecraft.packet.impl.status.C2SStatusPingRequestPacket;
+import net.raphimc.netminecraft.packet.impl.status.C2SStatusRequestPacket;
+import net.raphimc.netminecraft.packet.impl.status.S2CStatusPongResponsePacket;
+import net.raphimc.netminecraft.packet.impl.status.S2CStatusResponsePacket;
 import net.raphimc.viabedrock.api.BedrockProtocolVersion;
 import net.raphimc.vialegacy.api.LegacyProtocolVersion;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.metrics.ProxyMetrics;
 import net.raphimc.viaproxy.plugins.events.ConnectEvent;
 import net.raphimc.viaproxy.plugins.events.PreConnectEvent;
 import net.raphimc.viaproxy.plugins.events.Proxy2ServerHandlerCreationEvent;
@@ -44,6 +50,8 @@ import net.raphimc.viaproxy.protocoltranslator.viaproxy.ViaProxyConfig;
 import net.raphimc.viaproxy.proxy.packethandler.*;
 import net.raphimc.viaproxy.proxy.proxy2server.Proxy2ServerChannelInitializer;
 import net.raphimc.viaproxy.proxy.proxy2server.Proxy2ServerHandler;
+import net.raphimc.viaproxy.proxy.routing.Backend;
+import net.raphimc.viaproxy.proxy.routing.BackendPool;
 import net.raphimc.viaproxy.proxy.session.BedrockProxyConnection;
 import net.raphimc.viaproxy.proxy.session.DummyProxyConnection;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
@@ -58,13 +66,24 @@ import java.net.InetSocketAddress;
 import java.net.PortUnreachableException;
 import java.net.SocketAddress;
 import java.nio.channels.UnresolvedAddressException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
 
+    private final List<ChannelFutureListener> listeners = new ArrayList<>();
     private ProxyConnection proxyConnection;
+    private final FlushConsolidator flushConsolidator = new FlushConsolidator();
+    private boolean handlingPacket;
+    private String cachedStatusJson;
+    private StatusCache.Refresh statusCacheRefresh;
+    private Backend backend;
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
@@ -78,6 +97,7 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         super.channelInactive(ctx);
         if (this.proxyConnection instanceof DummyProxyConnection) return;
+        if (this.proxyConnection.isDetached()) return; // The server connection refreshes the status cache and closes itself
 
         try {
             this.proxyConnection.getChannel().close();
@@ -88,20 +108,60 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Packet packet) throws Exception {
         if (this.proxyConnection.isClosed()) return;
+        ProxyMetrics.recordPacket(true);
 
         if (this.proxyConnection.getC2pConnectionState() == ConnectionState.HANDSHAKING) {
             if (packet instanceof C2SHandshakingClientIntentionPacket) this.handleHandshake((C2SHandshakingClientIntentionPacket) packet);
             else throw new IllegalStateException("Unexpected packet in HANDSHAKING state");
             return;
         }
+        if (this.cachedStatusJson != null) {
+            this.handleCachedStatus(ctx, packet);
+            return;
+        }
+
+        if (this.handlingPacket) { // Re-entrant read (A listener completed synchronously and restored auto read)
+            this.handlePacket(ctx, packet, new ArrayList<>());
+        } else {
+            this.handlingPacket = true;
+            try {
+                this.handlePacket(ctx, packet, this.listeners);
+            } finally {
+                this.handlingPacket = false;
+                this.listeners.clear();
+            }
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        this.flushConsolidator.flush();
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (this.proxyConnection != null && ChannelUtil.updateBackpressure(this.proxyConnection.getChannel(), ctx.channel())) {
+            this.proxyConnection.incrementBackpressureEvents();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
 
-        final List<ChannelFutureListener> listeners = Lists.newArrayList(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
-        for (PacketHandler packetHandler : this.proxyConnection.getPacketHandlers()) {
+    private void handlePacket(final ChannelHandlerContext ctx, final Packet packet, final List<ChannelFutureListener> listeners) throws Exception {
+        for (PacketHandler packetHandler : this.proxyConnection.getC2PPacketHandlers(packet)) {
             if (!packetHandler.handleC2P(packet, listeners)) {
                 return;
             }
         }
-        this.proxyConnection.getChannel().writeAndFlush(packet).addListeners(listeners.toArray(new ChannelFutureListener[0]));
+
+        final Channel target = this.proxyConnection.getChannel();
+        if (listeners.isEmpty()) {
+            this.flushConsolidator.write(ctx, target, packet, ChannelUtil.newForwardingPromise(target));
+        } else {
+            final ChannelPromise promise = target.newPromise();
+            promise.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE).addListeners(listeners.toArray(new ChannelFutureListener[0]));
+            this.flushConsolidator.write(ctx, target, packet, promise);
+        }
     }
 
     @Override
@@ -109,6 +169,16 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
         ExceptionUtil.handleNettyException(ctx, cause, this.proxyConnection, true);
     }
 
+    private void handleCachedStatus(final ChannelHandlerContext ctx, final Packet packet) {
+        if (packet instanceof C2SStatusRequestPacket) {
+            ctx.writeAndFlush(new S2CStatusResponsePacket(this.cachedStatusJson)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        } else if (packet instanceof C2SStatusPingRequestPacket pingRequestPacket) {
+            ctx.writeAndFlush(new S2CStatusPongResponsePacket(pingRequestPacket.startTime)).addListener(ChannelFutureListener.CLOSE);
+        } else {
+            throw new IllegalStateException("Unexpected packet in STATUS state");
+        }
+    }
+
     private void handleHandshake(final C2SHandshakingClientIntentionPacket packet) {
         final ProtocolVersion clientVersion = ProtocolVersion.getProtocol(packet.protocolVersion);
 
@@ -130,51 +200,97 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
             handshakeParts = new String[]{packet.address};
         }
 
-        SocketAddress serverAddress = ViaProxy.getConfig().getTargetAddress();
-        ProtocolVersion serverVersion = ViaProxy.getConfig().getTargetVersion();
+        final SocketAddress serverAddress = ViaProxy.getConfig().getTargetAddress();
+        final ProtocolVersion serverVersion = ViaProxy.getConfig().getTargetVersion();
         String classicMpPass = ViaProxy.getConfig().getAccount() instanceof ClassicAccount classicAccount ? classicAccount.getMppass() : null;
 
         if (ViaProxy.getConfig().getWildcardDomainHandling() == ViaProxyConfig.WildcardDomainHandling.PUBLIC) {
+            final CompletableFuture<WildcardDomainParser.ParsedDomain> parsedDomainFuture;
+            final String syntax;
             if (handshakeParts[0].toLowerCase().contains("f2.viaproxy.")) { // Format 2: address.<address>.port.<port>.version.<version>.f2.viaproxy.hostname
-                WildcardDomainParser.ParsedDomain parsedDomain = WildcardDomainParser.parseFormat2(handshakeParts[0]);
-                if (parsedDomain == null) {
-                    this.proxyConnection.kickClient("§cWrong domain syntax! §6Please use:\n§7address.<address>.port.<port>.version.<version>.f2.viaproxy.hostname");
-                } else if (parsedDomain.version() == null) {
-                    this.proxyConnection.kickClient("§cWrong domain syntax!\n§cUnknown server version.");
-                } else {
-                    serverAddress = parsedDomain.address();
-                    serverVersion = parsedDomain.version();
-                }
+                parsedDomainFuture = WildcardDomainParser.parseFormat2Async(handshakeParts[0]);
+                syntax = "address.<address>.port.<port>.version.<version>.f2.viaproxy.hostname";
             } else if (handshakeParts[0].toLowerCase().contains("viaproxy.")) { // Format 1: address_port_version.viaproxy.hostname
-                WildcardDomainParser.ParsedDomain parsedDomain = WildcardDomainParser.parseFormat1(handshakeParts[0]);
+                parsedDomainFuture = WildcardDomainParser.parseFormat1Async(handshakeParts[0]);
+                syntax = "address_port_version.viaproxy.hostname";
+            } else {
+                this.proxyConnection.kickClient("§cWrong domain syntax! §6Please use:\n§7address_port_version.viaproxy.hostname");
+                return;
+            }
+            final String finalClassicMpPass = classicMpPass;
+            this.whenResolved(parsedDomainFuture, parsedDomain -> {
                 if (parsedDomain == null) {
-                    this.proxyConnection.kickClient("§cWrong domain syntax! §6Please use:\n§7address_port_version.viaproxy.hostname");
+                    this.proxyConnection.kickClient("§cWrong domain syntax! §6Please use:\n§7" + syntax);
                 } else if (parsedDomain.version() == null) {
                     this.proxyConnection.kickClient("§cWrong domain syntax!\n§cUnknown server version.");
-                } else {
-                    serverAddress = parsedDomain.address();
-                    serverVersion = parsedDomain.version();
                 }
-            } else {
-                this.proxyConnection.kickClient("§cWrong domain syntax! §6Please use:\n§7address_port_version.viaproxy.hostname");
-            }
+                this.continueHandshake(packet, clientVersion, handshakeParts, parsedDomain.address(), parsedDomain.version(), finalClassicMpPass);
+            });
         } else if (ViaProxy.getConfig().getWildcardDomainHandling() == ViaProxyConfig.WildcardDomainHandling.INTERNAL) {
             final ArrayHelper arrayHelper = ArrayHelper.instanceOf(handshakeParts[0].split("\7"));
             handshakeParts[0] = arrayHelper.get(0); // Restore the original address
             final String versionString = arrayHelper.get(2);
-            serverVersion = ProtocolVersionUtil.fromNameLenient(versionString);
-            if (serverVersion == null) throw CloseAndReturn.INSTANCE;
-            serverAddress = AddressUtil.parse(arrayHelper.get(1), serverVersion);
+            final ProtocolVersion internalServerVersion = ProtocolVersionUtil.fromNameLenient(versionString);
+            if (internalServerVersion == null) throw CloseAndReturn.INSTANCE;
             if (arrayHelper.isIndexValid(3)) {
                 classicMpPass = arrayHelper.getString(3);
             }
+            final String finalClassicMpPass = classicMpPass;
+            this.whenResolved(AddressResolver.parseAsync(arrayHelper.get(1), internalServerVersion), internalServerAddress -> {
+                this.continueHandshake(packet, clientVersion, handshakeParts, internalServerAddress, internalServerVersion, finalClassicMpPass);
+            });
+        } else {
+            this.continueHandshake(packet, clientVersion, handshakeParts, serverAddress, serverVersion, classicMpPass);
         }
+    }
 
+    /**
+     * Runs the continuation once the given future completes. If the result is already available the continuation runs right away,
+     * otherwise reading from the client is paused and the continuation runs on the event loop of the client channel.
+     */
+    private <T> void whenResolved(final CompletableFuture<T> future, final Consumer<T> continuation) {
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            continuation.accept(future.join());
+            return;
+        }
+
+        ChannelUtil.disableAutoRead(this.proxyConnection.getC2P());
+        future.whenCompleteAsync((result, t) -> {
+            try {
+                ChannelUtil.restoreAutoRead(this.proxyConnection.getC2P());
+                if (!this.proxyConnection.getC2P().isActive()) return;
+                if (t != null) {
+                    final Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                    if (cause instanceof RejectedExecutionException) { // Too many pending address lookups
+                        this.proxyConnection.kickClient("§cThe proxy is overloaded. Please try again later.");
+                    }
+                    this.proxyConnection.getC2P().pipeline().fireExceptionCaught(cause);
+                    return;
+                }
+                continuation.accept(result);
+            } catch (CloseAndReturn ignored) {
+            } catch (Throwable e) {
+                this.proxyConnection.getC2P().pipeline().fireExceptionCaught(e);
+            }
+        }, this.proxyConnection.getC2P().eventLoop());
+    }
+
+    private void continueHandshake(final C2SHandshakingClientIntentionPacket packet, final ProtocolVersion clientVersion, final String[] handshakeParts, SocketAddress serverAddress, ProtocolVersion serverVersion, final String classicMpPass) {
         if (packet.intendedState.getConnectionState() == ConnectionState.LOGIN && TransferDataHolder.hasTempRedirect(this.proxyConnection.getC2P())) {
             serverAddress = TransferDataHolder.removeTempRedirect(this.proxyConnection.getC2P());
             if (clientVersion.olderThan(ProtocolVersion.v1_20_5)) {
                 packet.intendedState = IntendedState.TRANSFER;
             }
+        } else if (ViaProxy.getConfig().getWildcardDomainHandling() == ViaProxyConfig.WildcardDomainHandling.NONE) {
+            final BackendPool backendPool = ViaProxy.getConfig().getRoutingTable().getPool(handshakeParts[0]);
+            if (backendPool != null) {
+                this.backend = backendPool.select();
+                if (this.backend == null) {
+                    this.proxyConnection.kickClient("§cNo backend server is available!");
+                }
+                serverAddress = this.backend.getAddress();
+                serverVersion = this.backend.getVersion();
+            }
         }
 
         HostAndPort clientHandshakeAddress;
@@ -203,71 +319,142 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
         final UserOptions userOptions = new UserOptions(classicMpPass, ViaProxy.getConfig().getAccount());
         ChannelUtil.disableAutoRead(this.proxyConnection.getC2P());
 
+        if (packet.intendedState.getConnectionState() == ConnectionState.STATUS && StatusCache.isEnabled() && clientVersion.newerThanOrEqualTo(ProtocolVersion.v1_7_1)) {
+            final String handshakeHost = ViaProxy.getConfig().shouldRewriteHandshakePacket() ? null : handshakeParts[0];
+            final StatusCache.Lookup lookup = StatusCache.lookup(new StatusCache.Key(serverAddress, serverVersion, clientVersion, handshakeHost));
+            if (lookup.statusJson() != null) {
+                this.answerFromStatusCache(lookup.statusJson());
+                if (lookup.refresh() != null) { // The response is outdated, let the server connection refresh it while the client is answered
+                    this.statusCacheRefresh = lookup.refresh();
+                    this.connect(serverAddress, serverVersion, clientVersion, packet.intendedState, clientHandshakeAddress, userOptions, handshakeParts);
+                }
+                return;
+            } else if (lookup.pending() != null) { // Another client is already pinging the server
+                final SocketAddress finalServerAddress = serverAddress;
+                final ProtocolVersion finalServerVersion = serverVersion;
+                final HostAndPort finalClientHandshakeAddress = clientHandshakeAddress;
+                lookup.pending().copy().orTimeout(ViaProxy.getConfig().getConnectTimeout(), TimeUnit.MILLISECONDS).whenCompleteAsync((statusJson, t) -> {
+                    try {
+                        if (t == null) {
+                            this.answerFromStatusCache(statusJson);
+                        } else { // The other client didn't get a response, ping the server ourselves
+                            this.connect(finalServerAddress, finalServerVersion, clientVersion, packet.intendedState, finalClientHandshakeAddress, userOptions, handshakeParts);
+                        }
+                    } catch (CloseAndReturn ignored) {
+                    } catch (Throwable e) {
+                        this.proxyConnection.getC2P().pipeline().fireExceptionCaught(e);
+                    }
+                }, this.proxyConnection.getC2P().eventLoop());
+                return;
+            } else {
+                final StatusCache.Refresh refresh = lookup.refresh();
+                this.statusCacheRefresh = refresh;
+                this.proxyConnection.getC2P().closeFuture().addListener(f -> refresh.fail());
+            }
+        }
+
         if (packet.intendedState.getConnectionState() == ConnectionState.LOGIN && serverVersion.equals(ProtocolTranslator.AUTO_DETECT_PROTOCOL)) {
             SocketAddress finalServerAddress = serverAddress;
             HostAndPort finalClientHandshakeAddress = clientHandshakeAddress;
-            CompletableFuture.runAsync(() -> {
-                final ProtocolVersion detectedVersion = ProtocolVersionDetector.get(finalServerAddress, clientVersion);
-                this.connect(finalServerAddress, detectedVersion, clientVersion, packet.intendedState, finalClientHandshakeAddress, userOptions, handshakeParts);
-            }).exceptionally(t -> {
-                if (t instanceof ConnectException || t instanceof UnresolvedAddressException || t instanceof PortUnreachableException) {
-                    this.proxyConnection.kickClient("§cCould not connect to the backend server!");
-                } else {
-                    this.proxyConnection.kickClient("§cAutomatic protocol detection failed!\n§c" + t.getMessage());
+            ProtocolVersionDetector.getAsync(finalServerAddress, clientVersion).whenCompleteAsync((detectedVersion, t) -> {
+                try {
+                    if (t == null) {
+                        this.connect(finalServerAddress, detectedVersion, clientVersion, packet.intendedState, finalClientHandshakeAddress, userOptions, handshakeParts);
+                    } else if (t instanceof ConnectException || t instanceof UnresolvedAddressException || t instanceof PortUnreachableException) {
+                        ProxyMetrics.recordConnectFailure(t);
+                        if (this.backend != null) {
+                            this.backend.recordConnectFailure();
+                        }
+                        this.proxyConnection.kickClient("§cCould not connect to the backend server!");
+                    } else {
+                        ProxyMetrics.recordConnectFailure(t);
+                        this.proxyConnection.kickClient("§cAutomatic protocol detection failed!\n§c" + t.getMessage());
+                    }
+                } catch (CloseAndReturn ignored) {
+                } catch (Throwable e) {
+                    this.proxyConnection.getC2P().pipeline().fireExceptionCaught(e);
                 }
-                return null;
-            });
+            }, this.proxyConnection.getC2P().eventLoop());
         } else {
             this.connect(serverAddress, serverVersion, clientVersion, packet.intendedState, clientHandshakeAddress, userOptions, handshakeParts);
         }
     }
 
-    private void connect(final SocketAddress serverAddress, final ProtocolVersion serverVersion, final ProtocolVersion clientVersion, final IntendedState intendedState, final HostAndPort clientHandshakeAddress, final UserOptions userOptions, final String[] handshakeParts) {
-        final Supplier<ChannelHandler> handlerSupplier = () -> ViaProxy.EVENT_MANAGER.call(new Proxy2ServerHandlerCreationEvent(new Proxy2ServerHandler(), false)).getHandler();
-        final ProxyConnection proxyConnection;
-        if (serverVersion.equals(BedrockProtocolVersion.bedrockLatest)) {
-            proxyConnection = new BedrockProxyConnection(new Proxy2ServerChannelInitializer(handlerSupplier), this.proxyConnection.getC2P());
-        } else {
-            proxyConnection = new ProxyConnection(new Proxy2ServerChannelInitializer(handlerSupplier), this.proxyConnection.getC2P());
+    private void answerFromStatusCache(final String statusJson) {
+        if (ViaProxy.getConfig().shouldLogClientStatusRequests()) {
+            Logger.u_info("status", this.proxyConnection, "Answering status request from the status cache");
         }
-        this.proxyConnection = ViaProxy.EVENT_MANAGER.call(new ProxySessionCreationEvent<>(proxyConnection, false)).getProxySession();
-        this.proxyConnection.getC2P().attr(ProxyConnection.PROXY_CONNECTION_ATTRIBUTE_KEY).set(this.proxyConnection);
-        this.proxyConnection.setClientVersion(clientVersion);
-        this.proxyConnection.setClientHandshakeAddress(clientHandshakeAddress);
-        this.proxyConnection.setUserOptions(userOptions);
-        this.proxyConnection.setC2pConnectionState(intendedState.getConnectionState());
-        this.proxyConnection.getPacketHandlers().add(new StatusPacketHandler(this.proxyConnection));
+        this.cachedStatusJson = statusJson;
+        ChannelUtil.restoreAutoRead(this.proxyConnection.getC2P());
+    }
+
+    /**
+     * Adds the packet handlers of a proxy session to the given proxy connection.
+     *
+     * @param proxyConnection    The proxy connection
+     * @param serverVersion      The version of the server
+     * @param clientVersion      The version of the client
+     * @param statusCacheRefresh The status cache refresh which gets completed with the status response (can be null)
+     */
+    public static void addPacketHandlers(final ProxyConnection proxyConnection, final ProtocolVersion serverVersion, final ProtocolVersion clientVersion, final StatusCache.Refresh statusCacheRefresh) {
+        proxyConnection.getPacketHandlers().add(new StatusPacketHandler(proxyConnection, statusCacheRefresh));
         if (ViaProxy.getConfig().shouldSupportSimpleVoiceChat() && serverVersion.newerThan(ProtocolVersion.v1_14) && clientVersion.newerThan(ProtocolVersion.v1_14)) {
-            this.proxyConnection.getPacketHandlers().add(new SimpleVoiceChatPacketHandler(this.proxyConnection));
+            proxyConnection.getPacketHandlers().add(new SimpleVoiceChatPacketHandler(proxyConnection));
         }
         if (ViaProxy.getConfig().shouldFixFabricParticleApi() && serverVersion.newerThanOrEqualTo(ProtocolVersion.v1_21_5) && clientVersion.newerThanOrEqualTo(ProtocolVersion.v1_21_5) && !serverVersion.equals(clientVersion)) {
-            this.proxyConnection.getPacketHandlers().add(new FabricParticleApiFixPacketHandler(this.proxyConnection));
+            proxyConnection.getPacketHandlers().add(new FabricParticleApiFixPacketHandler(proxyConnection));
         }
         if (ViaProxy.getConfig().shouldFakeAcceptResourcePacks() && serverVersion.newerThanOrEqualTo(LegacyProtocolVersion.r1_3_1tor1_3_2)) {
-            this.proxyConnection.getPacketHandlers().add(new ResourcePackSpooferPacketHandler(this.proxyConnection));
+            proxyConnection.getPacketHandlers().add(new ResourcePackSpooferPacketHandler(proxyConnection));
         }
         if (clientVersion.newerThanOrEqualTo(ProtocolVersion.v1_8)) {
-            this.proxyConnection.getPacketHandlers().add(new BrandCustomPayloadPacketHandler(this.proxyConnection));
+            proxyConnection.getPacketHandlers().add(new BrandCustomPayloadPacketHandler(proxyConnection));
         }
-        this.proxyConnection.getPacketHandlers().add(new CompressionPacketHandler(this.proxyConnection));
-        this.proxyConnection.getPacketHandlers().add(new LoginPacketHandler(this.proxyConnection));
-        this.proxyConnection.getPacketHandlers().add(new DisconnectPacketHandler(this.proxyConnection));
+        proxyConnection.getPacketHandlers().add(new CompressionPacketHandler(proxyConnection));
+        proxyConnection.getPacketHandlers().add(new LoginPacketHandler(proxyConnection));
+        proxyConnection.getPacketHandlers().add(new DisconnectPacketHandler(proxyConnection));
         if (ViaProxy.getConfig().shouldRewriteTransferPackets() && clientVersion.newerThanOrEqualTo(ProtocolVersion.v1_20_5)) {
-            this.proxyConnection.getPacketHandlers().add(new TransferPacketHandler(this.proxyConnection));
+            proxyConnection.getPacketHandlers().add(new TransferPacketHandler(proxyConnection));
         }
         if (clientVersion.newerThanOrEqualTo(ProtocolVersion.v1_20_2) || serverVersion.newerThanOrEqualTo(ProtocolVersion.v1_20_2)) {
-            this.proxyConnection.getPacketHandlers().add(new ConfigurationPacketHandler(this.proxyConnection));
+            proxyConnection.getPacketHandlers().add(new ConfigurationPacketHandler(proxyConnection));
         }
         if (clientVersion.newerThanOrEqualTo(ProtocolVersion.v1_19_3) && serverVersion.newerThanOrEqualTo(ProtocolVersion.v1_19_3)) {
-            this.proxyConnection.getPacketHandlers().add(new ChatSignaturePacketHandler(this.proxyConnection));
+            proxyConnection.getPacketHandlers().add(new ChatSignaturePacketHandler(proxyConnection));
         }
         if (!ViaProxy.getConfig().getResourcePackUrl().isBlank()) {
-            this.proxyConnection.getPacketHandlers().add(new ResourcePackPacketHandler(this.proxyConnection));
+            proxyConnection.getPacketHandlers().add(new ResourcePackPacketHandler(proxyConnection));
         }
         if (Via.getConfig().sendPlayerDetails() || Via.getConfig().sendServerDetails()) {
-            this.proxyConnection.getPacketHandlers().add(new ViaVersionConnectionDetailsPacketHandler(this.proxyConnection));
+            proxyConnection.getPacketHandlers().add(new ViaVersionConnectionDetailsPacketHandler(proxyConnection));
+        }
+        proxyConnection.getPacketHandlers().add(new UnexpectedPacketHandler(proxyConnection));
+    }
+
+    private void connect(final SocketAddress serverAddress, final ProtocolVersion serverVersion, final ProtocolVersion clientVersion, final IntendedState intendedState, final HostAndPort clientHandshakeAddress, final UserOptions userOptions, final String[] handshakeParts) {
+        final Supplier<ChannelHandler> handlerSupplier = () -> ViaProxy.EVENT_MANAGER.call(new Proxy2ServerHandlerCreationEvent(new Proxy2ServerHandler(), false)).getHandler();
+        final ProxyConnection proxyConnection;
+        if (serverVersion.equals(BedrockProtocolVersion.bedrockLatest)) {
+            proxyConnection = new BedrockProxyConnection(new Proxy2ServerChannelInitializer(handlerSupplier), this.proxyConnection.getC2P());
+        } else {
+            proxyConnection = new ProxyConnection(new Proxy2ServerChannelInitializer(handlerSupplier), this.proxyConnection.getC2P());
+        }
+        this.proxyConnection = ViaProxy.EVENT_MANAGER.call(new ProxySessionCreationEvent<>(proxyConnection, false)).getProxySession();
+        this.proxyConnection.getC2P().attr(ProxyConnection.PROXY_CONNECTION_ATTRIBUTE_KEY).set(this.proxyConnection);
+        if (this.backend != null && this.backend.getAddress().equals(serverAddress)) {
+            this.backend.sessionOpened(this.proxyConnection.getC2P());
+        } else { // A plugin changed the target
+            this.backend = null;
+        }
+        this.proxyConnection.setClientVersion(clientVersion);
+        this.proxyConnection.setClientHandshakeAddress(clientHandshakeAddress);
+        this.proxyConnection.setUserOptions(userOptions);
+        this.proxyConnection.setC2pConnectionState(intendedState.getConnectionState());
+        addPacketHandlers(this.proxyConnection, serverVersion, clientVersion, this.statusCacheRefresh);
+        final boolean backgroundRefresh = this.cachedStatusJson != null; // The client is answered from the status cache
+        if (backgroundRefresh) {
+            this.proxyConnection.detach();
         }
-        this.proxyConnection.getPacketHandlers().add(new UnexpectedPacketHandler(this.proxyConnection));
 
         if (ViaProxy.getConfig().shouldLogClientStatusRequests() || intendedState != IntendedState.STATUS) {
             Logger.u_info("connect", this.proxyConnection, "[" + clientVersion.getName() + " <-> " + serverVersion.getName() + "] Connecting to " + AddressUtil.toString(serverAddress));
@@ -288,6 +475,14 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
         }
 
         this.proxyConnection.connectToServer(serverAddress, serverVersion).addListeners((ThrowingChannelFutureListener) f -> {
+            if (this.backend != null) {
+                if (f.isSuccess()) {
+                    this.backend.recordConnectSuccess();
+                } else {
+                    this.backend.recordConnectFailure();
+                }
+            }
+        }, (ThrowingChannelFutureListener) f -> {
             if (f.isSuccess()) {
                 f.channel().eventLoop().submit(() -> { // Reschedule so the packets get sent after the channel is fully initialized and active
                     if (ViaProxy.getConfig().useBackendHaProxy()) {
@@ -302,13 +497,25 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
                                 userConnection.get(CookieStorage.class).cookies().putAll(TransferDataHolder.removeCookieStorage(this.proxyConnection.getC2P()).cookies());
                             }
                             this.proxyConnection.setP2sConnectionState(intendedState.getConnectionState());
-                            ChannelUtil.restoreAutoRead(this.proxyConnection.getC2P());
+                            if (backgroundRefresh) {
+                                final Channel serverChannel = this.proxyConnection.getChannel();
+                                serverChannel.closeFuture().addListener(f3 -> this.statusCacheRefresh.fail());
+                                serverChannel.eventLoop().schedule(() -> serverChannel.close(), ViaProxy.getConfig().getConnectTimeout(), TimeUnit.MILLISECONDS);
+                                serverChannel.writeAndFlush(new C2SStatusRequestPacket()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                            } else {
+                                ChannelUtil.restoreAutoRead(this.proxyConnection.getC2P());
+                            }
                         }
                     });
                 });
             }
         }, (ThrowingChannelFutureListener) f -> {
             if (!f.isSuccess()) {
+                ProxyMetrics.recordConnectFailure(f.cause());
+                if (backgroundRefresh) { // The client already got the outdated response
+                    this.statusCacheRefresh.fail();
+                    return;
+                }
                 if (f.cause() instanceof ConnectException || f.cause() instanceof UnresolvedAddressException || f.cause() instanceof PortUnreachableException) {
                     this.proxyConnection.kickClient("§cCould not connect to the backend server!");
                 } else {
@@ -0,0 +1,92 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.client2proxy;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.uring.IoUringChannelOption;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import net.raphimc.netminecraft.netty.connection.NetServer;
+import net.raphimc.netminecraft.util.TransportType;
+import net.raphimc.viaproxy.proxy.util.EventLoopGroups;
+
+/**
+ * A listener for client connections which can use its own event loop group and share its port with other listeners using SO_REUSEPORT.<br>
+ * Uses the io_uring transport if it is enabled and available.
+ */
+public class Client2ProxyListener extends NetServer {
+
+    private final int threads;
+    private final boolean reusePort;
+    private final String name;
+    private EventLoopGroup eventLoopGroup;
+
+    /**
+     * @param channelInitializer The channel initializer for accepted channels
+     * @param threads            The number of event loop threads of this listener or 0 to use the shared event loop group (or the shared io_uring event loop group when using io_uring)
+     * @param reusePort          If SO_REUSEPORT should be enabled
+     * @param name               The name of the event loop threads
+     */
+    public Client2ProxyListener(final ChannelInitializer<Channel> channelInitializer, final int threads, final boolean reusePort, final String name) {
+        super(channelInitializer);
+        this.threads = threads;
+        this.reusePort = reusePort;
+        this.name = name;
+    }
+
+    @Override
+    public void initialize(final TransportType transportType, ServerBootstrap bootstrap) {
+        final boolean ioUring = EventLoopGroups.useIoUring();
+        if (ioUring) {
+            if (this.threads > 0) {
+                this.eventLoopGroup = EventLoopGroups.createIoUring(this.threads, this.name);
+            }
+            bootstrap = new EventLoopGroups.FixedGroupServerBootstrap(this.eventLoopGroup != null ? this.eventLoopGroup : EventLoopGroups.getIoUringClientGroup(), IoUringServerSocketChannel.class);
+        } else if (this.threads > 0) {
+            this.eventLoopGroup = EventLoopGroups.create(transportType, this.threads, this.name);
+            if (this.eventLoopGroup != null) {
+                bootstrap = new EventLoopGroups.FixedGroupServerBootstrap(this.eventLoopGroup, null);
+            }
+        }
+        super.initialize(transportType, bootstrap);
+        if (this.reusePort) {
+            if (ioUring) {
+                bootstrap.option(IoUringChannelOption.SO_REUSEPORT, true);
+                return;
+            }
+            if (transportType != TransportType.EPOLL) {
+                throw new IllegalStateException("SO_REUSEPORT requires the epoll transport, but " + transportType + " is used");
+            }
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+    }
+
+    /**
+     * Shuts down the event loop group of this listener. Does nothing if the listener uses the shared event loop group.
+     */
+    public void shutdown() {
+        if (this.eventLoopGroup != null) {
+            this.eventLoopGroup.shutdownGracefully();
+            this.eventLoopGroup = null;
+        }
+    }
+
+}
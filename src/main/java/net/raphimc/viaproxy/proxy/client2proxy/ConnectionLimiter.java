@@ -0,0 +1,170 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.client2proxy;
+
+import io.netty.channel.Channel;
+import net.raphimc.viaproxy.ViaProxy;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether a new client connection is accepted based on the configured connection limits.<br>
+ * New connections per IP address are rate limited with a lock-free token bucket (implemented as a generic cell rate algorithm) and
+ * the number of concurrent connections is capped per IP address and in total. IPv6 addresses are grouped by their /64 subnet.
+ */
+public class ConnectionLimiter {
+
+    private static final long CLEANUP_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+    private static final Map<Key, IpState> STATES = new ConcurrentHashMap<>();
+    private static final AtomicInteger CONNECTIONS = new AtomicInteger();
+    private static final AtomicLong NEXT_CLEANUP = new AtomicLong(System.nanoTime() + CLEANUP_INTERVAL);
+    private static final LongAdder REJECTED_BY_RATE = new LongAdder();
+    private static final LongAdder REJECTED_BY_IP_LIMIT = new LongAdder();
+    private static final LongAdder REJECTED_BY_TOTAL_LIMIT = new LongAdder();
+
+    /**
+     * Admits the given channel if no limit is exceeded. Admitted channels count towards the limits until they are closed.
+     *
+     * @param channel The client channel (The remote address has to be the real address of the client)
+     * @return true if the channel was admitted, false if it should be closed
+     */
+    public static boolean tryAdmit(final Channel channel) {
+        final int maxConnections = ViaProxy.getConfig().getMaxConnections();
+        final int maxConnectionsPerIp = ViaProxy.getConfig().getMaxConnectionsPerIp();
+        final int rateLimit = ViaProxy.getConfig().getConnectionRateLimit();
+        final long now = System.nanoTime();
+        cleanup(now);
+
+        IpState state = null;
+        if ((maxConnectionsPerIp > 0 || rateLimit > 0) && channel.remoteAddress() instanceof InetSocketAddress socketAddress && socketAddress.getAddress() != null) {
+            final int[] ipConnections = new int[1];
+            state = STATES.compute(Key.of(socketAddress.getAddress()), (k, existing) -> {
+                final IpState ipState = existing != null ? existing : new IpState(now);
+                ipConnections[0] = ipState.connections.incrementAndGet(); // Reserved atomically with the lookup, so the cleanup can't remove the state while it's in use
+                return ipState;
+            });
+            if (rateLimit > 0 && !state.tryAcquire(now, rateLimit, ViaProxy.getConfig().getConnectionRateBurst())) {
+                state.connections.decrementAndGet();
+                REJECTED_BY_RATE.increment();
+                return false;
+            }
+            if (ipConnections[0] > maxConnectionsPerIp && maxConnectionsPerIp > 0) {
+                state.connections.decrementAndGet();
+                REJECTED_BY_IP_LIMIT.increment();
+                return false;
+            }
+        }
+
+        if (CONNECTIONS.incrementAndGet() > maxConnections && maxConnections > 0) {
+            CONNECTIONS.decrementAndGet();
+            if (state != null) {
+                state.connections.decrementAndGet();
+            }
+            REJECTED_BY_TOTAL_LIMIT.increment();
+            return false;
+        }
+
+        final IpState finalState = state;
+        channel.closeFuture().addListener(f -> {
+            CONNECTIONS.decrementAndGet();
+            if (finalState != null) {
+                finalState.connections.decrementAndGet();
+            }
+        });
+        return true;
+    }
+
+    public static int getConnections() {
+        return CONNECTIONS.get();
+    }
+
+    public static long getRejectedByRate() {
+        return REJECTED_BY_RATE.sum();
+    }
+
+    public static long getRejectedByIpLimit() {
+        return REJECTED_BY_IP_LIMIT.sum();
+    }
+
+    public static long getRejectedByTotalLimit() {
+        return REJECTED_BY_TOTAL_LIMIT.sum();
+    }
+
+    private static void cleanup(final long now) {
+        final long nextCleanup = NEXT_CLEANUP.get();
+        if (now - nextCleanup >= 0 && NEXT_CLEANUP.compareAndSet(nextCleanup, now + CLEANUP_INTERVAL)) {
+            STATES.forEach((key, state) -> {
+                if (state.isIdle(now)) { // Re-checked inside computeIfPresent, so a concurrent tryAdmit either sees the state removed or keeps it alive
+                    STATES.computeIfPresent(key, (k, s) -> s.isIdle(now) ? null : s);
+                }
+            });
+        }
+    }
+
+    private record Key(long high, long low) {
+
+        private static Key of(final InetAddress address) {
+            final byte[] bytes = address.getAddress();
+            if (bytes.length == 4) {
+                return new Key(0, (1L << 32) | (ByteBuffer.wrap(bytes).getInt() & 0xFFFFFFFFL));
+            } else {
+                return new Key(ByteBuffer.wrap(bytes).getLong(), 0); // /64 subnet
+            }
+        }
+
+    }
+
+    private static class IpState {
+
+        private final AtomicLong theoreticalArrivalTime;
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private IpState(final long now) {
+            this.theoreticalArrivalTime = new AtomicLong(now);
+        }
+
+        private boolean tryAcquire(final long now, final int rate, final int burst) {
+            final long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            final long limit = interval * Math.max(1, burst);
+            while (true) {
+                final long arrivalTime = this.theoreticalArrivalTime.get();
+                final long newArrivalTime = (arrivalTime - now > 0 ? arrivalTime : now) + interval;
+                if (newArrivalTime - now > limit) {
+                    return false;
+                }
+                if (this.theoreticalArrivalTime.compareAndSet(arrivalTime, newArrivalTime)) {
+                    return true;
+                }
+            }
+        }
+
+        private boolean isIdle(final long now) {
+            return this.connections.get() == 0 && now - this.theoreticalArrivalTime.get() >= 0;
+        }
+
+    }
+
+}
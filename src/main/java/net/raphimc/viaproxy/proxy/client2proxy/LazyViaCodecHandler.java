@@ -0,0 +1,75 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.client2proxy;
+
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.api.protocol.version.VersionType;
+import com.viaversion.viaversion.platform.ViaChannelInitializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.constants.MCVersion;
+import net.raphimc.netminecraft.netty.codec.NoReadFlowControlHandler;
+import net.raphimc.netminecraft.packet.PacketTypes;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.plugins.events.Client2ProxyViaCodecInitializeEvent;
+import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyViaCodec;
+
+/**
+ * Placeholder for the {@link ViaProxyViaCodec} of client connections (registered under the same name).<br>
+ * The client side Via codec only translates packets if the client uses a version which NetMinecraft can't handle itself (see ViaProxyVersionProvider).
+ * This handler peeks at the protocol version in the handshake packet and only creates the {@link UserConnection} and codec if that is the case.
+ * Otherwise it removes itself and the connection never gets any Via state.<br>
+ * For the common case (supported release clients, server list pings and connections which never send a handshake) this saves the
+ * UserConnectionImpl with its storage maps and packet tracker, the ProtocolPipelineImpl with its protocol list, the ProtocolInfo,
+ * the codec and the flow control handler with its message queue per connection. The ClientConnectionFootprintBenchmark measures the difference.<br>
+ * Plugins get notified through the {@link Client2ProxyViaCodecInitializeEvent} once the codec has been installed.
+ */
+public class LazyViaCodecHandler extends ChannelInboundHandlerAdapter {
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof ByteBuf buf && !needsViaCodec(buf)) {
+            ctx.pipeline().remove(this);
+        } else {
+            final UserConnection user = ViaChannelInitializer.createUserConnection(ctx.channel(), false);
+            ctx.pipeline().replace(this, ViaProxyViaCodec.NAME, new ViaProxyViaCodec(user));
+            ctx.pipeline().addAfter(ViaProxyViaCodec.NAME, "via-" + MCPipeline.FLOW_CONTROL_HANDLER_NAME, new NoReadFlowControlHandler());
+            ViaProxy.EVENT_MANAGER.call(new Client2ProxyViaCodecInitializeEvent(ctx.channel(), user));
+        }
+        ctx.fireChannelRead(msg); // Goes to the codec if this handler has been replaced
+    }
+
+    private static boolean needsViaCodec(final ByteBuf handshake) {
+        final int readerIndex = handshake.readerIndex();
+        try {
+            if (PacketTypes.readVarInt(handshake) != 0x00) { // Not a handshake packet
+                return true;
+            }
+            final ProtocolVersion clientVersion = ProtocolVersion.getProtocol(PacketTypes.readVarInt(handshake));
+            return clientVersion.getVersionType() != VersionType.RELEASE || !MCVersion.ALL_VERSIONS.containsKey(clientVersion.getVersion());
+        } catch (Throwable e) {
+            return true;
+        } finally {
+            handshake.readerIndex(readerIndex);
+        }
+    }
+
+}
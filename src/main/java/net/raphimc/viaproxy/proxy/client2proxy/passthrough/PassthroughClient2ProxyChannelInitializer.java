@@ -21,9 +21,12 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.metrics.ProxyMetrics;
+import net.raphimc.viaproxy.metrics.TrafficCounterHandler;
 import net.raphimc.viaproxy.plugins.events.Client2ProxyChannelInitializeEvent;
 import net.raphimc.viaproxy.plugins.events.types.ITyped;
 import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyChannelInitializer;
+import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 
 import java.util.function.Supplier;
 
@@ -40,6 +43,9 @@ public class PassthroughClient2ProxyChannelInitializer extends Client2ProxyChann
             return;
         }
 
+        ChannelUtil.setWriteBufferWaterMark(channel);
+        channel.pipeline().addLast(TrafficCounterHandler.NAME, ProxyMetrics.CLIENT_TRAFFIC_COUNTER);
+
         channel.pipeline().addLast(MCPipeline.FLOW_CONTROL_HANDLER_NAME, MCPipeline.FLOW_CONTROL_HANDLER.get());
         channel.pipeline().addLast(MCPipeline.HANDLER_HANDLER_NAME, this.handlerSupplier.get());
 
@@ -27,6 +27,7 @@ import net.raphimc.viaproxy.proxy.proxy2server.passthrough.PassthroughProxy2Serv
 import net.raphimc.viaproxy.proxy.session.LegacyProxyConnection;
 import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 import net.raphimc.viaproxy.proxy.util.ExceptionUtil;
+import net.raphimc.viaproxy.proxy.util.FlushConsolidator;
 import net.raphimc.viaproxy.proxy.util.HAProxyUtil;
 import net.raphimc.viaproxy.proxy.util.ThrowingChannelFutureListener;
 import net.raphimc.viaproxy.util.AddressUtil;
@@ -38,6 +39,7 @@ import java.util.function.Supplier;
 
 public class PassthroughClient2ProxyHandler extends SimpleChannelInboundHandler<ByteBuf> {
 
+    private final FlushConsolidator flushConsolidator = new FlushConsolidator();
     private LegacyProxyConnection proxyConnection;
 
     @Override
@@ -64,7 +66,21 @@ public class PassthroughClient2ProxyHandler extends SimpleChannelInboundHandler<
         if (!ctx.channel().isOpen()) return;
         if (!msg.isReadable()) return;
 
-        this.proxyConnection.getChannel().writeAndFlush(msg.retain()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        this.flushConsolidator.write(ctx, this.proxyConnection.getChannel(), msg.retain(), ChannelUtil.newForwardingPromise(this.proxyConnection.getChannel()));
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        this.flushConsolidator.flush();
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (this.proxyConnection != null && ChannelUtil.updateBackpressure(this.proxyConnection.getChannel(), ctx.channel())) {
+            this.proxyConnection.incrementBackpressureEvents();
+        }
+        super.channelWritabilityChanged(ctx);
     }
 
     @Override
@@ -0,0 +1,79 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.external_interface;
+
+import java.net.Authenticator;
+import java.net.PasswordAuthentication;
+
+/**
+ * Supplies the credentials of the backend proxy to proxy authentication requests made by the current thread.<br>
+ * It is installed as the default authenticator once and is never swapped out, so concurrent session server requests can't overwrite or restore each other's credentials.
+ * All other authentication requests are delegated to the authenticator which was installed before.
+ */
+public class BackendProxyAuthenticator extends Authenticator {
+
+    private static final ThreadLocal<PasswordAuthentication> CREDENTIALS = new ThreadLocal<>();
+    private static BackendProxyAuthenticator installed;
+
+    private final Authenticator parent;
+
+    private BackendProxyAuthenticator(final Authenticator parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Runs the given request with the given proxy credentials. Only requests made by the current thread use them.
+     */
+    public static <E extends Throwable> void runWithCredentials(final String username, final String password, final Request<E> request) throws E {
+        install();
+        final PasswordAuthentication previousCredentials = CREDENTIALS.get();
+        CREDENTIALS.set(new PasswordAuthentication(username, password.toCharArray()));
+        try {
+            request.run();
+        } finally {
+            CREDENTIALS.set(previousCredentials);
+        }
+    }
+
+    private static synchronized void install() {
+        if (installed == null || Authenticator.getDefault() != installed) {
+            installed = new BackendProxyAuthenticator(Authenticator.getDefault());
+            Authenticator.setDefault(installed);
+        }
+    }
+
+    @Override
+    protected PasswordAuthentication getPasswordAuthentication() {
+        final PasswordAuthentication credentials = CREDENTIALS.get();
+        if (credentials != null && this.getRequestorType() == RequestorType.PROXY) {
+            return credentials;
+        } else if (this.parent != null) {
+            return this.parent.requestPasswordAuthenticationInstance(this.getRequestingHost(), this.getRequestingSite(), this.getRequestingPort(), this.getRequestingProtocol(), this.getRequestingPrompt(), this.getRequestingScheme(), this.getRequestingURL(), this.getRequestorType());
+        } else {
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Request<E extends Throwable> {
+
+        void run() throws E;
+
+    }
+
+}
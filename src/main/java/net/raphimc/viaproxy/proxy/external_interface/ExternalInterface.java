@@ -26,7 +26,6 @@ import com.viaversion.viaversion.api.minecraft.signature.storage.ChatSession1_19
 import com.viaversion.viaversion.api.minecraft.signature.storage.ChatSession1_19_1;
 import com.viaversion.viaversion.api.minecraft.signature.storage.ChatSession1_19_3;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
-import net.lenni0451.commons.httpclient.proxy.SingleProxyAuthenticator;
 import net.raphimc.minecraftauth.bedrock.model.MinecraftMultiplayerToken;
 import net.raphimc.minecraftauth.java.model.MinecraftPlayerCertificates;
 import net.raphimc.netminecraft.packet.impl.login.C2SLoginHelloPacket;
@@ -44,7 +43,6 @@ import net.raphimc.viaproxy.saves.impl.accounts.MicrosoftAccount;
 import net.raphimc.viaproxy.util.Proxy;
 import net.raphimc.viaproxy.util.logging.Logger;
 
-import java.net.Authenticator;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.SignatureException;
@@ -110,14 +108,10 @@ public class ExternalInterface {
                     } else {
                         final Proxy proxy = ViaProxy.getConfig().getBackendProxy();
                         final MinecraftSessionService sessionService = new YggdrasilAuthenticationService(proxy.toJavaProxy()).createMinecraftSessionService();
-                        Authenticator prevAuthenticator = Authenticator.getDefault();
-                        try {
-                            if (proxy.getUsername() != null && proxy.getPassword() != null) {
-                                Authenticator.setDefault(new SingleProxyAuthenticator(proxy.getUsername(), proxy.getPassword()));
-                            }
+                        if (proxy.getUsername() != null && proxy.getPassword() != null) { // joinServer runs concurrently for multiple logins, so the credentials must not be set globally
+                            BackendProxyAuthenticator.runWithCredentials(proxy.getUsername(), proxy.getPassword(), () -> sessionService.joinServer(microsoftAccount.getGameProfile().getId(), microsoftAccount.getAuthManager().getMinecraftToken().getUpToDate().getToken(), serverIdHash));
+                        } else {
                             sessionService.joinServer(microsoftAccount.getGameProfile().getId(), microsoftAccount.getAuthManager().getMinecraftToken().getUpToDate().getToken(), serverIdHash);
-                        } finally {
-                            Authenticator.setDefault(prevAuthenticator);
                         }
                     }
                 } catch (Throwable e) {
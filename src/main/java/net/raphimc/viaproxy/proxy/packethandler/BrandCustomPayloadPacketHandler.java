@@ -23,10 +23,12 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFutureListener;
+import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.PacketTypes;
 import net.raphimc.netminecraft.packet.impl.common.S2CCustomPayloadPacket;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.RawForwardingHandler;
 
 import java.util.List;
 
@@ -39,6 +41,14 @@ public class BrandCustomPayloadPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void subscribeP2S(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.PLAY && this.proxyConnection.getServerVersion().newerThanOrEqualTo(ProtocolVersion.v1_20_2) && RawForwardingHandler.canForwardRaw(this.proxyConnection)) {
+            return; // >= 1.20.2 servers send their brand in the configuration state, so PLAY can be forwarded without decoding
+        }
+        subscription.packets(S2CCustomPayloadPacket.class);
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) throws Exception {
         if (packet instanceof S2CCustomPayloadPacket customPayloadPacket) {
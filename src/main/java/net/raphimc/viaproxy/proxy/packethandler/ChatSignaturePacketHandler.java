@@ -52,6 +52,24 @@ public class ChatSignaturePacketHandler extends PacketHandler {
         this.chatMessageId = MCPackets.C2S_CHAT.getId(proxyConnection.getClientVersion().getVersion());
     }
 
+    @Override
+    public void subscribeC2P(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.PLAY) {
+            if (this.hasChatSession()) {
+                subscription.unknownPackets(this.chatSessionUpdateId, this.chatMessageId);
+            } else if (!this.isP2sEncrypted()) { // Offline mode servers can't verify the chat session of the client
+                subscription.unknownPackets(this.chatSessionUpdateId);
+            }
+        }
+    }
+
+    @Override
+    public void subscribeP2S(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.PLAY && this.hasChatSession() && this.isP2sEncrypted()) {
+            subscription.unknownPackets(this.joinGameId);
+        }
+    }
+
     @Override
     public boolean handleC2P(Packet packet, List<ChannelFutureListener> listeners) throws Exception {
         if (packet instanceof UnknownPacket unknownPacket && this.proxyConnection.getC2pConnectionState() == ConnectionState.PLAY) {
@@ -89,7 +107,7 @@ public class ChatSignaturePacketHandler extends PacketHandler {
 
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) {
-        if (packet instanceof UnknownPacket unknownPacket && this.proxyConnection.getC2pConnectionState() == ConnectionState.PLAY) {
+        if (packet instanceof UnknownPacket unknownPacket && this.proxyConnection.getP2sConnectionState() == ConnectionState.PLAY) {
             final UserConnection user = this.proxyConnection.getUserConnection();
 
             if (unknownPacket.packetId == this.joinGameId && this.isP2sEncrypted() && user.has(ChatSession1_19_3.class)) {
@@ -109,6 +127,11 @@ public class ChatSignaturePacketHandler extends PacketHandler {
         return true;
     }
 
+    private boolean hasChatSession() {
+        final UserConnection user = this.proxyConnection.getUserConnection();
+        return user != null && user.has(ChatSession1_19_3.class);
+    }
+
     private boolean isP2sEncrypted() {
         return this.proxyConnection.getChannel().attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY).get() != null;
     }
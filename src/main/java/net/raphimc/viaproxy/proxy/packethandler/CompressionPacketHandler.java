@@ -19,6 +19,7 @@ package net.raphimc.viaproxy.proxy.packethandler;
 
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import io.netty.channel.ChannelFutureListener;
+import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.impl.login.S2CLoginCompressionPacket;
@@ -27,6 +28,7 @@ import net.raphimc.netminecraft.packet.impl.play.S2CPlaySetCompressionPacket;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 import net.raphimc.viaproxy.proxy.util.ChannelUtil;
+import net.raphimc.viaproxy.proxy.util.RawForwardingHandler;
 
 import java.util.List;
 
@@ -36,6 +38,15 @@ public class CompressionPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void subscribeP2S(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.LOGIN) {
+            subscription.packets(S2CLoginCompressionPacket.class, S2CLoginGameProfilePacket.class);
+        } else if (connectionState == ConnectionState.PLAY && this.proxyConnection.getClientVersion().olderThanOrEqualTo(ProtocolVersion.v1_8)) { // Only 1.8 has a play state set compression packet
+            subscription.packets(S2CPlaySetCompressionPacket.class);
+        }
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) {
         if (packet instanceof S2CPlaySetCompressionPacket setCompressionPacket) {
@@ -43,11 +54,12 @@ public class CompressionPacketHandler extends PacketHandler {
             return false;
         } else if (packet instanceof S2CLoginGameProfilePacket) {
             if (this.proxyConnection.getClientVersion().newerThanOrEqualTo(ProtocolVersion.v1_8)) {
-                if (ViaProxy.getConfig().getCompressionThreshold() > -1 && this.proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get() == -1) {
+                final int compressionThreshold = getClientCompressionThreshold(this.proxyConnection);
+                if (compressionThreshold > -1 && this.proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get() == -1) {
                     ChannelUtil.disableAutoRead(this.proxyConnection.getChannel());
-                    this.proxyConnection.getC2P().writeAndFlush(new S2CLoginCompressionPacket(ViaProxy.getConfig().getCompressionThreshold())).addListeners(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE, (ChannelFutureListener) f -> {
+                    this.proxyConnection.getC2P().writeAndFlush(new S2CLoginCompressionPacket(compressionThreshold)).addListeners(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE, (ChannelFutureListener) f -> {
                         if (f.isSuccess()) {
-                            this.proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(ViaProxy.getConfig().getCompressionThreshold());
+                            this.proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(compressionThreshold);
                             ChannelUtil.restoreAutoRead(this.proxyConnection.getChannel());
                         }
                     });
@@ -61,4 +73,21 @@ public class CompressionPacketHandler extends PacketHandler {
         return true;
     }
 
+    /**
+     * Gets the compression threshold which is sent to the client.<br>
+     * If compressed frames will be passed through (same version on both sides and raw forwarding possible), the threshold of the server is used, so that its compressed frames are valid for the client as well.
+     *
+     * @param proxyConnection The proxy connection
+     * @return The compression threshold for the client or -1 if the client should not use compression
+     */
+    public static int getClientCompressionThreshold(final ProxyConnection proxyConnection) {
+        if (ViaProxy.getConfig().shouldUseCompressedFramePassthrough() && RawForwardingHandler.canForwardRaw(proxyConnection)) {
+            final int serverThreshold = proxyConnection.getChannel().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get();
+            if (serverThreshold > -1) {
+                return serverThreshold;
+            }
+        }
+        return ViaProxy.getConfig().getCompressionThreshold();
+    }
+
 }
@@ -27,6 +27,7 @@ import net.raphimc.netminecraft.packet.impl.play.C2SPlayConfigurationAcknowledge
 import net.raphimc.netminecraft.packet.impl.play.S2CPlayStartConfigurationPacket;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 import net.raphimc.viaproxy.proxy.util.ChannelUtil;
+import net.raphimc.viaproxy.proxy.util.RawForwardingHandler;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import java.util.List;
@@ -37,6 +38,26 @@ public class ConfigurationPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void subscribeC2P(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.LOGIN) {
+            subscription.packets(C2SLoginAcknowledgedPacket.class);
+        } else if (connectionState == ConnectionState.CONFIGURATION) {
+            subscription.packets(C2SConfigFinishConfigurationPacket.class);
+        } else if (connectionState == ConnectionState.PLAY) {
+            subscription.packets(C2SPlayConfigurationAcknowledgedPacket.class);
+        }
+    }
+
+    @Override
+    public void subscribeP2S(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.CONFIGURATION) {
+            subscription.packets(S2CConfigFinishConfigurationPacket.class);
+        } else if (connectionState == ConnectionState.PLAY) {
+            subscription.packets(S2CPlayStartConfigurationPacket.class);
+        }
+    }
+
     @Override
     public boolean handleC2P(Packet packet, List<ChannelFutureListener> listeners) {
         if (packet instanceof C2SLoginAcknowledgedPacket) {
@@ -53,6 +74,7 @@ public class ConfigurationPacketHandler extends PacketHandler {
                 if (f.isSuccess()) {
                     Logger.u_info("session", this.proxyConnection, "Configuration finished! Switching to PLAY state");
                     this.proxyConnection.setP2sConnectionState(ConnectionState.PLAY);
+                    RawForwardingHandler.enableIfPossible(this.proxyConnection);
                     ChannelUtil.restoreAutoRead(this.proxyConnection.getChannel());
                 }
             });
@@ -18,6 +18,7 @@
 package net.raphimc.viaproxy.proxy.packethandler;
 
 import io.netty.channel.ChannelFutureListener;
+import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.impl.common.S2CDisconnectPacket;
 import net.raphimc.netminecraft.packet.impl.login.S2CLoginDisconnectPacket;
@@ -33,6 +34,11 @@ public class DisconnectPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void subscribeP2S(final ConnectionState connectionState, final PacketSubscription subscription) {
+        subscription.packets(S2CLoginDisconnectPacket.class, S2CDisconnectPacket.class);
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) throws Exception {
         if (packet instanceof S2CLoginDisconnectPacket loginDisconnectPacket) {
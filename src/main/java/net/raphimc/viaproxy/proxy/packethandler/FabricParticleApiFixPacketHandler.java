@@ -20,6 +20,7 @@ package net.raphimc.viaproxy.proxy.packethandler;
 import com.google.common.collect.Lists;
 import com.viaversion.viaversion.util.Key;
 import io.netty.channel.ChannelFutureListener;
+import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.impl.common.C2SCustomPayloadPacket;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
@@ -37,6 +38,11 @@ public class FabricParticleApiFixPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void subscribeC2P(final ConnectionState connectionState, final PacketSubscription subscription) {
+        subscription.packets(C2SCustomPayloadPacket.class);
+    }
+
     @Override
     public boolean handleC2P(Packet packet, List<ChannelFutureListener> listeners) throws Exception {
         if (packet instanceof C2SCustomPayloadPacket customPayloadPacket) {
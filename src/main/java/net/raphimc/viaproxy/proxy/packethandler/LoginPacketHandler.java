@@ -21,6 +21,7 @@ import com.mojang.authlib.GameProfile;
 import com.mojang.authlib.yggdrasil.ProfileResult;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.netminecraft.netty.crypto.AESEncryption;
@@ -42,6 +43,7 @@ import net.raphimc.viaproxy.proxy.external_interface.ExternalInterface;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 import net.raphimc.viaproxy.proxy.util.CloseAndReturn;
+import net.raphimc.viaproxy.proxy.util.RawForwardingHandler;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import javax.crypto.SecretKey;
@@ -53,15 +55,21 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.*;
 
 public class LoginPacketHandler extends PacketHandler {
 
     private static final KeyPair KEY_PAIR = CryptUtil.generateKeyPair();
     private static final Random RANDOM = new Random();
     private static final ExecutorService HTTP_EXECUTOR = Executors.newWorkStealingPool(4);
+    private static final int MAX_QUEUED_JOINS = 256;
+    private static final ExecutorService JOIN_EXECUTOR; // Separate from the HTTP_EXECUTOR, so a slow session server can't delay the authentication of connecting clients
+
+    static {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_JOINS), new DefaultThreadFactory("ViaProxy Session Join", true));
+        executor.allowCoreThreadTimeOut(true);
+        JOIN_EXECUTOR = executor;
+    }
 
     private final byte[] verifyToken = new byte[4];
     private LoginState loginState = LoginState.FIRST_PACKET;
@@ -72,6 +80,20 @@ public class LoginPacketHandler extends PacketHandler {
         RANDOM.nextBytes(this.verifyToken);
     }
 
+    @Override
+    public void subscribeC2P(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.LOGIN) {
+            subscription.packets(C2SLoginHelloPacket.class, C2SLoginKeyPacket.class);
+        }
+    }
+
+    @Override
+    public void subscribeP2S(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.LOGIN) {
+            subscription.packets(S2CLoginHelloPacket.class, S2CLoginGameProfilePacket.class);
+        }
+    }
+
     @Override
     public boolean handleC2P(Packet packet, List<ChannelFutureListener> listeners) throws GeneralSecurityException {
         if (packet instanceof C2SLoginHelloPacket loginHelloPacket) {
@@ -163,22 +185,33 @@ public class LoginPacketHandler extends PacketHandler {
                 auth = this.proxyConnection.getUserConnection().get(ProtocolMetadataStorage.class).authenticate;
             }
             if (auth) {
-                ExternalInterface.joinServer(serverHash, this.proxyConnection);
-            }
-
-            final byte[] encryptedSecretKey = CryptUtil.encryptData(publicKey, secretKey.getEncoded());
-            final byte[] encryptedNonce = CryptUtil.encryptData(publicKey, loginHelloPacket.nonce);
-
-            final C2SLoginKeyPacket loginKey = new C2SLoginKeyPacket(encryptedSecretKey, encryptedNonce);
-            if (this.proxyConnection.getServerVersion().betweenInclusive(ProtocolVersion.v1_19, ProtocolVersion.v1_19_1) && this.proxyConnection.getLoginHelloPacket().key != null) {
-                ExternalInterface.signNonce(loginHelloPacket.nonce, loginKey, this.proxyConnection);
-            }
-            this.proxyConnection.getChannel().writeAndFlush(loginKey).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                final Runnable joinServer = () -> {
+                    try {
+                        ExternalInterface.joinServer(serverHash, this.proxyConnection);
+                    } catch (CloseAndReturn ignored) {
+                        return;
+                    }
 
-            if (this.proxyConnection.getServerVersion().newerThanOrEqualTo(ProtocolVersion.v1_7_2)) {
-                this.proxyConnection.getChannel().attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY).set(new AESEncryption(secretKey));
+                    this.proxyConnection.getChannel().eventLoop().execute(() -> {
+                        if (this.proxyConnection.isClosed()) return;
+                        try {
+                            this.sendLoginKey(loginHelloPacket, publicKey, secretKey);
+                            ChannelUtil.restoreAutoRead(this.proxyConnection.getChannel());
+                        } catch (CloseAndReturn ignored) {
+                        } catch (Throwable e) {
+                            this.proxyConnection.getChannel().pipeline().fireExceptionCaught(e);
+                        }
+                    });
+                };
+                ChannelUtil.disableAutoRead(this.proxyConnection.getChannel());
+                try {
+                    JOIN_EXECUTOR.execute(joinServer); // Joining the server is a blocking request to the session server, so it shouldn't block the event loop
+                } catch (RejectedExecutionException e) {
+                    Logger.u_err("auth", this.proxyConnection, "Too many pending session server requests");
+                    this.proxyConnection.kickClient("§cToo many players are joining right now! Please try again in a couple of seconds.");
+                }
             } else {
-                this.proxyConnection.setKeyForPreNettyEncryption(secretKey);
+                this.sendLoginKey(loginHelloPacket, publicKey, secretKey);
             }
 
             return false;
@@ -193,6 +226,7 @@ public class LoginPacketHandler extends PacketHandler {
                 if (f.isSuccess() && nextState != ConnectionState.CONFIGURATION) {
                     this.proxyConnection.setC2pConnectionState(nextState);
                     this.proxyConnection.setP2sConnectionState(nextState);
+                    RawForwardingHandler.enableIfPossible(this.proxyConnection);
                     ChannelUtil.restoreAutoRead(this.proxyConnection.getChannel());
                 }
             });
@@ -201,4 +235,21 @@ public class LoginPacketHandler extends PacketHandler {
         return true;
     }
 
+    private void sendLoginKey(final S2CLoginHelloPacket loginHelloPacket, final PublicKey publicKey, final SecretKey secretKey) throws GeneralSecurityException {
+        final byte[] encryptedSecretKey = CryptUtil.encryptData(publicKey, secretKey.getEncoded());
+        final byte[] encryptedNonce = CryptUtil.encryptData(publicKey, loginHelloPacket.nonce);
+
+        final C2SLoginKeyPacket loginKey = new C2SLoginKeyPacket(encryptedSecretKey, encryptedNonce);
+        if (this.proxyConnection.getServerVersion().betweenInclusive(ProtocolVersion.v1_19, ProtocolVersion.v1_19_1) && this.proxyConnection.getLoginHelloPacket().key != null) {
+            ExternalInterface.signNonce(loginHelloPacket.nonce, loginKey, this.proxyConnection);
+        }
+        this.proxyConnection.getChannel().writeAndFlush(loginKey).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+
+        if (this.proxyConnection.getServerVersion().newerThanOrEqualTo(ProtocolVersion.v1_7_2)) {
+            this.proxyConnection.getChannel().attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY).set(new AESEncryption(secretKey));
+        } else {
+            this.proxyConnection.setKeyForPreNettyEncryption(secretKey);
+        }
+    }
+
 }
@@ -0,0 +1,108 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.packethandler;
+
+import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectMap;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectOpenHashMap;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.packet.Packet;
+import net.raphimc.netminecraft.packet.UnknownPacket;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Maps packets to the packet handlers which subscribed to them in a single connection state and direction.<br>
+ * The handler order of the packet handler list is preserved. Tables are immutable apart from their lookup caches and get rebuilt when the state or the handler list changes.
+ */
+public class PacketDispatchTable {
+
+    private static final PacketHandler[] EMPTY = new PacketHandler[0];
+
+    private final ConnectionState connectionState;
+    private final int handlersModCount;
+    private final PacketHandler[] handlers;
+    private final PacketSubscription[] subscriptions;
+
+    private final Map<Class<? extends Packet>, PacketHandler[]> packetTypeHandlers = new HashMap<>();
+    private final Int2ObjectMap<PacketHandler[]> unknownPacketHandlers = new Int2ObjectOpenHashMap<>();
+
+    public PacketDispatchTable(final List<PacketHandler> packetHandlers, final ConnectionState connectionState, final boolean client2Proxy, final int handlersModCount) {
+        this.connectionState = connectionState;
+        this.handlersModCount = handlersModCount;
+
+        final List<PacketHandler> handlers = new ArrayList<>(packetHandlers.size());
+        final List<PacketSubscription> subscriptions = new ArrayList<>(packetHandlers.size());
+        for (PacketHandler packetHandler : packetHandlers) {
+            final PacketSubscription subscription = new PacketSubscription();
+            if (client2Proxy) {
+                packetHandler.subscribeC2P(connectionState, subscription);
+            } else {
+                packetHandler.subscribeP2S(connectionState, subscription);
+            }
+            if (!subscription.isEmpty()) {
+                handlers.add(packetHandler);
+                subscriptions.add(subscription);
+            }
+        }
+        this.handlers = handlers.toArray(EMPTY);
+        this.subscriptions = subscriptions.toArray(new PacketSubscription[0]);
+    }
+
+    public boolean isValid(final ConnectionState connectionState, final int handlersModCount) {
+        return this.connectionState == connectionState && this.handlersModCount == handlersModCount;
+    }
+
+    public PacketHandler[] getHandlers(final Packet packet) {
+        if (packet instanceof UnknownPacket unknownPacket) {
+            PacketHandler[] handlers = this.unknownPacketHandlers.get(unknownPacket.packetId);
+            if (handlers == null) {
+                final int packetId = unknownPacket.packetId;
+                handlers = this.collect(subscription -> subscription.matchesUnknown(packetId));
+                this.unknownPacketHandlers.put(packetId, handlers);
+            }
+            return handlers;
+        } else {
+            PacketHandler[] handlers = this.packetTypeHandlers.get(packet.getClass());
+            if (handlers == null) {
+                final Class<? extends Packet> packetType = packet.getClass();
+                handlers = this.collect(subscription -> subscription.matches(packetType));
+                this.packetTypeHandlers.put(packetType, handlers);
+            }
+            return handlers;
+        }
+    }
+
+    public PacketHandler[] getHandlers() {
+        return this.handlers;
+    }
+
+    private PacketHandler[] collect(final Predicate<PacketSubscription> filter) {
+        final List<PacketHandler> handlers = new ArrayList<>();
+        for (int i = 0; i < this.handlers.length; i++) {
+            if (filter.test(this.subscriptions[i])) {
+                handlers.add(this.handlers[i]);
+            }
+        }
+        return handlers.isEmpty() ? EMPTY : handlers.toArray(EMPTY);
+    }
+
+}
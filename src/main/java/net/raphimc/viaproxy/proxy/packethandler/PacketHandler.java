@@ -18,6 +18,7 @@
 package net.raphimc.viaproxy.proxy.packethandler;
 
 import io.netty.channel.ChannelFutureListener;
+import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 
@@ -25,18 +26,61 @@ import java.util.List;
 
 public abstract class PacketHandler {
 
+    private static final ClassValue<boolean[]> OVERRIDDEN_HANDLERS = new ClassValue<>() {
+        @Override
+        protected boolean[] computeValue(final Class<?> type) {
+            return new boolean[]{overrides(type, "handleC2P"), overrides(type, "handleP2S")};
+        }
+    };
+
     protected final ProxyConnection proxyConnection;
 
     public PacketHandler(final ProxyConnection proxyConnection) {
         this.proxyConnection = proxyConnection;
     }
 
+    /**
+     * Declares which Client->Proxy packets this handler wants to receive in the given connection state.<br>
+     * By default all packets are received if {@link #handleC2P(Packet, List)} is overridden and none otherwise. Handlers which leave the subscription empty are skipped entirely in that state.
+     */
+    public void subscribeC2P(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (OVERRIDDEN_HANDLERS.get(this.getClass())[0]) {
+            subscription.all();
+        }
+    }
+
+    /**
+     * Declares which Server->Proxy packets this handler wants to receive in the given connection state.<br>
+     * By default all packets are received if {@link #handleP2S(Packet, List)} is overridden and none otherwise. Handlers which leave the subscription empty are skipped entirely in that state.
+     */
+    public void subscribeP2S(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (OVERRIDDEN_HANDLERS.get(this.getClass())[1]) {
+            subscription.all();
+        }
+    }
+
+    /**
+     * Handles a packet before it gets forwarded. Returning false cancels the packet.<br>
+     * Listeners added to the given list are attached to the write future of the forwarded packet. Packets without listeners can be written using the void promise, so only add listeners when needed.<br>
+     * The list is reused for every packet and must not be kept after this method returns.
+     */
     public boolean handleC2P(final Packet packet, final List<ChannelFutureListener> listeners) throws Exception {
         return true;
     }
 
+    /**
+     * @see #handleC2P(Packet, List)
+     */
     public boolean handleP2S(final Packet packet, final List<ChannelFutureListener> listeners) throws Exception {
         return true;
     }
 
+    private static boolean overrides(final Class<?> type, final String methodName) {
+        try {
+            return type.getMethod(methodName, Packet.class, List.class).getDeclaringClass() != PacketHandler.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
 }
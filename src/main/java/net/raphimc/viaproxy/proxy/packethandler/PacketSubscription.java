@@ -0,0 +1,96 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.packethandler;
+
+import com.viaversion.viaversion.libs.fastutil.ints.IntOpenHashSet;
+import com.viaversion.viaversion.libs.fastutil.ints.IntSet;
+import net.raphimc.netminecraft.packet.Packet;
+import net.raphimc.netminecraft.packet.UnknownPacket;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PacketSubscription {
+
+    private boolean allPackets;
+    private final List<Class<? extends Packet>> packetTypes = new ArrayList<>();
+    private final IntSet unknownPacketIds = new IntOpenHashSet();
+
+    /**
+     * Subscribes to every packet. This is the default for packet handlers which don't declare their packets.
+     */
+    public PacketSubscription all() {
+        this.allPackets = true;
+        return this;
+    }
+
+    /**
+     * Subscribes to all packets which are instances of the given packet type (Including subclasses).
+     */
+    @SafeVarargs
+    public final PacketSubscription packets(final Class<? extends Packet>... packetTypes) {
+        for (Class<? extends Packet> packetType : packetTypes) {
+            if (!this.packetTypes.contains(packetType)) {
+                this.packetTypes.add(packetType);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Subscribes to {@link UnknownPacket}s with the given packet id.
+     */
+    public PacketSubscription unknownPackets(final int... packetIds) {
+        for (int packetId : packetIds) {
+            if (packetId != -1) {
+                this.unknownPacketIds.add(packetId);
+            }
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return !this.allPackets && this.packetTypes.isEmpty() && this.unknownPacketIds.isEmpty();
+    }
+
+    /**
+     * @return true if the subscription only consists of {@link UnknownPacket}s with specific packet ids
+     */
+    public boolean isUnknownPacketIdsOnly() {
+        return !this.allPackets && this.packetTypes.isEmpty();
+    }
+
+    public IntSet getUnknownPacketIds() {
+        return this.unknownPacketIds;
+    }
+
+    public boolean matches(final Class<? extends Packet> packetType) {
+        if (this.allPackets) return true;
+        for (Class<? extends Packet> subscribedType : this.packetTypes) {
+            if (subscribedType.isAssignableFrom(packetType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean matchesUnknown(final int packetId) {
+        return this.matches(UnknownPacket.class) || this.unknownPacketIds.contains(packetId);
+    }
+
+}
@@ -48,6 +48,13 @@ public class ResourcePackPacketHandler extends PacketHandler {
         this.joinGameId = MCPackets.S2C_LOGIN.getId(this.proxyConnection.getClientVersion().getVersion());
     }
 
+    @Override
+    public void subscribeP2S(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.PLAY) {
+            subscription.unknownPackets(this.joinGameId);
+        }
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) {
         if (packet instanceof UnknownPacket unknownPacket && this.proxyConnection.getP2sConnectionState() == ConnectionState.PLAY) {
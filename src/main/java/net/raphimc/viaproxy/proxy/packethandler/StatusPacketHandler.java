@@ -20,11 +20,13 @@ package net.raphimc.viaproxy.proxy.packethandler;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import io.netty.channel.ChannelFutureListener;
+import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.impl.status.S2CStatusPongResponsePacket;
 import net.raphimc.netminecraft.packet.impl.status.S2CStatusResponsePacket;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.StatusCache;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import java.io.File;
@@ -36,8 +38,25 @@ public class StatusPacketHandler extends PacketHandler {
 
     private static String FAVICON_BASE_64;
 
+    private final StatusCache.Refresh statusCacheRefresh;
+
     public StatusPacketHandler(ProxyConnection proxyConnection) {
+        this(proxyConnection, null);
+    }
+
+    /**
+     * @param statusCacheRefresh The status cache refresh which gets completed with the response sent to the client (can be null)
+     */
+    public StatusPacketHandler(ProxyConnection proxyConnection, StatusCache.Refresh statusCacheRefresh) {
         super(proxyConnection);
+        this.statusCacheRefresh = statusCacheRefresh;
+    }
+
+    @Override
+    public void subscribeP2S(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.STATUS) {
+            subscription.packets(S2CStatusResponsePacket.class, S2CStatusPongResponsePacket.class);
+        }
     }
 
     @Override
@@ -68,6 +87,13 @@ public class StatusPacketHandler extends PacketHandler {
             } catch (Throwable ignored) {
             }
         }
+        if (packet instanceof S2CStatusResponsePacket statusResponsePacket && this.statusCacheRefresh != null) {
+            this.statusCacheRefresh.complete(statusResponsePacket.statusJson);
+            if (this.proxyConnection.isDetached()) { // Background refresh, the client was already answered from the status cache
+                this.proxyConnection.getChannel().close();
+                return false;
+            }
+        }
 
         return true;
     }
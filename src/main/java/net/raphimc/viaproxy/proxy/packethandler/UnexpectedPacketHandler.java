@@ -30,6 +30,13 @@ public class UnexpectedPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void subscribeC2P(final ConnectionState connectionState, final PacketSubscription subscription) {
+        if (connectionState == ConnectionState.HANDSHAKING) {
+            subscription.all();
+        }
+    }
+
     @Override
     public boolean handleC2P(Packet packet, List<ChannelFutureListener> listeners) {
         final ConnectionState connectionState = this.proxyConnection.getC2pConnectionState();
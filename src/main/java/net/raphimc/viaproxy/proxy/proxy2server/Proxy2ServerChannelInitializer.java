@@ -38,10 +38,14 @@ import net.raphimc.viabedrock.protocol.RakNetStatusProtocol;
 import net.raphimc.vialegacy.api.LegacyProtocolVersion;
 import net.raphimc.vialegacy.netty.PreNettyLengthCodec;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.metrics.ProxyMetrics;
+import net.raphimc.viaproxy.metrics.TrafficCounterHandler;
 import net.raphimc.viaproxy.plugins.events.Proxy2ServerChannelInitializeEvent;
 import net.raphimc.viaproxy.plugins.events.types.ITyped;
 import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyViaCodec;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.ChannelUtil;
+import net.raphimc.viaproxy.proxy.util.PacketCorpusRecorder;
 import net.raphimc.viaproxy.util.NetherNetInetSocketAddress;
 
 import java.net.InetSocketAddress;
@@ -63,6 +67,9 @@ public class Proxy2ServerChannelInitializer extends MinecraftChannelInitializer
             return;
         }
 
+        ChannelUtil.setWriteBufferWaterMark(channel);
+        channel.pipeline().addLast(TrafficCounterHandler.NAME, ProxyMetrics.SERVER_TRAFFIC_COUNTER);
+
         final ProxyConnection proxyConnection = ProxyConnection.fromChannel(channel);
 
         if (ViaProxy.getConfig().getBackendProxy() != null && !proxyConnection.getServerVersion().equals(BedrockProtocolVersion.bedrockLatest)) {
@@ -102,6 +109,9 @@ public class Proxy2ServerChannelInitializer extends MinecraftChannelInitializer
                 }
             }
         }
+        if (PacketCorpusRecorder.isEnabled()) {
+            channel.pipeline().addBefore(ViaProxyViaCodec.NAME, PacketCorpusRecorder.NAME, new PacketCorpusRecorder(proxyConnection));
+        }
 
         if (ViaProxy.EVENT_MANAGER.call(new Proxy2ServerChannelInitializeEvent(ITyped.Type.POST, channel, false)).isCancelled()) {
             channel.close();
@@ -17,23 +17,31 @@
  */
 package net.raphimc.viaproxy.proxy.proxy2server;
 
-import com.google.common.collect.Lists;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.SimpleChannelInboundHandler;
 import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.metrics.ProxyMetrics;
 import net.raphimc.viaproxy.proxy.packethandler.PacketHandler;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 import net.raphimc.viaproxy.proxy.util.ExceptionUtil;
+import net.raphimc.viaproxy.proxy.util.FlushConsolidator;
 import net.raphimc.viaproxy.util.logging.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class Proxy2ServerHandler extends SimpleChannelInboundHandler<Packet> {
 
+    private final List<ChannelFutureListener> listeners = new ArrayList<>();
     private ProxyConnection proxyConnection;
+    private final FlushConsolidator flushConsolidator = new FlushConsolidator();
+    private boolean handlingPacket;
 
     @Override
     public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
@@ -47,7 +55,7 @@ public class Proxy2ServerHandler extends SimpleChannelInboundHandler<Packet> {
         super.channelInactive(ctx);
 
         if (ViaProxy.getConfig().shouldLogClientStatusRequests() || this.proxyConnection.getP2sConnectionState() != ConnectionState.STATUS) {
-            Logger.u_info("disconnect", this.proxyConnection, "Connection closed");
+            Logger.u_info("disconnect", this.proxyConnection, "Connection closed" + (this.proxyConnection.getBackpressureEvents() > 0 ? " (Reads paused " + this.proxyConnection.getBackpressureEvents() + " times due to backpressure)" : ""));
         }
         try {
             this.proxyConnection.getC2P().close();
@@ -58,14 +66,50 @@ public class Proxy2ServerHandler extends SimpleChannelInboundHandler<Packet> {
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Packet packet) throws Exception {
         if (this.proxyConnection.isClosed()) return;
+        ProxyMetrics.recordPacket(false);
 
-        final List<ChannelFutureListener> listeners = Lists.newArrayList(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
-        for (PacketHandler packetHandler : this.proxyConnection.getPacketHandlers()) {
+        if (this.handlingPacket) { // Re-entrant read (A listener completed synchronously and restored auto read)
+            this.handlePacket(ctx, packet, new ArrayList<>());
+        } else {
+            this.handlingPacket = true;
+            try {
+                this.handlePacket(ctx, packet, this.listeners);
+            } finally {
+                this.handlingPacket = false;
+                this.listeners.clear();
+            }
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        this.flushConsolidator.flush();
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (this.proxyConnection != null && ChannelUtil.updateBackpressure(this.proxyConnection.getC2P(), ctx.channel())) {
+            this.proxyConnection.incrementBackpressureEvents();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
+    private void handlePacket(final ChannelHandlerContext ctx, final Packet packet, final List<ChannelFutureListener> listeners) throws Exception {
+        for (PacketHandler packetHandler : this.proxyConnection.getP2SPacketHandlers(packet)) {
             if (!packetHandler.handleP2S(packet, listeners)) {
                 return;
             }
         }
-        this.proxyConnection.getC2P().writeAndFlush(packet).addListeners(listeners.toArray(new ChannelFutureListener[0]));
+
+        final Channel target = this.proxyConnection.getC2P();
+        if (listeners.isEmpty()) {
+            this.flushConsolidator.write(ctx, target, packet, ChannelUtil.newForwardingPromise(target));
+        } else {
+            final ChannelPromise promise = target.newPromise();
+            promise.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE).addListeners(listeners.toArray(new ChannelFutureListener[0]));
+            this.flushConsolidator.write(ctx, target, packet, promise);
+        }
     }
 
     @Override
@@ -22,9 +22,12 @@ import io.netty.channel.ChannelHandler;
 import io.netty.handler.codec.haproxy.HAProxyMessageEncoder;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.metrics.ProxyMetrics;
+import net.raphimc.viaproxy.metrics.TrafficCounterHandler;
 import net.raphimc.viaproxy.plugins.events.Proxy2ServerChannelInitializeEvent;
 import net.raphimc.viaproxy.plugins.events.types.ITyped;
 import net.raphimc.viaproxy.proxy.proxy2server.Proxy2ServerChannelInitializer;
+import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 
 import java.util.function.Supplier;
 
@@ -41,6 +44,9 @@ public class PassthroughProxy2ServerChannelInitializer extends Proxy2ServerChann
             return;
         }
 
+        ChannelUtil.setWriteBufferWaterMark(channel);
+        channel.pipeline().addLast(TrafficCounterHandler.NAME, ProxyMetrics.SERVER_TRAFFIC_COUNTER);
+
         if (ViaProxy.getConfig().getBackendProxy() != null) {
             channel.pipeline().addLast(VIAPROXY_PROXY_HANDLER_NAME, ViaProxy.getConfig().getBackendProxy().createNettyProxyHandler());
         }
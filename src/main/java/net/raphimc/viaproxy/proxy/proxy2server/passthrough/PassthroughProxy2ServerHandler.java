@@ -18,14 +18,16 @@
 package net.raphimc.viaproxy.proxy.proxy2server.passthrough;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import net.raphimc.viaproxy.proxy.session.LegacyProxyConnection;
+import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 import net.raphimc.viaproxy.proxy.util.ExceptionUtil;
+import net.raphimc.viaproxy.proxy.util.FlushConsolidator;
 
 public class PassthroughProxy2ServerHandler extends SimpleChannelInboundHandler<ByteBuf> {
 
+    private final FlushConsolidator flushConsolidator = new FlushConsolidator();
     private LegacyProxyConnection proxyConnection;
 
     @Override
@@ -47,7 +49,21 @@ public class PassthroughProxy2ServerHandler extends SimpleChannelInboundHandler<
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
-        this.proxyConnection.getC2P().writeAndFlush(msg.retain()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        this.flushConsolidator.write(ctx, this.proxyConnection.getC2P(), msg.retain(), ChannelUtil.newForwardingPromise(this.proxyConnection.getC2P()));
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        this.flushConsolidator.flush();
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (this.proxyConnection != null && ChannelUtil.updateBackpressure(this.proxyConnection.getC2P(), ctx.channel())) {
+            this.proxyConnection.incrementBackpressureEvents();
+        }
+        super.channelWritabilityChanged(ctx);
     }
 
     @Override
@@ -0,0 +1,109 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.routing;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.channel.Channel;
+
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Backend {
+
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+    private static final long PASSIVE_DOWN_TIME = TimeUnit.SECONDS.toMillis(10);
+
+    private final String addressString;
+    private final SocketAddress address;
+    private final ProtocolVersion version;
+    private final int weight;
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final LongAdder totalSessions = new LongAdder();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long passiveDownUntil;
+    private volatile boolean activeHealthy = true;
+
+    public Backend(final String addressString, final SocketAddress address, final ProtocolVersion version, final int weight) {
+        this.addressString = addressString;
+        this.address = address;
+        this.version = version;
+        this.weight = weight;
+    }
+
+    /**
+     * Counts the session towards this backend until the given client channel is closed.
+     */
+    public void sessionOpened(final Channel c2p) {
+        this.activeSessions.incrementAndGet();
+        this.totalSessions.increment();
+        c2p.closeFuture().addListener(f -> this.activeSessions.decrementAndGet());
+    }
+
+    /**
+     * Passive health tracking: The backend is skipped for a while after it failed to accept multiple connections in a row.
+     */
+    public void recordConnectFailure() {
+        if (this.consecutiveFailures.incrementAndGet() >= MAX_CONSECUTIVE_FAILURES) {
+            this.passiveDownUntil = System.currentTimeMillis() + PASSIVE_DOWN_TIME;
+        }
+    }
+
+    public void recordConnectSuccess() {
+        this.consecutiveFailures.set(0);
+    }
+
+    void setActiveHealthy(final boolean activeHealthy) {
+        this.activeHealthy = activeHealthy;
+        if (activeHealthy) {
+            this.consecutiveFailures.set(0);
+            this.passiveDownUntil = 0;
+        }
+    }
+
+    public boolean isHealthy() {
+        return this.activeHealthy && System.currentTimeMillis() >= this.passiveDownUntil;
+    }
+
+    public String getAddressString() {
+        return this.addressString;
+    }
+
+    public SocketAddress getAddress() {
+        return this.address;
+    }
+
+    public ProtocolVersion getVersion() {
+        return this.version;
+    }
+
+    public int getWeight() {
+        return this.weight;
+    }
+
+    public int getActiveSessions() {
+        return this.activeSessions.get();
+    }
+
+    public long getTotalSessions() {
+        return this.totalSessions.sum();
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.routing;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.raphimc.viabedrock.api.BedrockProtocolVersion;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.util.AddressUtil;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks whether the backends of the routing table accept TCP connections and skips them while they don't.<br>
+ * Bedrock (UDP) and unix socket backends are only tracked passively by their connect failures.
+ */
+public class BackendHealthChecker {
+
+    private static final int TIMEOUT = 3000;
+    private static ScheduledExecutorService executor;
+
+    public static synchronized void start(final int intervalSeconds) {
+        if (executor != null) {
+            throw new IllegalStateException("Backend health checker is already running");
+        }
+        if (intervalSeconds <= 0) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("ViaProxy Backend Health Checker", true));
+        executor.scheduleWithFixedDelay(BackendHealthChecker::checkAll, 0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static void checkAll() {
+        try {
+            for (BackendPool pool : ViaProxy.getConfig().getRoutingTable().getRoutes().values()) {
+                for (Backend backend : pool.getBackends()) {
+                    if (backend.getAddress() instanceof InetSocketAddress inetSocketAddress && !backend.getVersion().equals(BedrockProtocolVersion.bedrockLatest)) {
+                        check(backend, inetSocketAddress);
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            Logger.LOGGER.error("Error while checking the health of the backend servers", e);
+        }
+    }
+
+    private static void check(final Backend backend, final InetSocketAddress address) {
+        boolean healthy;
+        try (Socket socket = new Socket()) {
+            socket.connect(address, TIMEOUT);
+            healthy = true;
+        } catch (Throwable e) {
+            healthy = false;
+        }
+        if (healthy != backend.isHealthy()) {
+            Logger.LOGGER.info("Backend server " + AddressUtil.toString(address) + " is " + (healthy ? "up" : "down"));
+        }
+        backend.setActiveHealthy(healthy);
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.routing;
+
+import java.util.List;
+import java.util.Locale;
+
+public class BackendPool {
+
+    private final BalancingStrategy balancingStrategy;
+    private final List<Backend> backends;
+    private final int[] currentWeights;
+    private int nextIndex;
+
+    public BackendPool(final BalancingStrategy balancingStrategy, final List<Backend> backends) {
+        if (backends.isEmpty()) {
+            throw new IllegalArgumentException("Backend pool must contain at least one backend");
+        }
+        this.balancingStrategy = balancingStrategy;
+        this.backends = List.copyOf(backends);
+        this.currentWeights = new int[backends.size()];
+    }
+
+    /**
+     * Selects the backend for a new connection. Unhealthy backends are skipped.
+     *
+     * @return The selected backend or null if no backend is healthy
+     */
+    public synchronized Backend select() {
+        return switch (this.balancingStrategy) {
+            case LEAST_CONNECTIONS -> this.selectLeastConnections();
+            case WEIGHTED_ROUND_ROBIN -> this.selectWeightedRoundRobin();
+        };
+    }
+
+    private Backend selectLeastConnections() {
+        Backend best = null;
+        final int start = this.nextIndex++ % this.backends.size(); // Rotate the start to spread ties
+        for (int i = 0; i < this.backends.size(); i++) {
+            final Backend backend = this.backends.get((start + i) % this.backends.size());
+            if (!backend.isHealthy()) continue;
+            if (best == null || (long) backend.getActiveSessions() * best.getWeight() < (long) best.getActiveSessions() * backend.getWeight()) {
+                best = backend;
+            }
+        }
+        return best;
+    }
+
+    private Backend selectWeightedRoundRobin() { // Smooth weighted round robin
+        int bestIndex = -1;
+        int totalWeight = 0;
+        for (int i = 0; i < this.backends.size(); i++) {
+            final Backend backend = this.backends.get(i);
+            if (!backend.isHealthy()) continue;
+            this.currentWeights[i] += backend.getWeight();
+            totalWeight += backend.getWeight();
+            if (bestIndex == -1 || this.currentWeights[i] > this.currentWeights[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+        if (bestIndex == -1) {
+            return null;
+        }
+        this.currentWeights[bestIndex] -= totalWeight;
+        return this.backends.get(bestIndex);
+    }
+
+    public BalancingStrategy getBalancingStrategy() {
+        return this.balancingStrategy;
+    }
+
+    public List<Backend> getBackends() {
+        return this.backends;
+    }
+
+    public enum BalancingStrategy {
+
+        LEAST_CONNECTIONS,
+        WEIGHTED_ROUND_ROBIN;
+
+        public String getName() {
+            return this.name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        public static BalancingStrategy byName(final String name) {
+            for (BalancingStrategy strategy : values()) {
+                if (strategy.getName().equalsIgnoreCase(name)) {
+                    return strategy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown balancing strategy: " + name);
+        }
+
+    }
+
+}
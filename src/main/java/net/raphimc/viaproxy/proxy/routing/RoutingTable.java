@@ -0,0 +1,86 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.routing;
+
+import java.util.*;
+
+/**
+ * Maps the hostname sent by the client in the handshake to a pool of backend servers.<br>
+ * Routes can be exact hostnames ({@code play.example.com}), wildcard suffixes ({@code *.example.com}, the longest matching suffix wins) or the default route ({@code *}).
+ */
+public class RoutingTable {
+
+    public static final String DEFAULT_ROUTE = "*";
+
+    private final Map<String, BackendPool> routes;
+    private final Map<String, BackendPool> exactRoutes = new HashMap<>();
+    private final List<Map.Entry<String, BackendPool>> suffixRoutes = new ArrayList<>();
+    private final BackendPool defaultRoute;
+
+    public RoutingTable(final Map<String, BackendPool> routes) {
+        this.routes = Collections.unmodifiableMap(new LinkedHashMap<>(routes));
+        for (Map.Entry<String, BackendPool> entry : routes.entrySet()) {
+            final String route = entry.getKey().toLowerCase(Locale.ROOT);
+            if (route.startsWith("*.")) {
+                this.suffixRoutes.add(Map.entry(route.substring(1), entry.getValue()));
+            } else if (!route.equals(DEFAULT_ROUTE)) {
+                this.exactRoutes.put(route, entry.getValue());
+            }
+        }
+        this.suffixRoutes.sort(Comparator.comparingInt((Map.Entry<String, BackendPool> e) -> e.getKey().length()).reversed());
+        this.defaultRoute = routes.get(DEFAULT_ROUTE);
+    }
+
+    /**
+     * @param hostname The hostname from the handshake packet
+     * @return The backend pool for the hostname or null if no route matches
+     */
+    public BackendPool getPool(String hostname) {
+        if (this.routes.isEmpty()) {
+            return null;
+        }
+
+        if (hostname.indexOf('\0') != -1) { // Forge and BungeeCord append their data to the hostname
+            hostname = hostname.substring(0, hostname.indexOf('\0'));
+        }
+        if (hostname.endsWith(".")) {
+            hostname = hostname.substring(0, hostname.length() - 1);
+        }
+        hostname = hostname.toLowerCase(Locale.ROOT);
+
+        final BackendPool exactRoute = this.exactRoutes.get(hostname);
+        if (exactRoute != null) {
+            return exactRoute;
+        }
+        for (Map.Entry<String, BackendPool> suffixRoute : this.suffixRoutes) {
+            if (hostname.endsWith(suffixRoute.getKey())) {
+                return suffixRoute.getValue();
+            }
+        }
+        return this.defaultRoute;
+    }
+
+    public boolean isEmpty() {
+        return this.routes.isEmpty();
+    }
+
+    public Map<String, BackendPool> getRoutes() {
+        return this.routes;
+    }
+
+}
@@ -26,8 +26,11 @@ import io.netty.util.AttributeKey;
 import net.raphimc.netminecraft.netty.connection.NetClient;
 import net.raphimc.netminecraft.util.TransportType;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.proxy.util.AffinityBootstrap;
+import net.raphimc.viaproxy.proxy.util.EventLoopGroups;
 
 import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class LegacyProxyConnection extends NetClient {
 
@@ -35,6 +38,8 @@ public class LegacyProxyConnection extends NetClient {
 
     private final Channel c2p;
     private SocketAddress serverAddress;
+    private boolean sessionAffinity;
+    private final AtomicInteger backpressureEvents = new AtomicInteger();
 
     public LegacyProxyConnection(final ChannelInitializer<Channel> channelInitializer, final Channel c2p) {
         super(channelInitializer);
@@ -47,6 +52,15 @@ public class LegacyProxyConnection extends NetClient {
 
     @Override
     public void initialize(final TransportType transportType, final Bootstrap bootstrap) {
+        final Bootstrap serverBootstrap = EventLoopGroups.serverBootstrap(transportType, bootstrap);
+        if (this.sessionAffinity) {
+            this.initialize0(transportType, new AffinityBootstrap(this.c2p));
+        } else {
+            this.initialize0(transportType, serverBootstrap);
+        }
+    }
+
+    private void initialize0(final TransportType transportType, final Bootstrap bootstrap) {
         bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ViaProxy.getConfig().getConnectTimeout());
         bootstrap.attr(LEGACY_PROXY_CONNECTION_ATTRIBUTE_KEY, this);
         super.initialize(transportType, bootstrap);
@@ -55,6 +69,12 @@ public class LegacyProxyConnection extends NetClient {
     @Override
     public ChannelFuture connect(final SocketAddress serverAddress) {
         this.serverAddress = serverAddress;
+        if (ViaProxy.getConfig().shouldUseSessionAffinity()) {
+            return AffinityBootstrap.connect(this.c2p, sessionAffinity -> {
+                this.sessionAffinity = sessionAffinity;
+                return super.connect(serverAddress);
+            });
+        }
         return super.connect(serverAddress);
     }
 
@@ -66,4 +86,12 @@ public class LegacyProxyConnection extends NetClient {
         return this.serverAddress;
     }
 
+    public int getBackpressureEvents() {
+        return this.backpressureEvents.get();
+    }
+
+    public void incrementBackpressureEvents() {
+        this.backpressureEvents.incrementAndGet();
+    }
+
 }
@@ -30,6 +30,7 @@ import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.netminecraft.netty.connection.NetClient;
 import net.raphimc.netminecraft.netty.crypto.AESEncryption;
+import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.impl.configuration.S2CConfigDisconnectPacket;
 import net.raphimc.netminecraft.packet.impl.login.C2SLoginHelloPacket;
 import net.raphimc.netminecraft.packet.impl.login.S2CLoginDisconnectPacket;
@@ -39,8 +40,12 @@ import net.raphimc.netminecraft.packet.registry.DefaultPacketRegistry;
 import net.raphimc.netminecraft.util.TransportType;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.cli.ConsoleFormatter;
+import net.raphimc.viaproxy.metrics.ProxyMetrics;
+import net.raphimc.viaproxy.proxy.packethandler.PacketDispatchTable;
 import net.raphimc.viaproxy.proxy.packethandler.PacketHandler;
+import net.raphimc.viaproxy.proxy.util.AffinityBootstrap;
 import net.raphimc.viaproxy.proxy.util.CloseAndReturn;
+import net.raphimc.viaproxy.proxy.util.EventLoopGroups;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import java.net.SocketAddress;
@@ -48,15 +53,19 @@ import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ProxyConnection extends NetClient {
 
     public static final AttributeKey<ProxyConnection> PROXY_CONNECTION_ATTRIBUTE_KEY = AttributeKey.valueOf("proxy_connection");
 
     private final Channel c2p;
-    private final List<PacketHandler> packetHandlers = new ArrayList<>();
+    private final PacketHandlerList packetHandlers = new PacketHandlerList();
+    private PacketDispatchTable c2pDispatchTable;
+    private PacketDispatchTable p2sDispatchTable;
 
     private SocketAddress serverAddress;
+    private boolean sessionAffinity;
 
     private ProtocolVersion serverVersion;
     private ProtocolVersion clientVersion;
@@ -70,7 +79,10 @@ public class ProxyConnection extends NetClient {
     private UserOptions userOptions;
 
     private ConnectionState c2pConnectionState = ConnectionState.HANDSHAKING;
+    private long c2pConnectionStateSince = System.nanoTime();
     private ConnectionState p2sConnectionState = ConnectionState.HANDSHAKING;
+    private final AtomicInteger backpressureEvents = new AtomicInteger();
+    private volatile boolean detached;
 
     public ProxyConnection(final ChannelInitializer<Channel> channelInitializer, final Channel c2p) {
         super(channelInitializer);
@@ -93,6 +105,15 @@ public class ProxyConnection extends NetClient {
 
     @Override
     public void initialize(final TransportType transportType, final Bootstrap bootstrap) {
+        final Bootstrap serverBootstrap = EventLoopGroups.serverBootstrap(transportType, bootstrap);
+        if (this.sessionAffinity) {
+            this.initialize0(transportType, new AffinityBootstrap(this.c2p));
+        } else {
+            this.initialize0(transportType, serverBootstrap);
+        }
+    }
+
+    private void initialize0(final TransportType transportType, final Bootstrap bootstrap) {
         bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ViaProxy.getConfig().getConnectTimeout());
         bootstrap.attr(PROXY_CONNECTION_ATTRIBUTE_KEY, this);
         super.initialize(transportType, bootstrap);
@@ -101,6 +122,12 @@ public class ProxyConnection extends NetClient {
     public ChannelFuture connectToServer(final SocketAddress serverAddress, final ProtocolVersion targetVersion) {
         this.serverAddress = serverAddress;
         this.serverVersion = targetVersion;
+        if (ViaProxy.getConfig().shouldUseSessionAffinity()) {
+            return AffinityBootstrap.connect(this.c2p, sessionAffinity -> {
+                this.sessionAffinity = sessionAffinity;
+                return super.connect(serverAddress);
+            });
+        }
         return super.connect(serverAddress);
     }
 
@@ -112,6 +139,22 @@ public class ProxyConnection extends NetClient {
         return this.packetHandlers;
     }
 
+    public PacketHandler[] getC2PPacketHandlers(final Packet packet) {
+        PacketDispatchTable dispatchTable = this.c2pDispatchTable;
+        if (dispatchTable == null || !dispatchTable.isValid(this.c2pConnectionState, this.packetHandlers.getModCount())) {
+            this.c2pDispatchTable = dispatchTable = new PacketDispatchTable(this.packetHandlers, this.c2pConnectionState, true, this.packetHandlers.getModCount());
+        }
+        return dispatchTable.getHandlers(packet);
+    }
+
+    public PacketHandler[] getP2SPacketHandlers(final Packet packet) {
+        PacketDispatchTable dispatchTable = this.p2sDispatchTable;
+        if (dispatchTable == null || !dispatchTable.isValid(this.p2sConnectionState, this.packetHandlers.getModCount())) {
+            this.p2sDispatchTable = dispatchTable = new PacketDispatchTable(this.packetHandlers, this.p2sConnectionState, false, this.packetHandlers.getModCount());
+        }
+        return dispatchTable.getHandlers(packet);
+    }
+
     public <T> T getPacketHandler(final Class<T> packetHandlerType) {
         for (PacketHandler packetHandler : this.packetHandlers) {
             if (packetHandlerType.isInstance(packetHandler)) {
@@ -195,6 +238,11 @@ public class ProxyConnection extends NetClient {
     }
 
     public void setC2pConnectionState(final ConnectionState connectionState) {
+        if (connectionState != this.c2pConnectionState) {
+            final long now = System.nanoTime();
+            ProxyMetrics.recordStateDuration(this.c2pConnectionState, now - this.c2pConnectionStateSince);
+            this.c2pConnectionStateSince = now;
+        }
         this.c2pConnectionState = connectionState;
         this.c2p.attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).get().setConnectionState(connectionState);
     }
@@ -208,6 +256,7 @@ public class ProxyConnection extends NetClient {
 
     public void kickClient(final String message) throws CloseAndReturn {
         Logger.u_err("proxy kick", this, ConsoleFormatter.convert(message));
+        ProxyMetrics.recordKick(message);
 
         final ChannelFuture future;
         if (this.c2pConnectionState == ConnectionState.STATUS) {
@@ -226,8 +275,42 @@ public class ProxyConnection extends NetClient {
         throw CloseAndReturn.INSTANCE;
     }
 
+    public int getBackpressureEvents() {
+        return this.backpressureEvents.get();
+    }
+
+    public void incrementBackpressureEvents() {
+        this.backpressureEvents.incrementAndGet();
+    }
+
+    /**
+     * Detaches the connection from the client. The server connection stays open and packets from the server are still handled after the client disconnected.<br>
+     * Used to refresh the status cache in the background. The packet handlers are responsible for closing the server connection.
+     */
+    public void detach() {
+        this.detached = true;
+    }
+
+    public boolean isDetached() {
+        return this.detached;
+    }
+
     public boolean isClosed() {
-        return !this.c2p.isOpen() || (this.getChannel() != null && !this.getChannel().isOpen());
+        return (!this.detached && !this.c2p.isOpen()) || (this.getChannel() != null && !this.getChannel().isOpen());
+    }
+
+    private static class PacketHandlerList extends ArrayList<PacketHandler> {
+
+        @Override
+        public PacketHandler set(final int index, final PacketHandler element) {
+            this.modCount++;
+            return super.set(index, element);
+        }
+
+        private int getModCount() {
+            return this.modCount;
+        }
+
     }
 
 }
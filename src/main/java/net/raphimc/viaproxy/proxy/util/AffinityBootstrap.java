@@ -0,0 +1,105 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.channel.uring.IoUringSocketChannel;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A bootstrap which registers its channel on the event loop of the given client channel, regardless of the event loop group it is configured with.<br>
+ * This keeps both channels of a session on the same thread, so writes from one channel to the other don't have to be queued as tasks.<br>
+ * The fallback is decided per connection: only connections whose channel failed to register use the regular server event loops.
+ */
+public class AffinityBootstrap extends Bootstrap {
+
+    private static final AtomicBoolean LOGGED_FALLBACK = new AtomicBoolean();
+
+    private final Channel c2p;
+
+    public AffinityBootstrap(final Channel c2p) {
+        this.c2p = c2p;
+    }
+
+    /**
+     * Connects a backend connection on the event loop of the client channel.<br>
+     * If the channel can't be registered on that event loop (e.g. because the transport types differ), this connection falls back to the regular server event loops.
+     *
+     * @param c2p       The client channel
+     * @param connector The function which connects the backend connection, using an {@link AffinityBootstrap} if true is passed
+     * @return The connect future of the backend connection
+     */
+    public static ChannelFuture connect(final Channel c2p, final Function<Boolean, ChannelFuture> connector) {
+        final ChannelFuture future;
+        try {
+            future = connector.apply(true);
+        } catch (Throwable e) {
+            return fallback(connector, e);
+        }
+        if (future.channel().isRegistered()) {
+            return future;
+        } else if (future.isDone()) {
+            return fallback(connector, future.cause());
+        }
+
+        final ChannelPromise promise = c2p.newPromise(); // The registration is still pending, so the result is only known later
+        future.addListener((ChannelFutureListener) f -> {
+            if (f.isSuccess() || f.channel().isRegistered()) {
+                relay(f, promise);
+            } else {
+                relay(fallback(connector, f.cause()), promise);
+            }
+        });
+        return promise;
+    }
+
+    @Override
+    public Bootstrap group(final EventLoopGroup group) {
+        return super.group(this.c2p.eventLoop());
+    }
+
+    @Override
+    public Bootstrap channelFactory(final ChannelFactory<? extends Channel> channelFactory) {
+        if (this.c2p instanceof IoUringSocketChannel) { // netminecraft doesn't know about io_uring, so it would pick a channel class which can't be registered on the event loop
+            return super.channelFactory(new ReflectiveChannelFactory<Channel>(IoUringSocketChannel.class));
+        }
+        return super.channelFactory(channelFactory);
+    }
+
+    private static ChannelFuture fallback(final Function<Boolean, ChannelFuture> connector, final Throwable cause) {
+        if (LOGGED_FALLBACK.compareAndSet(false, true)) {
+            Logger.LOGGER.warn("Failed to register a server connection on the event loop of its client connection. Affected connections use the regular server threads.", cause);
+        }
+        return connector.apply(false);
+    }
+
+    private static void relay(final ChannelFuture future, final ChannelPromise promise) {
+        future.addListener((ChannelFutureListener) f -> {
+            if (f.isSuccess()) {
+                promise.trySuccess();
+            } else {
+                promise.tryFailure(f.cause());
+            }
+        });
+    }
+
+}
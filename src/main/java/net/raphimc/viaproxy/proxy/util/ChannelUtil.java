@@ -17,32 +17,127 @@
  */
 package net.raphimc.viaproxy.proxy.util;
 
-import io.netty.channel.Channel;
+import io.netty.channel.*;
 import io.netty.util.AttributeKey;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.plugins.PluginManager;
 
 import java.util.Stack;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ChannelUtil {
 
-    private static final AttributeKey<Stack<Boolean>> LAST_AUTO_READ = AttributeKey.valueOf("last-auto-read");
+    private static final AttributeKey<AutoReadState> AUTO_READ_STATE = AttributeKey.valueOf("auto-read-state");
+    private static final LongAdder BACKPRESSURE_EVENTS = new LongAdder();
 
     public static void disableAutoRead(final Channel channel) {
-        if (channel.attr(LAST_AUTO_READ).get() == null) {
-            channel.attr(LAST_AUTO_READ).set(new Stack<>());
-        }
-
-        channel.attr(LAST_AUTO_READ).get().push(channel.config().isAutoRead());
-        channel.config().setAutoRead(false);
+        getAutoReadState(channel).disable();
     }
 
     public static void restoreAutoRead(final Channel channel) {
-        if (channel.attr(LAST_AUTO_READ).get() == null) {
+        final AutoReadState state = channel.attr(AUTO_READ_STATE).get();
+        if (state == null || state.lastAutoRead.isEmpty()) {
             throw new IllegalStateException("Tried to restore auto read, but it was never disabled");
         }
-        if (channel.config().isAutoRead()) {
-            throw new IllegalStateException("Race condition detected: Auto read has been enabled somewhere else");
+        state.restore();
+    }
+
+    public static void setWriteBufferWaterMark(final Channel channel) {
+        if (ViaProxy.getConfig().shouldUseBackpressure()) {
+            final int high = ViaProxy.getConfig().getWriteBufferHighWaterMark();
+            channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(Math.min(ViaProxy.getConfig().getWriteBufferLowWaterMark(), high), high));
+        }
+    }
+
+    /**
+     * Pauses reading from the source channel while the target channel is not writable and resumes it once the target channel is writable again.<br>
+     * This works independently of {@link #disableAutoRead(Channel)} and {@link #restoreAutoRead(Channel)}, auto read is only enabled if neither of them keeps it disabled.
+     *
+     * @param source The channel whose packets are forwarded to the target channel
+     * @param target The channel whose writability changed
+     * @return true if reading from the source channel has been paused by this call
+     */
+    public static boolean updateBackpressure(final Channel source, final Channel target) {
+        if (source == null || !ViaProxy.getConfig().shouldUseBackpressure()) {
+            return false;
+        }
+
+        if (getAutoReadState(source).setPaused(!target.isWritable())) {
+            BACKPRESSURE_EVENTS.increment();
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the promise used to forward a packet without listeners to the given channel.<br>
+     * The void promise can't be used if a handler in the pipeline adds listeners to the promise of a write without calling {@link ChannelPromise#unvoid()}.
+     * The handlers of ViaProxy, netty, NetMinecraft and Via don't do that, but plugins can add handlers to any pipeline at any time.
+     * So the void promise is only used if every loaded plugin opted in (see {@link net.raphimc.viaproxy.plugins.ViaProxyPlugin#isVoidPromiseSafe()}).
+     * Otherwise a real promise which fires exceptions down the pipeline is returned.
+     */
+    public static ChannelPromise newForwardingPromise(final Channel channel) {
+        final PluginManager pluginManager = ViaProxy.getPluginManager();
+        if (pluginManager == null || pluginManager.arePluginsVoidPromiseSafe()) {
+            return channel.voidPromise();
+        } else {
+            return channel.newPromise().addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        }
+    }
+
+    public static long getBackpressureEvents() {
+        return BACKPRESSURE_EVENTS.sum();
+    }
+
+    private static AutoReadState getAutoReadState(final Channel channel) {
+        final AutoReadState state = channel.attr(AUTO_READ_STATE).get();
+        if (state != null) {
+            return state;
+        }
+        final AutoReadState newState = new AutoReadState(channel);
+        final AutoReadState existingState = channel.attr(AUTO_READ_STATE).setIfAbsent(newState);
+        return existingState != null ? existingState : newState;
+    }
+
+    private static class AutoReadState {
+
+        private final Channel channel;
+        private final Stack<Boolean> lastAutoRead = new Stack<>();
+        private boolean autoRead;
+        private boolean paused;
+
+        private AutoReadState(final Channel channel) {
+            this.channel = channel;
+            this.autoRead = channel.config().isAutoRead();
+        }
+
+        private synchronized void disable() {
+            this.lastAutoRead.push(this.autoRead);
+            this.autoRead = false;
+            this.apply();
+        }
+
+        private synchronized void restore() {
+            if (this.channel.config().isAutoRead()) {
+                throw new IllegalStateException("Race condition detected: Auto read has been enabled somewhere else");
+            }
+            this.autoRead = this.lastAutoRead.pop();
+            this.apply();
+        }
+
+        private synchronized boolean setPaused(final boolean paused) {
+            if (this.paused == paused) return false;
+
+            this.paused = paused;
+            this.apply();
+            return paused;
+        }
+
+        private void apply() {
+            this.channel.config().setAutoRead(this.autoRead && !this.paused);
         }
-        channel.config().setAutoRead(channel.attr(LAST_AUTO_READ).get().pop());
+
     }
 
 }
@@ -0,0 +1,207 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.kqueue.KQueueIoHandler;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.raphimc.netminecraft.util.TransportType;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+/**
+ * Creates event loop groups with a configured number of threads and handles the io_uring transport.<br>
+ * The groups are created for a specific transport type, so they can be used with the channel classes netminecraft selects for that transport.<br>
+ * When io_uring is used, the channel classes are replaced as netminecraft doesn't know about that transport.
+ */
+public class EventLoopGroups {
+
+    private static EventLoopGroup serverGroup;
+    private static TransportType serverGroupTransportType;
+    private static EventLoopGroup ioUringServerGroup;
+    private static EventLoopGroup ioUringClientGroup;
+    private static Boolean ioUringAvailable;
+
+    /**
+     * @return If the io_uring transport is enabled in the config and supported by the kernel
+     */
+    public static boolean useIoUring() {
+        return ViaProxy.getConfig().shouldUseIoUring() && isIoUringAvailable();
+    }
+
+    /**
+     * @return If SO_REUSEPORT can be used for the listeners
+     */
+    public static boolean supportsReusePort() {
+        return useIoUring() || Epoll.isAvailable();
+    }
+
+    private static synchronized boolean isIoUringAvailable() {
+        if (ioUringAvailable == null) {
+            ioUringAvailable = IoUring.isAvailable();
+            if (!ioUringAvailable) {
+                Logger.LOGGER.warn("The io_uring transport is not available, falling back to the default transport: " + IoUring.unavailabilityCause());
+            }
+        }
+        return ioUringAvailable;
+    }
+
+    /**
+     * Creates a new io_uring event loop group.
+     *
+     * @param threads The number of threads or 0 to use the default
+     * @param name    The name of the threads
+     * @return The event loop group
+     */
+    public static EventLoopGroup createIoUring(final int threads, final String name) {
+        return new MultiThreadIoEventLoopGroup(threads, new DefaultThreadFactory(name, true), IoUringIoHandler.newFactory());
+    }
+
+    /**
+     * Creates a new event loop group for the given transport type.
+     *
+     * @param transportType The transport type the channels of the group will use
+     * @param threads       The number of threads
+     * @param name          The name of the threads
+     * @return The event loop group or null if the transport type isn't supported
+     */
+    public static EventLoopGroup create(final TransportType transportType, final int threads, final String name) {
+        final IoHandlerFactory ioHandlerFactory;
+        if (transportType == TransportType.EPOLL) {
+            ioHandlerFactory = EpollIoHandler.newFactory();
+        } else if (transportType == TransportType.KQUEUE) {
+            ioHandlerFactory = KQueueIoHandler.newFactory();
+        } else if (transportType == TransportType.NIO) {
+            ioHandlerFactory = NioIoHandler.newFactory();
+        } else {
+            return null;
+        }
+        return new MultiThreadIoEventLoopGroup(threads, new DefaultThreadFactory(name, true), ioHandlerFactory);
+    }
+
+    /**
+     * Returns a bootstrap for a server connection which uses io_uring if enabled or the server event loop group if a thread count is configured.
+     *
+     * @param transportType The transport type of the bootstrap
+     * @param bootstrap     The bootstrap to use if neither is the case
+     * @return The bootstrap to initialize
+     */
+    public static Bootstrap serverBootstrap(final TransportType transportType, final Bootstrap bootstrap) {
+        if (useIoUring()) {
+            return new FixedGroupBootstrap(getIoUringServerGroup(), IoUringSocketChannel.class);
+        }
+        final EventLoopGroup group = getServerGroup(transportType);
+        return group != null ? new FixedGroupBootstrap(group, null) : bootstrap;
+    }
+
+    /**
+     * @return The io_uring event loop group shared by all client listeners which don't have their own thread count
+     */
+    public static synchronized EventLoopGroup getIoUringClientGroup() {
+        if (ioUringClientGroup == null) {
+            ioUringClientGroup = createIoUring(0, "ViaProxy Client Event Loop");
+        }
+        return ioUringClientGroup;
+    }
+
+    private static synchronized EventLoopGroup getIoUringServerGroup() {
+        if (ioUringServerGroup == null) {
+            ioUringServerGroup = createIoUring(Math.max(0, ViaProxy.getConfig().getServerEventLoopThreads()), "ViaProxy Server Event Loop");
+        }
+        return ioUringServerGroup;
+    }
+
+    private static synchronized EventLoopGroup getServerGroup(final TransportType transportType) {
+        final int threads = ViaProxy.getConfig().getServerEventLoopThreads();
+        if (threads <= 0) {
+            return null;
+        }
+        if (serverGroup == null) {
+            serverGroup = create(transportType, threads, "ViaProxy Server Event Loop");
+            serverGroupTransportType = transportType;
+        }
+        return serverGroupTransportType == transportType ? serverGroup : null;
+    }
+
+    /**
+     * A bootstrap which registers its channel on the given event loop group, regardless of the group it is configured with.
+     */
+    public static class FixedGroupBootstrap extends Bootstrap {
+
+        private final EventLoopGroup group;
+        private final Class<? extends Channel> channelClass;
+
+        /**
+         * @param group        The event loop group to use
+         * @param channelClass The channel class to use instead of the configured one (can be null)
+         */
+        public FixedGroupBootstrap(final EventLoopGroup group, final Class<? extends Channel> channelClass) {
+            this.group = group;
+            this.channelClass = channelClass;
+        }
+
+        @Override
+        public Bootstrap group(final EventLoopGroup group) {
+            return super.group(this.group);
+        }
+
+        @Override
+        public Bootstrap channelFactory(final ChannelFactory<? extends Channel> channelFactory) {
+            return super.channelFactory(this.channelClass != null ? new ReflectiveChannelFactory<Channel>(this.channelClass) : channelFactory);
+        }
+
+    }
+
+    /**
+     * A server bootstrap which uses the given event loop group for the listener and the accepted channels, regardless of the groups it is configured with.
+     */
+    public static class FixedGroupServerBootstrap extends ServerBootstrap {
+
+        private final EventLoopGroup group;
+        private final Class<? extends ServerChannel> channelClass;
+
+        /**
+         * @param group        The event loop group to use
+         * @param channelClass The channel class to use instead of the configured one (can be null)
+         */
+        public FixedGroupServerBootstrap(final EventLoopGroup group, final Class<? extends ServerChannel> channelClass) {
+            this.group = group;
+            this.channelClass = channelClass;
+        }
+
+        @Override
+        public ServerBootstrap group(final EventLoopGroup parentGroup, final EventLoopGroup childGroup) {
+            return super.group(this.group, this.group);
+        }
+
+        @Override
+        public ServerBootstrap channelFactory(final ChannelFactory<? extends ServerChannel> channelFactory) {
+            return super.channelFactory(this.channelClass != null ? new ReflectiveChannelFactory<ServerChannel>(this.channelClass) : channelFactory);
+        }
+
+    }
+
+}
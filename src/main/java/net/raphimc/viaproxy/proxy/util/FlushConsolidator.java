@@ -0,0 +1,77 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundInvoker;
+import io.netty.channel.ChannelPromise;
+import net.raphimc.viaproxy.ViaProxy;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Forwards messages to the opposite channel of a proxy session and optionally consolidates the flushes of all messages received in the same read batch.<br>
+ * Instances are bound to the handler of the reading channel and must only be used from its event loop.<br>
+ * The forwarded packet and flush counters are only updated while flush consolidation is enabled.
+ */
+public class FlushConsolidator {
+
+    private static final LongAdder FORWARDED_PACKETS = new LongAdder();
+    private static final LongAdder FLUSHES = new LongAdder();
+
+    private ChannelOutboundInvoker pendingTarget;
+    private int pendingWrites;
+
+    public static long getForwardedPackets() {
+        return FORWARDED_PACKETS.sum();
+    }
+
+    public static long getFlushes() {
+        return FLUSHES.sum();
+    }
+
+    public void write(final ChannelHandlerContext ctx, final ChannelOutboundInvoker target, final Object msg, final ChannelPromise promise) {
+        if (!ViaProxy.getConfig().shouldConsolidateFlushes()) {
+            this.flush(); // Keeps the order if consolidation has been disabled while writes were pending
+            target.writeAndFlush(msg, promise);
+            return;
+        }
+
+        FORWARDED_PACKETS.increment();
+        if (this.pendingTarget != target) {
+            this.flush();
+            this.pendingTarget = target;
+        }
+        target.write(msg, promise);
+        if (++this.pendingWrites >= ViaProxy.getConfig().getFlushConsolidationMaxPendingWrites() || !ctx.channel().config().isAutoRead()) { // Messages delivered while reading is paused (e.g. by a flow control handler) might not be followed by a read complete
+            this.flush();
+        }
+    }
+
+    /**
+     * Flushes all pending writes. Must be called at the end of every read batch.
+     */
+    public void flush() {
+        if (this.pendingWrites > 0) {
+            this.pendingWrites = 0;
+            FLUSHES.increment();
+            this.pendingTarget.flush();
+        }
+    }
+
+}
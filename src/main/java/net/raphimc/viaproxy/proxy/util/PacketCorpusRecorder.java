@@ -0,0 +1,142 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the CONFIGURATION and PLAY packets received from the server into a packet corpus file, which can be replayed by the benchmarks.<br>
+ * The handler sits right before the Via codec, so the packets are recorded decrypted, decompressed and in the version of the server.
+ * It is only added if the {@code recordPacketCorpus} system property is set to the directory the corpus files should be written to.
+ * The packets are copied on the event loop and written to the file on a dedicated writer thread.<br>
+ * Corpus format (gzip compressed): int magic, byte format version, UTF server version name, UTF client version name, followed by records of
+ * byte connection state (0 = CONFIGURATION, 1 = PLAY), int length and the packet bytes.
+ */
+public class PacketCorpusRecorder extends ChannelInboundHandlerAdapter {
+
+    public static final String NAME = "viaproxy-packet-corpus-recorder";
+    public static final String DIRECTORY_PROPERTY = "recordPacketCorpus";
+    public static final int MAGIC = 0x56505043; // VPPC
+    public static final int FORMAT_VERSION = 2;
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "ViaProxy Packet Corpus Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ProxyConnection proxyConnection;
+    private DataOutputStream output; // Only accessed by the writer thread
+    private volatile boolean failed;
+    private boolean closed;
+
+    public PacketCorpusRecorder(final ProxyConnection proxyConnection) {
+        this.proxyConnection = proxyConnection;
+    }
+
+    public static boolean isEnabled() {
+        return System.getProperty(DIRECTORY_PROPERTY) != null;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        final ConnectionState connectionState = this.proxyConnection.getP2sConnectionState();
+        if (msg instanceof ByteBuf buf && !this.closed && !this.failed && (connectionState == ConnectionState.CONFIGURATION || connectionState == ConnectionState.PLAY)) {
+            final byte[] data = new byte[buf.readableBytes()];
+            buf.getBytes(buf.readerIndex(), data);
+            WRITER.execute(() -> this.write(connectionState, data));
+        }
+
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        if (!this.closed) {
+            this.closed = true;
+            WRITER.execute(this::close);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        this.handlerRemoved(ctx);
+        super.channelInactive(ctx);
+    }
+
+    private void write(final ConnectionState connectionState, final byte[] data) {
+        if (this.failed) {
+            return;
+        }
+        try {
+            if (this.output == null) {
+                this.output = this.createOutput();
+            }
+            this.output.writeByte(connectionState == ConnectionState.PLAY ? 1 : 0);
+            this.output.writeInt(data.length);
+            this.output.write(data);
+        } catch (IOException e) {
+            Logger.LOGGER.error("Failed to record packet corpus", e);
+            this.failed = true;
+            this.close();
+        }
+    }
+
+    private void close() {
+        if (this.output != null) {
+            try {
+                this.output.close();
+            } catch (IOException e) {
+                Logger.LOGGER.error("Failed to close packet corpus", e);
+            }
+            this.output = null;
+        }
+    }
+
+    private DataOutputStream createOutput() throws IOException {
+        final File directory = new File(System.getProperty(DIRECTORY_PROPERTY));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create packet corpus directory " + directory.getAbsolutePath());
+        }
+        final String serverVersion = this.proxyConnection.getServerVersion().getName();
+        final File file = new File(directory, serverVersion.replaceAll("[^a-zA-Z0-9.\\-]", "_") + "-" + System.currentTimeMillis() + ".corpus.gz");
+        Logger.u_info("corpus", this.proxyConnection, "Recording packet corpus to " + file.getAbsolutePath());
+
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))));
+        output.writeInt(MAGIC);
+        output.writeByte(FORMAT_VERSION);
+        output.writeUTF(serverVersion);
+        output.writeUTF(this.proxyConnection.getClientVersion().getName());
+        return output;
+    }
+
+}
@@ -0,0 +1,318 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.libs.fastutil.ints.IntOpenHashSet;
+import com.viaversion.viaversion.libs.fastutil.ints.IntSet;
+import com.viaversion.viaversion.libs.fastutil.ints.IntSets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.constants.MCPackets;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.packet.PacketTypes;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.metrics.ProxyMetrics;
+import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyViaCodec;
+import net.raphimc.viaproxy.proxy.packethandler.*;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Inflater;
+
+/**
+ * Forwards framed PLAY packets between the client and the server without decoding them when both use the same version.<br>
+ * The handler sits right before the Via codec, so compression and encryption still apply per side. Frames of packets which end the PLAY state
+ * (e.g. the start configuration packet) turn raw forwarding off for the session and get decoded as usual. Frames of packets which packet handlers
+ * subscribed to by id (e.g. the join game packet) are decoded and handled individually, while all other frames stay raw.<br>
+ * If both sides use the same compression threshold and compressed frame passthrough is enabled, the handler sits right before the compression
+ * handler instead and forwards the still compressed frames, which skips the decompression and recompression of every large packet.<br>
+ * Sessions which can't use raw forwarding get an inactive handler at the same position. It measures the time spent on the decoded path, including
+ * decompression, translation and writing to the other side, so the CPU time per MB of all three paths can be compared.
+ */
+public class RawForwardingHandler extends ChannelInboundHandlerAdapter {
+
+    public static final String NAME = "viaproxy-raw-forwarding";
+
+    private static final LongAdder RAW_BYTES = new LongAdder();
+    private static final LongAdder RAW_NANOS = new LongAdder();
+    private static final LongAdder COMPRESSED_BYTES = new LongAdder();
+    private static final LongAdder COMPRESSED_NANOS = new LongAdder();
+    private static final LongAdder DECODED_BYTES = new LongAdder();
+    private static final LongAdder DECODED_NANOS = new LongAdder();
+
+    private final ProxyConnection proxyConnection;
+    private final boolean client2Proxy;
+    private final boolean compressed;
+    private final IntSet decodedPacketIds = new IntOpenHashSet();
+    private final IntSet handledPacketIds;
+    private final FlushConsolidator flushConsolidator = new FlushConsolidator();
+    private final byte[] packetIdBuffer = new byte[5];
+    private Inflater inflater;
+    private volatile boolean active;
+
+    private RawForwardingHandler(final ProxyConnection proxyConnection, final boolean client2Proxy, final boolean compressed, final IntSet handledPacketIds) {
+        this.proxyConnection = proxyConnection;
+        this.client2Proxy = client2Proxy;
+        this.compressed = compressed;
+        this.handledPacketIds = handledPacketIds;
+
+        if (!client2Proxy) {
+            final int version = proxyConnection.getClientVersion().getVersion();
+            this.decodedPacketIds.add(MCPackets.S2C_START_CONFIGURATION.getId(version));
+            this.decodedPacketIds.add(MCPackets.S2C_DISCONNECT.getId(version));
+            this.decodedPacketIds.add(MCPackets.S2C_TRANSFER.getId(version));
+            this.decodedPacketIds.remove(-1);
+        }
+    }
+
+    public static void enableIfPossible(final ProxyConnection proxyConnection) {
+        if (!ViaProxy.getConfig().shouldUseSameVersionRawForwarding()) return;
+        if (proxyConnection.getC2pConnectionState() != ConnectionState.PLAY || proxyConnection.getP2sConnectionState() != ConnectionState.PLAY) return;
+        if (proxyConnection.getChannel().pipeline().get(ViaProxyViaCodec.NAME) == null) return;
+
+        final IntSet c2pPacketIds = new IntOpenHashSet();
+        final IntSet p2sPacketIds = new IntOpenHashSet();
+        if (!collectHandledPacketIds(proxyConnection, c2pPacketIds, p2sPacketIds)) { // Inactive handlers measure the decoded path, which gives the raw forwarding stats a baseline
+            setActive(proxyConnection.getC2P(), proxyConnection, true, hasCompression(proxyConnection.getC2P()), IntSets.EMPTY_SET, false);
+            setActive(proxyConnection.getChannel(), proxyConnection, false, hasCompression(proxyConnection.getChannel()), IntSets.EMPTY_SET, false);
+            return;
+        }
+
+        final boolean compressed = canPassCompressedFrames(proxyConnection);
+        setActive(proxyConnection.getC2P(), proxyConnection, true, compressed, c2pPacketIds, true);
+        setActive(proxyConnection.getChannel(), proxyConnection, false, compressed, p2sPacketIds, true);
+        Logger.u_info("session", proxyConnection, "Forwarding PLAY packets without decoding them" + (compressed ? " (compressed)" : ""));
+    }
+
+    /**
+     * Checks if the PLAY packets of the given session could be forwarded without decoding them.<br>
+     * This is the case if raw forwarding is enabled, both sides use the same version and the packet handlers only subscribed to PLAY packets by id.
+     *
+     * @param proxyConnection The proxy connection
+     * @return true if raw forwarding will be used once both sides are in the PLAY state
+     */
+    public static boolean canForwardRaw(final ProxyConnection proxyConnection) {
+        return collectHandledPacketIds(proxyConnection, new IntOpenHashSet(), new IntOpenHashSet());
+    }
+
+    public static void disable(final ProxyConnection proxyConnection) {
+        setActive(proxyConnection.getC2P(), proxyConnection, true, false, IntSets.EMPTY_SET, false);
+        setActive(proxyConnection.getChannel(), proxyConnection, false, false, IntSets.EMPTY_SET, false);
+    }
+
+    public static long getRawBytes() {
+        return RAW_BYTES.sum();
+    }
+
+    public static long getRawNanos() {
+        return RAW_NANOS.sum();
+    }
+
+    public static long getCompressedBytes() {
+        return COMPRESSED_BYTES.sum();
+    }
+
+    public static long getCompressedNanos() {
+        return COMPRESSED_NANOS.sum();
+    }
+
+    public static long getDecodedBytes() {
+        return DECODED_BYTES.sum();
+    }
+
+    public static long getDecodedNanos() {
+        return DECODED_NANOS.sum();
+    }
+
+    private static boolean collectHandledPacketIds(final ProxyConnection proxyConnection, final IntSet c2pPacketIds, final IntSet p2sPacketIds) {
+        if (!ViaProxy.getConfig().shouldUseSameVersionRawForwarding()) return false;
+        if (!proxyConnection.getClientVersion().equals(proxyConnection.getServerVersion())) return false;
+
+        for (PacketHandler packetHandler : proxyConnection.getPacketHandlers()) {
+            if (packetHandler instanceof ConfigurationPacketHandler || packetHandler instanceof DisconnectPacketHandler || packetHandler instanceof TransferPacketHandler) {
+                continue; // Their PLAY packets are listed in decodedPacketIds
+            }
+            if (packetHandler instanceof BrandCustomPayloadPacketHandler && proxyConnection.getServerVersion().newerThanOrEqualTo(ProtocolVersion.v1_20_2)) {
+                continue; // Drops its PLAY subscription if raw forwarding is used, as the brand is sent in the configuration state
+            }
+
+            final PacketSubscription c2pSubscription = new PacketSubscription();
+            final PacketSubscription p2sSubscription = new PacketSubscription();
+            packetHandler.subscribeC2P(ConnectionState.PLAY, c2pSubscription);
+            packetHandler.subscribeP2S(ConnectionState.PLAY, p2sSubscription);
+            if (!c2pSubscription.isUnknownPacketIdsOnly() || !p2sSubscription.isUnknownPacketIdsOnly()) {
+                return false;
+            }
+            c2pPacketIds.addAll(c2pSubscription.getUnknownPacketIds());
+            p2sPacketIds.addAll(p2sSubscription.getUnknownPacketIds());
+        }
+        return true;
+    }
+
+    private static boolean hasCompression(final Channel channel) {
+        return channel.pipeline().get(MCPipeline.COMPRESSION_HANDLER_NAME) != null;
+    }
+
+    private static boolean canPassCompressedFrames(final ProxyConnection proxyConnection) {
+        if (!ViaProxy.getConfig().shouldUseCompressedFramePassthrough()) return false;
+        if (!hasCompression(proxyConnection.getChannel()) || !hasCompression(proxyConnection.getC2P())) return false;
+
+        final int serverThreshold = proxyConnection.getChannel().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get();
+        // The threshold of the client might not be set yet if the login compression packet is still being written. Everything forwarded from here on is queued after it.
+        return serverThreshold > -1 && CompressionPacketHandler.getClientCompressionThreshold(proxyConnection) == serverThreshold;
+    }
+
+    private static void setActive(final Channel channel, final ProxyConnection proxyConnection, final boolean client2Proxy, final boolean compressed, final IntSet handledPacketIds, final boolean active) {
+        if (!channel.eventLoop().inEventLoop()) { // The pipeline of the other channel must only be modified from its own event loop
+            if (!active && channel.pipeline().get(NAME) instanceof RawForwardingHandler handler) {
+                handler.active = false; // Disabling doesn't modify the pipeline, so it can take effect right away
+            } else {
+                channel.eventLoop().execute(() -> setActive(channel, proxyConnection, client2Proxy, compressed, handledPacketIds, active));
+            }
+            return;
+        }
+
+        RawForwardingHandler handler = (RawForwardingHandler) channel.pipeline().get(NAME);
+        if (handler != null && active && (handler.compressed != compressed || !handler.handledPacketIds.equals(handledPacketIds))) {
+            channel.pipeline().remove(handler);
+            handler = null;
+        }
+        if (handler == null) {
+            if (!active && proxyConnection.getC2pConnectionState() != ConnectionState.PLAY) return; // Inactive handlers are only installed in PLAY to measure the decoded path
+            handler = new RawForwardingHandler(proxyConnection, client2Proxy, compressed, handledPacketIds);
+            final String before;
+            if (compressed) {
+                before = MCPipeline.COMPRESSION_HANDLER_NAME;
+            } else if (channel.pipeline().get(ViaProxyViaCodec.NAME) != null) {
+                before = ViaProxyViaCodec.NAME;
+            } else { // Client connections only have a Via codec if the client version needs it
+                before = MCPipeline.PACKET_CODEC_HANDLER_NAME;
+            }
+            channel.pipeline().addBefore(before, NAME, handler);
+        }
+        handler.active = active;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof ByteBuf buf) || !buf.isReadable()) {
+            super.channelRead(ctx, msg);
+            return;
+        }
+        if (!this.active) {
+            final long start = System.nanoTime();
+            final int length = buf.readableBytes();
+            super.channelRead(ctx, msg);
+            DECODED_BYTES.add(length);
+            DECODED_NANOS.add(System.nanoTime() - start);
+            return;
+        }
+        if (this.proxyConnection.isClosed()) {
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final int length = buf.readableBytes();
+        if (!this.decodedPacketIds.isEmpty() || !this.handledPacketIds.isEmpty()) {
+            final int packetId = this.compressed ? this.peekCompressedPacketId(buf) : this.peekPacketId(buf);
+            if (packetId == -1 || this.decodedPacketIds.contains(packetId)) {
+                disable(this.proxyConnection);
+                super.channelRead(ctx, msg);
+                return;
+            } else if (this.handledPacketIds.contains(packetId)) { // Goes through the packet handlers, the following frames stay raw
+                super.channelRead(ctx, msg);
+                DECODED_BYTES.add(length);
+                DECODED_NANOS.add(System.nanoTime() - start);
+                return;
+            }
+        }
+
+        final Channel target = this.client2Proxy ? this.proxyConnection.getChannel() : this.proxyConnection.getC2P();
+        final ChannelHandlerContext targetCtx = target.pipeline().context(NAME);
+        if (targetCtx == null) {
+            super.channelRead(ctx, msg);
+            return;
+        }
+        this.flushConsolidator.write(ctx, targetCtx, msg, ChannelUtil.newForwardingPromise(target)); // Writing from the context skips the Via and packet codecs of the target
+        ProxyMetrics.recordPacket(this.client2Proxy);
+        if (this.compressed) {
+            COMPRESSED_BYTES.add(length);
+            COMPRESSED_NANOS.add(System.nanoTime() - start);
+        } else {
+            RAW_BYTES.add(length);
+            RAW_NANOS.add(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        this.flushConsolidator.flush();
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        if (this.inflater != null) {
+            this.inflater.end();
+            this.inflater = null;
+        }
+    }
+
+    private int peekPacketId(final ByteBuf buf) {
+        final int readerIndex = buf.readerIndex();
+        try {
+            return PacketTypes.readVarInt(buf);
+        } catch (Throwable e) {
+            return -1;
+        } finally {
+            buf.readerIndex(readerIndex);
+        }
+    }
+
+    private int peekCompressedPacketId(final ByteBuf buf) {
+        final int readerIndex = buf.readerIndex();
+        try {
+            final int uncompressedLength = PacketTypes.readVarInt(buf);
+            if (uncompressedLength == 0) {
+                return PacketTypes.readVarInt(buf);
+            }
+
+            // Only inflate the first few bytes, which contain the packet id
+            if (this.inflater == null) {
+                this.inflater = new Inflater();
+            }
+            this.inflater.reset();
+            this.inflater.setInput(buf.nioBuffer(buf.readerIndex(), buf.readableBytes()));
+            final int inflated = this.inflater.inflate(this.packetIdBuffer, 0, Math.min(this.packetIdBuffer.length, uncompressedLength));
+            return PacketTypes.readVarInt(Unpooled.wrappedBuffer(this.packetIdBuffer, 0, inflated));
+        } catch (Throwable e) {
+            return -1;
+        } finally {
+            buf.readerIndex(readerIndex);
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import com.google.common.cache.CacheBuilder;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import net.raphimc.viaproxy.ViaProxy;
+
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the (already translated) server list ping responses sent to clients.<br>
+ * Cached responses are answered by the proxy without contacting the server. Once a response is outdated, it is still sent to clients
+ * while the connection of a single client pings the server through the normal proxy pipeline in the background to refresh it.
+ * If there is no usable response yet, that client waits for the server and all other clients wait for the refresh.<br>
+ * The cache holds at most {@value #MAX_CACHE_SIZE} entries (least recently used entries are evicted first) and entries expire once they are too old to be sent.
+ * Changing the TTL or the stale time clears the cache.<br>
+ * Pings answered from the cache never reach the Proxy2ServerHandlerCreationEvent, the ConnectEvent or the packet handlers, which is why the cache is disabled by default.
+ */
+public class StatusCache {
+
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static Map<Key, Entry> CACHE;
+    private static long CACHE_MAX_AGE;
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder STALE_HITS = new LongAdder();
+    private static final LongAdder COALESCED = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    public static boolean isEnabled() {
+        return ViaProxy.getConfig().getStatusCacheTtl() > 0;
+    }
+
+    public static Lookup lookup(final Key key) {
+        final long now = System.currentTimeMillis();
+        final long ttl = TimeUnit.SECONDS.toMillis(ViaProxy.getConfig().getStatusCacheTtl());
+        final long maxAge = ttl + TimeUnit.SECONDS.toMillis(Math.max(0, ViaProxy.getConfig().getStatusCacheStaleTime()));
+        final Map<Key, Entry> cache = getCache(maxAge);
+        return cache.computeIfAbsent(key, k -> new Entry(cache, k)).lookup(now, ttl, maxAge);
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getStaleHits() {
+        return STALE_HITS.sum();
+    }
+
+    public static long getCoalesced() {
+        return COALESCED.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static synchronized int getSize() {
+        return CACHE != null ? CACHE.size() : 0;
+    }
+
+    private static synchronized Map<Key, Entry> getCache(final long maxAge) {
+        if (CACHE == null || CACHE_MAX_AGE != maxAge) { // Guava caches can't change their expiry time
+            CACHE = CacheBuilder.newBuilder().maximumSize(MAX_CACHE_SIZE).expireAfterWrite(maxAge, TimeUnit.MILLISECONDS).<Key, Entry>build().asMap();
+            CACHE_MAX_AGE = maxAge;
+        }
+        return CACHE;
+    }
+
+    /**
+     * @param serverAddress The address of the server
+     * @param serverVersion The version of the server
+     * @param clientVersion The version of the client (The response is translated to it)
+     * @param handshakeHost The host sent to the server in the handshake (Servers can respond differently depending on it)
+     */
+    public record Key(SocketAddress serverAddress, ProtocolVersion serverVersion, ProtocolVersion clientVersion, String handshakeHost) {
+    }
+
+    /**
+     * The result of a cache lookup:
+     * <ul>
+     *     <li>{@code statusJson}: The response can be sent to the client right away</li>
+     *     <li>{@code pending}: Another client is pinging the server, the response can be sent once the future completes</li>
+     *     <li>{@code refresh}: The connection of the client has to ping the server and has to complete the refresh with the response</li>
+     * </ul>
+     * Either {@code statusJson} or {@code pending} is set. If {@code statusJson} is set together with {@code refresh}, the response is outdated
+     * and has to be refreshed in the background after it has been sent to the client.
+     */
+    public record Lookup(String statusJson, CompletableFuture<String> pending, Refresh refresh) {
+    }
+
+    public static class Refresh {
+
+        private final Entry entry;
+        private final CompletableFuture<String> future;
+
+        private Refresh(final Entry entry, final CompletableFuture<String> future) {
+            this.entry = entry;
+            this.future = future;
+        }
+
+        public void complete(final String statusJson) {
+            this.entry.complete(this.future, statusJson);
+        }
+
+        /**
+         * Releases the refresh without a response. Does nothing if the refresh was already completed.
+         */
+        public void fail() {
+            this.entry.fail(this.future);
+        }
+
+    }
+
+    private static class Entry {
+
+        private final Map<Key, Entry> cache;
+        private final Key key;
+        private String statusJson;
+        private long fetchedAt;
+        private CompletableFuture<String> refresh; // Set while a client is pinging the server
+
+        private Entry(final Map<Key, Entry> cache, final Key key) {
+            this.cache = cache;
+            this.key = key;
+        }
+
+        private synchronized Lookup lookup(final long now, final long ttl, final long maxAge) {
+            final long age = now - this.fetchedAt;
+            if (this.statusJson != null && age < ttl) {
+                HITS.increment();
+                return new Lookup(this.statusJson, null, null);
+            }
+            if (this.statusJson != null && age < maxAge) {
+                STALE_HITS.increment();
+                if (this.refresh == null) {
+                    this.refresh = new CompletableFuture<>();
+                    return new Lookup(this.statusJson, null, new Refresh(this, this.refresh));
+                }
+                return new Lookup(this.statusJson, null, null);
+            }
+            if (this.refresh == null) {
+                MISSES.increment();
+                this.refresh = new CompletableFuture<>();
+                return new Lookup(null, null, new Refresh(this, this.refresh));
+            }
+            COALESCED.increment();
+            return new Lookup(null, this.refresh, null);
+        }
+
+        private synchronized void complete(final CompletableFuture<String> refresh, final String statusJson) {
+            if (this.refresh != refresh) return;
+            this.statusJson = statusJson;
+            this.fetchedAt = System.currentTimeMillis();
+            this.refresh = null;
+            this.cache.put(this.key, this); // Restart the expiry time
+            refresh.complete(statusJson);
+        }
+
+        private synchronized void fail(final CompletableFuture<String> refresh) {
+            if (this.refresh != refresh) return;
+            this.refresh = null;
+            refresh.completeExceptionally(new IllegalStateException("Server did not respond to the ping"));
+        }
+
+    }
+
+}
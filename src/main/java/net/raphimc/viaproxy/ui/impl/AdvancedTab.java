@@ -28,8 +28,6 @@ import net.raphimc.viaproxy.ui.UITab;
 import net.raphimc.viaproxy.ui.ViaProxyWindow;
 import net.raphimc.viaproxy.ui.events.UICloseEvent;
 import net.raphimc.viaproxy.util.logging.Logger;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.core.appender.RollingRandomAccessFileAppender;
 
 import javax.swing.*;
 import java.awt.*;
@@ -173,10 +171,7 @@ public class AdvancedTab extends UITab {
         {
             this.uploadLogsButton = new JButton(I18n.get("tab.advanced.upload_latest_log.label"));
             this.uploadLogsButton.addActionListener(event -> {
-                final org.apache.logging.log4j.core.Logger logger = (org.apache.logging.log4j.core.Logger) LogManager.getRootLogger();
-                final RollingRandomAccessFileAppender fileAppender = (RollingRandomAccessFileAppender) logger.getAppenders().get("LatestFile");
-                fileAppender.getManager().flush();
-                final File logFile = new File(fileAppender.getFileName());
+                final File logFile = Logger.flushLatestLog();
 
                 try {
                     this.uploadLogsButton.setEnabled(false);
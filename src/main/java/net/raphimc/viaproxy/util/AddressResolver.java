@@ -0,0 +1,134 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.util;
+
+import com.google.common.cache.CacheBuilder;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.raphimc.viaproxy.ViaProxy;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves server addresses with {@link AddressUtil#parse(String, ProtocolVersion)} on a dedicated thread pool, so DNS and SRV lookups never block a netty event loop.<br>
+ * Results are cached per address string and version. Failed or unresolved lookups are cached for a shorter time and concurrent lookups for the same address share one resolution.<br>
+ * The cache holds at most {@value #MAX_CACHE_SIZE} entries (least recently used entries are evicted first) and at most {@value #MAX_QUEUED_LOOKUPS} lookups can wait for a thread.
+ * Lookups beyond that fail with a {@link RejectedExecutionException} instead of queueing up without bound.
+ */
+public class AddressResolver {
+
+    private static final long NEGATIVE_TTL = TimeUnit.SECONDS.toMillis(10);
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static final int MAX_QUEUED_LOOKUPS = 1024;
+    private static final ExecutorService EXECUTOR;
+    private static final Map<CacheKey, CacheEntry> CACHE = CacheBuilder.newBuilder().maximumSize(MAX_CACHE_SIZE).<CacheKey, CacheEntry>build().asMap();
+    private static final LongAdder CACHE_HITS = new LongAdder();
+    private static final LongAdder CACHE_MISSES = new LongAdder();
+
+    static {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_LOOKUPS), new DefaultThreadFactory("ViaProxy Address Resolver", true));
+        executor.allowCoreThreadTimeOut(true);
+        EXECUTOR = executor;
+    }
+
+    /**
+     * @param serverAddress The address to parse and resolve
+     * @param version       The version of the server (Determines the default port and whether SRV records are used)
+     * @return A future which completes with the resolved address or exceptionally if the address is invalid
+     * @see AddressUtil#parse(String, ProtocolVersion)
+     */
+    public static CompletableFuture<SocketAddress> parseAsync(final String serverAddress, final ProtocolVersion version) {
+        final long ttl = TimeUnit.SECONDS.toMillis(ViaProxy.getConfig().getDnsCacheTtl());
+        if (ttl <= 0) {
+            CACHE_MISSES.increment();
+            return resolve(serverAddress, version);
+        }
+
+        final CacheKey key = new CacheKey(serverAddress, version);
+        final long now = System.currentTimeMillis();
+        final CacheEntry entry = CACHE.compute(key, (k, existing) -> existing != null && !existing.isExpired(now) ? existing : new CacheEntry());
+        if (entry.started.compareAndSet(false, true)) {
+            CACHE_MISSES.increment();
+            resolve(serverAddress, version).whenComplete((address, throwable) -> {
+                if (throwable instanceof RejectedExecutionException) {
+                    CACHE.remove(key, entry); // Don't cache overload
+                } else {
+                    final boolean negative = throwable != null || (address instanceof InetSocketAddress inetSocketAddress && inetSocketAddress.isUnresolved());
+                    entry.expiresAt = System.currentTimeMillis() + (negative ? Math.min(ttl, NEGATIVE_TTL) : ttl);
+                }
+                if (throwable == null) {
+                    entry.future.complete(address);
+                } else {
+                    entry.future.completeExceptionally(throwable);
+                }
+            });
+        } else {
+            CACHE_HITS.increment();
+        }
+        return entry.future;
+    }
+
+    private static CompletableFuture<SocketAddress> resolve(final String serverAddress, final ProtocolVersion version) {
+        final CompletableFuture<SocketAddress> future = new CompletableFuture<>();
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    future.complete(AddressUtil.parse(serverAddress, version));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public static long getCacheHits() {
+        return CACHE_HITS.sum();
+    }
+
+    public static long getCacheMisses() {
+        return CACHE_MISSES.sum();
+    }
+
+    public static int getCacheSize() {
+        return CACHE.size();
+    }
+
+    private record CacheKey(String serverAddress, ProtocolVersion version) {
+    }
+
+    private static class CacheEntry {
+
+        private final CompletableFuture<SocketAddress> future = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile long expiresAt = Long.MAX_VALUE; // Pending lookups don't expire
+
+        private boolean isExpired(final long now) {
+            return now >= this.expiresAt;
+        }
+
+    }
+
+}
@@ -17,42 +17,266 @@
  */
 package net.raphimc.viaproxy.util;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
 import net.lenni0451.mcping.MCPing;
 import net.lenni0451.mcping.pings.sockets.impl.factories.SocketChannelSocketFactory;
 import net.lenni0451.mcping.responses.MCPingResponse;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.constants.IntendedState;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.netty.connection.MinecraftChannelInitializer;
+import net.raphimc.netminecraft.netty.connection.NetClient;
+import net.raphimc.netminecraft.packet.Packet;
+import net.raphimc.netminecraft.packet.impl.handshaking.C2SHandshakingClientIntentionPacket;
+import net.raphimc.netminecraft.packet.impl.status.C2SStatusRequestPacket;
+import net.raphimc.netminecraft.packet.impl.status.S2CStatusResponsePacket;
+import net.raphimc.netminecraft.packet.registry.DefaultPacketRegistry;
+import net.raphimc.netminecraft.util.TransportType;
+import net.raphimc.viaproxy.ViaProxy;
 
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ProtocolVersionDetector {
 
     private static final int TIMEOUT = 3000;
+    private static final Map<CacheKey, CacheEntry> CACHE = new ConcurrentHashMap<>();
+    private static final LongAdder CACHE_HITS = new LongAdder();
+    private static final LongAdder CACHE_MISSES = new LongAdder();
+    private static final AtomicLong NEXT_CLEANUP = new AtomicLong();
+    private static final Executor BLOCKING_PING_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        final Thread thread = new Thread(r, "ViaProxy Version Detector");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public static ProtocolVersion get(final SocketAddress serverAddress, final ProtocolVersion clientVersion) {
-        final MCPingResponse response = MCPing
-                .pingModern(clientVersion.getOriginalVersion(), true)
-                .tcpSocketFactory(new SocketChannelSocketFactory())
-                .address(AddressUtil.toJ16UnixSocketAddress(serverAddress))
-                .noResolve()
-                .timeout(TIMEOUT, TIMEOUT)
-                .getSync();
-
-        if (response.version.protocol == clientVersion.getOriginalVersion()) { // If the server is on the same version as the client, we can just connect
+        try {
+            return getAsync(serverAddress, clientVersion).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Detects the version of the given server by pinging it.<br>
+     * Results are cached per server address and client version (Servers with protocol translation respond with the version of the client).
+     * Concurrent lookups for the same server share one ping and cached results are refreshed in the background shortly before they expire.
+     *
+     * @param serverAddress The address of the server
+     * @param clientVersion The version of the client which wants to connect
+     * @return A future which completes with the detected version
+     */
+    public static CompletableFuture<ProtocolVersion> getAsync(final SocketAddress serverAddress, final ProtocolVersion clientVersion) {
+        final long ttl = TimeUnit.SECONDS.toMillis(ViaProxy.getConfig().getAutoDetectCacheTtl());
+        if (ttl <= 0) {
+            CACHE_MISSES.increment();
+            return ping(serverAddress, clientVersion);
+        }
+
+        final CacheKey key = new CacheKey(serverAddress, clientVersion);
+        final long now = System.currentTimeMillis();
+        final CacheEntry entry = CACHE.compute(key, (k, existing) -> existing != null && !existing.isExpired(now) ? existing : new CacheEntry());
+        if (entry.started.compareAndSet(false, true)) {
+            CACHE_MISSES.increment();
+            final long nextCleanup = NEXT_CLEANUP.get();
+            if (now >= nextCleanup && NEXT_CLEANUP.compareAndSet(nextCleanup, now + ttl)) { // Sweep expired entries at most once per TTL
+                CACHE.values().removeIf(e -> e.isExpired(now));
+            }
+            ping(serverAddress, clientVersion).whenComplete((version, throwable) -> {
+                if (throwable == null) {
+                    entry.expiresAt = System.currentTimeMillis() + ttl;
+                    entry.future.complete(version);
+                } else {
+                    CACHE.remove(key, entry); // Don't cache failures
+                    entry.future.completeExceptionally(throwable);
+                }
+            });
+        } else {
+            CACHE_HITS.increment();
+            if (entry.future.isDone() && entry.expiresAt - now < ttl / 5 && entry.refreshing.compareAndSet(false, true)) {
+                ping(serverAddress, clientVersion).thenAccept(version -> {
+                    final CacheEntry refreshedEntry = new CacheEntry();
+                    refreshedEntry.started.set(true);
+                    refreshedEntry.expiresAt = System.currentTimeMillis() + ttl;
+                    refreshedEntry.future.complete(version);
+                    CACHE.replace(key, entry, refreshedEntry);
+                });
+            }
+        }
+        return entry.future;
+    }
+
+    public static long getCacheHits() {
+        return CACHE_HITS.sum();
+    }
+
+    public static long getCacheMisses() {
+        return CACHE_MISSES.sum();
+    }
+
+    public static int getCacheSize() {
+        return CACHE.size();
+    }
+
+    private static CompletableFuture<ProtocolVersion> ping(final SocketAddress serverAddress, final ProtocolVersion clientVersion) {
+        final CompletableFuture<ProtocolVersion> future = new CompletableFuture<>();
+        if (!(serverAddress instanceof InetSocketAddress)) { // Unix sockets are not supported by NetClient
+            BLOCKING_PING_EXECUTOR.execute(() -> {
+                try {
+                    final MCPingResponse response = MCPing
+                            .pingModern(clientVersion.getOriginalVersion(), true)
+                            .tcpSocketFactory(new SocketChannelSocketFactory())
+                            .address(AddressUtil.toJ16UnixSocketAddress(serverAddress))
+                            .noResolve()
+                            .timeout(TIMEOUT, TIMEOUT)
+                            .getSync();
+                    future.complete(fromStatus(response.version.protocol, response.version.name, clientVersion));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        }
+
+        try {
+            final NetClient client = new NetClient(new MinecraftChannelInitializer(() -> new PingHandler(serverAddress, clientVersion, future)) {
+                @Override
+                protected void initChannel(Channel channel) {
+                    super.initChannel(channel);
+                    // The handshake and status packets haven't changed since 1.7.2, so the registry doesn't depend on the client version
+                    channel.attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).set(new DefaultPacketRegistry(true, ProtocolVersion.v1_7_2.getVersion()));
+                }
+            }) {
+                @Override
+                public void initialize(final TransportType transportType, final Bootstrap bootstrap) {
+                    bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, TIMEOUT);
+                    super.initialize(transportType, bootstrap);
+                }
+            };
+            client.connect(serverAddress).addListener((ChannelFutureListener) f -> {
+                if (!f.isSuccess()) {
+                    future.completeExceptionally(f.cause());
+                    return;
+                }
+                f.channel().eventLoop().schedule(() -> {
+                    if (future.completeExceptionally(new TimeoutException("Server did not respond to the ping in time"))) {
+                        f.channel().close();
+                    }
+                }, TIMEOUT, TimeUnit.MILLISECONDS);
+            });
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static ProtocolVersion fromStatus(final int protocol, final String name, final ProtocolVersion clientVersion) {
+        if (protocol == clientVersion.getOriginalVersion()) { // If the server is on the same version as the client, we can just connect
             return clientVersion;
         }
 
-        if (ProtocolVersion.isRegistered(response.version.protocol)) { // If the protocol is registered, we can use it
-            return ProtocolVersion.getProtocol(response.version.protocol);
+        if (ProtocolVersion.isRegistered(protocol)) { // If the protocol is registered, we can use it
+            return ProtocolVersion.getProtocol(protocol);
         } else {
             for (ProtocolVersion protocolVersion : ProtocolVersion.getReversedProtocols()) {
                 for (String version : protocolVersion.getIncludedVersions()) {
-                    if (response.version.name.contains(version)) {
+                    if (name.contains(version)) {
                         return protocolVersion;
                     }
                 }
             }
-            throw new RuntimeException("Unable to detect the server version\nServer sent an invalid protocol id: " + response.version.protocol + " (" + response.version.name + "§r)");
+            throw new RuntimeException("Unable to detect the server version\nServer sent an invalid protocol id: " + protocol + " (" + name + "§r)");
+        }
+    }
+
+    private record CacheKey(SocketAddress serverAddress, ProtocolVersion clientVersion) {
+    }
+
+    private static class CacheEntry {
+
+        private final CompletableFuture<ProtocolVersion> future = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long expiresAt = Long.MAX_VALUE; // Pending pings don't expire
+
+        private boolean isExpired(final long now) {
+            return now >= this.expiresAt;
+        }
+
+    }
+
+    private static class PingHandler extends SimpleChannelInboundHandler<Packet> {
+
+        private final SocketAddress serverAddress;
+        private final ProtocolVersion clientVersion;
+        private final CompletableFuture<ProtocolVersion> future;
+
+        private PingHandler(final SocketAddress serverAddress, final ProtocolVersion clientVersion, final CompletableFuture<ProtocolVersion> future) {
+            this.serverAddress = serverAddress;
+            this.clientVersion = clientVersion;
+            this.future = future;
         }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            super.channelActive(ctx);
+
+            final String host;
+            final int port;
+            if (this.serverAddress instanceof InetSocketAddress inetSocketAddress) {
+                host = inetSocketAddress.getHostString();
+                port = inetSocketAddress.getPort();
+            } else {
+                host = AddressUtil.toString(this.serverAddress);
+                port = 25565;
+            }
+            ctx.writeAndFlush(new C2SHandshakingClientIntentionPacket(this.clientVersion.getOriginalVersion(), host, port, IntendedState.STATUS)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            ctx.channel().attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).get().setConnectionState(ConnectionState.STATUS);
+            ctx.writeAndFlush(new C2SStatusRequestPacket()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            super.channelInactive(ctx);
+            this.future.completeExceptionally(new ClosedChannelException());
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Packet packet) {
+            if (packet instanceof S2CStatusResponsePacket statusResponsePacket) {
+                try {
+                    final JsonObject version = JsonParser.parseString(statusResponsePacket.statusJson).getAsJsonObject().getAsJsonObject("version");
+                    this.future.complete(fromStatus(version.get("protocol").getAsInt(), version.get("name").getAsString(), this.clientVersion));
+                } catch (Throwable e) {
+                    this.future.completeExceptionally(e);
+                }
+                ctx.close();
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            this.future.completeExceptionally(cause);
+            ctx.close();
+        }
+
     }
 
 }
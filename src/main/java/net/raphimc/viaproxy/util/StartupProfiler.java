@@ -0,0 +1,115 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.util;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs the stages of the startup, either on the calling thread or on a small thread pool, and records how long each stage took.
+ */
+public class StartupProfiler {
+
+    private final long startTime = System.nanoTime();
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), new DefaultThreadFactory("ViaProxy Startup", true));
+
+    /**
+     * Runs a stage on the calling thread.
+     */
+    public void run(final String name, final Runnable runnable) {
+        this.call(name, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a stage on the calling thread and returns its result.
+     */
+    public <T> T call(final String name, final Supplier<T> supplier) {
+        final long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            this.stages.add(new Stage(name, Thread.currentThread().getName(), start - this.startTime, System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Runs a stage on the startup thread pool.
+     *
+     * @return A future which completes once the stage is done
+     */
+    public CompletableFuture<Void> runAsync(final String name, final Runnable runnable) {
+        return CompletableFuture.runAsync(() -> this.run(name, runnable), this.executor);
+    }
+
+    /**
+     * Runs a stage on the startup thread pool after the given future completed successfully.
+     *
+     * @return A future which completes once the stage is done
+     */
+    public CompletableFuture<Void> runAfter(final CompletableFuture<?> future, final String name, final Runnable runnable) {
+        return future.thenRunAsync(() -> this.run(name, runnable), this.executor);
+    }
+
+    /**
+     * Waits for an asynchronous stage and rethrows its exception on the calling thread.
+     */
+    public void await(final String name, final CompletableFuture<?> future) {
+        this.run("Waiting for " + name, () -> {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                } else if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Logs the timings of all stages and shuts down the startup thread pool.
+     */
+    public void finish() {
+        this.executor.shutdown();
+        final long totalTime = System.nanoTime() - this.startTime;
+        final List<Stage> stages = new ArrayList<>(this.stages);
+        stages.sort(Comparator.comparingLong(Stage::start));
+
+        Logger.LOGGER.info("Startup took " + TimeUnit.NANOSECONDS.toMillis(totalTime) + " ms (" + ManagementFactory.getRuntimeMXBean().getUptime() + " ms since JVM start, including class transformation):");
+        for (Stage stage : stages) {
+            Logger.LOGGER.info(String.format("  %-32s %6d ms (at %6d ms on %s)", stage.name(), TimeUnit.NANOSECONDS.toMillis(stage.duration()), TimeUnit.NANOSECONDS.toMillis(stage.start()), stage.thread()));
+        }
+    }
+
+    private record Stage(String name, String thread, long start, long duration) {
+    }
+
+}
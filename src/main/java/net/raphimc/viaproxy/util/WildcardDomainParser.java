@@ -21,14 +21,54 @@ import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import net.raphimc.viaproxy.protocoltranslator.ProtocolTranslator;
 
 import java.net.SocketAddress;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class WildcardDomainParser {
 
     private static final Pattern PUBLIC_WILDCARD_FORMAT2_PATTERN = Pattern.compile("^address\\.(.+?)\\.port\\.(\\d+?)(?:\\.version\\.(.+?))?$");
+    private static final int MAX_TARGET_CACHE_SIZE = 1024;
+    private static final Map<TargetKey, Optional<Target>> TARGET_CACHE = new ConcurrentHashMap<>();
 
     public static ParsedDomain parseFormat1(final String address) {
+        return resolve(getTarget(address, false));
+    }
+
+    public static ParsedDomain parseFormat2(final String address) {
+        return resolve(getTarget(address, true));
+    }
+
+    /**
+     * Same as {@link #parseFormat1(String)}, but resolves the address using the {@link AddressResolver}.
+     *
+     * @return A future which completes with the parsed domain or null if the domain is invalid
+     */
+    public static CompletableFuture<ParsedDomain> parseFormat1Async(final String address) {
+        return resolveAsync(getTarget(address, false));
+    }
+
+    /**
+     * Same as {@link #parseFormat2(String)}, but resolves the address using the {@link AddressResolver}.
+     *
+     * @return A future which completes with the parsed domain or null if the domain is invalid
+     */
+    public static CompletableFuture<ParsedDomain> parseFormat2Async(final String address) {
+        return resolveAsync(getTarget(address, true));
+    }
+
+    private static Target getTarget(final String address, final boolean format2) {
+        if (TARGET_CACHE.size() >= MAX_TARGET_CACHE_SIZE) {
+            TARGET_CACHE.clear();
+        }
+        return TARGET_CACHE.computeIfAbsent(new TargetKey(address, format2), k -> Optional.ofNullable(format2 ? parseTargetFormat2(address) : parseTargetFormat1(address))).orElse(null);
+    }
+
+    private static Target parseTargetFormat1(final String address) {
         try {
             final String addressData = address.substring(0, address.toLowerCase().lastIndexOf(".viaproxy."));
             final ArrayHelper arrayHelper = ArrayHelper.instanceOf(addressData.split(Pattern.quote("_")));
@@ -39,13 +79,13 @@ public class WildcardDomainParser {
             ProtocolVersion serverVersion = ProtocolVersionUtil.fromNameLenient(versionString);
             final String connectAddress = arrayHelper.getAsString(0, arrayHelper.getLength() - 3, "_");
             final int connectPort = arrayHelper.getInteger(arrayHelper.getLength() - 2);
-            return new ParsedDomain(AddressUtil.parse(connectAddress + ":" + connectPort, serverVersion), serverVersion);
+            return new Target(connectAddress + ":" + connectPort, serverVersion);
         } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
             return null;
         }
     }
 
-    public static ParsedDomain parseFormat2(final String address) {
+    private static Target parseTargetFormat2(final String address) {
         try {
             final String addressData = address.substring(0, address.toLowerCase().lastIndexOf(".f2.viaproxy."));
             final Matcher matcher = PUBLIC_WILDCARD_FORMAT2_PATTERN.matcher(addressData);
@@ -61,14 +101,47 @@ public class WildcardDomainParser {
             } else { // Default to auto-detect
                 serverVersion = ProtocolTranslator.AUTO_DETECT_PROTOCOL;
             }
-            return new ParsedDomain(AddressUtil.parse(connectAddress + ":" + connectPort, serverVersion), serverVersion);
+            return new Target(connectAddress + ":" + connectPort, serverVersion);
         } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
             return null;
         }
     }
 
+    private static ParsedDomain resolve(final Target target) {
+        if (target == null) {
+            return null;
+        }
+        try {
+            return new ParsedDomain(AddressUtil.parse(target.address(), target.version()), target.version());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static CompletableFuture<ParsedDomain> resolveAsync(final Target target) {
+        if (target == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return AddressResolver.parseAsync(target.address(), target.version()).handle((address, throwable) -> {
+            if (throwable == null) {
+                return new ParsedDomain(address, target.version());
+            }
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (cause instanceof IllegalArgumentException) {
+                return null;
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
 
     public record ParsedDomain(SocketAddress address, ProtocolVersion version) {
     }
 
+    private record TargetKey(String address, boolean format2) {
+    }
+
+    private record Target(String address, ProtocolVersion version) {
+    }
+
 }
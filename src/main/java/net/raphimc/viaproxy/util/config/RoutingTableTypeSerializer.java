@@ -0,0 +1,111 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.util.config;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import net.lenni0451.optconfig.serializer.ConfigTypeSerializer;
+import net.raphimc.viaproxy.protocoltranslator.viaproxy.ViaProxyConfig;
+import net.raphimc.viaproxy.proxy.routing.Backend;
+import net.raphimc.viaproxy.proxy.routing.BackendPool;
+import net.raphimc.viaproxy.proxy.routing.RoutingTable;
+import net.raphimc.viaproxy.util.AddressUtil;
+
+import java.util.*;
+
+public class RoutingTableTypeSerializer extends ConfigTypeSerializer<ViaProxyConfig, RoutingTable> {
+
+    public RoutingTableTypeSerializer(final ViaProxyConfig config) {
+        super(config);
+    }
+
+    @Override
+    public RoutingTable deserialize(final Class<RoutingTable> typeClass, final Object serializedObject) {
+        if (!(serializedObject instanceof Map<?, ?> serializedRoutes)) {
+            return new RoutingTable(Map.of());
+        }
+
+        final Map<String, BackendPool> routes = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> routeEntry : serializedRoutes.entrySet()) {
+            final String route = String.valueOf(routeEntry.getKey());
+            if (!(routeEntry.getValue() instanceof Map<?, ?> serializedPool)) {
+                throw new IllegalArgumentException("Invalid route: " + route);
+            }
+
+            final BackendPool.BalancingStrategy balancingStrategy = BackendPool.BalancingStrategy.byName(String.valueOf(Objects.requireNonNullElse(serializedPool.get("balancing"), BackendPool.BalancingStrategy.LEAST_CONNECTIONS.getName())));
+            final List<Backend> backends = new ArrayList<>();
+            if (serializedPool.get("backends") instanceof List<?> serializedBackends) {
+                for (Object serializedBackend : serializedBackends) {
+                    backends.add(this.deserializeBackend(route, serializedBackend));
+                }
+            }
+            if (backends.isEmpty()) {
+                throw new IllegalArgumentException("Route " + route + " has no backends");
+            }
+            routes.put(route, new BackendPool(balancingStrategy, backends));
+        }
+        return new RoutingTable(routes);
+    }
+
+    @Override
+    public Object serialize(final RoutingTable object) {
+        final Map<String, Object> serializedRoutes = new LinkedHashMap<>();
+        for (Map.Entry<String, BackendPool> routeEntry : object.getRoutes().entrySet()) {
+            final List<Object> serializedBackends = new ArrayList<>();
+            for (Backend backend : routeEntry.getValue().getBackends()) {
+                final Map<String, Object> serializedBackend = new LinkedHashMap<>();
+                serializedBackend.put("address", backend.getAddressString());
+                serializedBackend.put("version", backend.getVersion().getName());
+                serializedBackend.put("weight", backend.getWeight());
+                serializedBackends.add(serializedBackend);
+            }
+            final Map<String, Object> serializedPool = new LinkedHashMap<>();
+            serializedPool.put("balancing", routeEntry.getValue().getBalancingStrategy().getName());
+            serializedPool.put("backends", serializedBackends);
+            serializedRoutes.put(routeEntry.getKey(), serializedPool);
+        }
+        return serializedRoutes;
+    }
+
+    private Backend deserializeBackend(final String route, final Object serializedBackend) {
+        final String address;
+        ProtocolVersion version = this.config.getTargetVersion();
+        int weight = 1;
+        if (serializedBackend instanceof Map<?, ?> backendMap) {
+            if (backendMap.get("address") == null) {
+                throw new IllegalArgumentException("Backend of route " + route + " has no address");
+            }
+            address = String.valueOf(backendMap.get("address"));
+            if (backendMap.get("version") != null) {
+                version = ProtocolVersion.getClosest(String.valueOf(backendMap.get("version")));
+                if (version == null) {
+                    throw new IllegalArgumentException("Unknown version of backend " + address + ": " + backendMap.get("version"));
+                }
+            }
+            if (backendMap.get("weight") instanceof Number number) {
+                weight = number.intValue();
+            }
+        } else { // Short form: Only the address
+            address = String.valueOf(serializedBackend);
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight of backend " + address + " must be positive");
+        }
+        return new Backend(address, AddressUtil.parse(address, version), version, weight);
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.util.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.async.AsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.DefaultAsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue full policy for the async appender which drops info and lower messages instead of blocking the calling (netty) thread.<br>
+ * Warnings and errors are still enqueued. The number of dropped messages is logged a few seconds after the first drop.
+ */
+public class DroppingAsyncQueueFullPolicy implements AsyncQueueFullPolicy {
+
+    private static final long SUMMARY_DELAY_SECONDS = 5;
+
+    private final AsyncQueueFullPolicy delegate = new DefaultAsyncQueueFullPolicy();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicBoolean summaryScheduled = new AtomicBoolean();
+
+    @Override
+    public EventRoute getRoute(final long backgroundThreadId, final Level level) {
+        if (level.isMoreSpecificThan(Level.WARN)) {
+            return this.delegate.getRoute(backgroundThreadId, level);
+        }
+
+        this.droppedCount.incrementAndGet();
+        if (this.summaryScheduled.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(SUMMARY_DELAY_SECONDS, TimeUnit.SECONDS).execute(this::logSummary);
+        }
+        return EventRoute.DISCARD;
+    }
+
+    private void logSummary() {
+        this.summaryScheduled.set(false);
+        final long dropped = this.droppedCount.getAndSet(0);
+        if (dropped > 0) {
+            LogManager.getLogger("ViaProxy").warn("Dropped " + dropped + " log messages because the logging queue was full");
+        }
+    }
+
+}
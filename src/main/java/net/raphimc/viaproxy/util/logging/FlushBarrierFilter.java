@@ -0,0 +1,120 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2026 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.util.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AsyncAppender;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.Message;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filter for the appender refs of the async appender which lets {@link #await(AsyncAppender, long)} wait until all messages logged before the call have been written.<br>
+ * The await call enqueues a barrier event behind all pending messages. The background thread passes the barrier to the filters once it processed everything before it,
+ * which releases the waiting thread. The filter has to be on every appender ref, so the barrier itself is never written.
+ */
+@Plugin(name = "FlushBarrier", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE)
+public class FlushBarrierFilter extends AbstractFilter {
+
+    private static final AtomicInteger STARTED_FILTERS = new AtomicInteger();
+
+    @PluginFactory
+    public static FlushBarrierFilter createFilter() {
+        return new FlushBarrierFilter();
+    }
+
+    private FlushBarrierFilter() {
+        super(Result.NEUTRAL, Result.NEUTRAL);
+    }
+
+    /**
+     * Waits until the async appender processed all messages which were logged before this call.
+     *
+     * @param asyncAppender The async appender
+     * @param timeoutMillis The maximum time to wait in milliseconds
+     * @return true if the messages have been processed, false if the timeout elapsed or no filter is configured
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    public static boolean await(final AsyncAppender asyncAppender, final long timeoutMillis) throws InterruptedException {
+        if (STARTED_FILTERS.get() == 0) { // Without the filter the barrier would end up in the log
+            return false;
+        }
+        final Barrier barrier = new Barrier();
+        asyncAppender.append(Log4jLogEvent.newBuilder().setLoggerName(FlushBarrierFilter.class.getName()).setLevel(Level.WARN).setMessage(barrier).build()); // WARN isn't dropped when the queue is full
+        return barrier.latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        STARTED_FILTERS.incrementAndGet();
+    }
+
+    @Override
+    public boolean stop(final long timeout, final TimeUnit timeUnit) {
+        if (this.isStarted()) {
+            STARTED_FILTERS.decrementAndGet();
+        }
+        return super.stop(timeout, timeUnit);
+    }
+
+    @Override
+    public Result filter(final LogEvent event) {
+        if (event.getMessage() instanceof Barrier barrier) {
+            barrier.latch.countDown();
+            return Result.DENY;
+        }
+        return Result.NEUTRAL;
+    }
+
+    private static class Barrier implements Message {
+
+        private final transient CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public String getFormattedMessage() {
+            return "Log flush barrier";
+        }
+
+        @Override
+        public String getFormat() {
+            return this.getFormattedMessage();
+        }
+
+        @Override
+        public Object[] getParameters() {
+            return null;
+        }
+
+        @Override
+        public Throwable getThrowable() {
+            return null;
+        }
+
+    }
+
+}
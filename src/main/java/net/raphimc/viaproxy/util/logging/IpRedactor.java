@@ -24,14 +24,15 @@ import org.apache.logging.log4j.core.pattern.ConverterKeys;
 import org.apache.logging.log4j.core.pattern.LogEventPatternConverter;
 import org.apache.logging.log4j.core.pattern.PatternConverter;
 
-import java.util.regex.Pattern;
-
+/**
+ * Replaces IPv4 and IPv6 addresses in the formatted log line with {@value #REPLACEMENT}.<br>
+ * The line is scanned once in place and only touched if an address was found, so lines without addresses don't allocate.
+ */
 @Plugin(name = "ip_redactor", category = PatternConverter.CATEGORY)
 @ConverterKeys({"ip_redactor"})
 public class IpRedactor extends LogEventPatternConverter {
 
-    private final Pattern IPV4_REGEX = Pattern.compile("(\\b25[0-5]|\\b2[0-4][0-9]|\\b[01]?[0-9][0-9]?)(\\.(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)){3}");
-    private final Pattern IPV6_REGEX = Pattern.compile("(([0-9a-fA-F]{1,4}:){7}[0-9a-fA-F]{1,4}|([0-9a-fA-F]{1,4}:){1,7}:|([0-9a-fA-F]{1,4}:){1,6}:[0-9a-fA-F]{1,4}|([0-9a-fA-F]{1,4}:){1,5}(:[0-9a-fA-F]{1,4}){1,2}|([0-9a-fA-F]{1,4}:){1,4}(:[0-9a-fA-F]{1,4}){1,3}|([0-9a-fA-F]{1,4}:){1,3}(:[0-9a-fA-F]{1,4}){1,4}|([0-9a-fA-F]{1,4}:){1,2}(:[0-9a-fA-F]{1,4}){1,5}|[0-9a-fA-F]{1,4}:((:[0-9a-fA-F]{1,4}){1,6})|:((:[0-9a-fA-F]{1,4}){1,7}|:)|fe80:(:[0-9a-fA-F]{0,4}){0,4}%[0-9a-zA-Z]+|::(ffff(:0{1,4})?:)?((25[0-5]|(2[0-4]|1?[0-9])?[0-9])\\.){3}(25[0-5]|(2[0-4]|1?[0-9])?[0-9])|([0-9a-fA-F]{1,4}:){1,4}:((25[0-5]|(2[0-4]|1?[0-9])?[0-9])\\.){3}(25[0-5]|(2[0-4]|1?[0-9])?[0-9]))");
+    public static final String REPLACEMENT = "REDACTED_IP";
 
     public static IpRedactor newInstance(final String[] options) {
         return new IpRedactor();
@@ -44,12 +45,160 @@ public class IpRedactor extends LogEventPatternConverter {
     @Override
     public void format(final LogEvent event, final StringBuilder toAppendTo) {
         if (ViaProxy.getConfig() != null && !ViaProxy.getConfig().shouldLogIps()) {
-            String message = toAppendTo.toString();
-            message = IPV4_REGEX.matcher(message).replaceAll("REDACTED_IP");
-            message = IPV6_REGEX.matcher(message).replaceAll("REDACTED_IP");
-            toAppendTo.setLength(0);
-            toAppendTo.append(message);
+            redact(toAppendTo);
+        }
+    }
+
+    public static void redact(final StringBuilder sb) {
+        int i = 0;
+        while (i < sb.length()) {
+            final char c = sb.charAt(i);
+            final char prev = i > 0 ? sb.charAt(i - 1) : ' ';
+            int end = -1;
+            if ((isHexDigit(c) || c == ':') && !isIpv6Char(prev) && !isWordChar(prev)) {
+                end = matchIpv6(sb, i);
+            }
+            if (end == -1 && isDigit(c) && !isWordChar(prev)) {
+                end = matchIpv4(sb, i, sb.length());
+            }
+
+            if (end != -1) {
+                sb.replace(i, end, REPLACEMENT);
+                i += REPLACEMENT.length();
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * @return The end index of the IPv4 address starting at {@code start} or -1 if there is none
+     */
+    private static int matchIpv4(final CharSequence s, final int start, final int limit) {
+        int i = start;
+        for (int octet = 0; octet < 4; octet++) {
+            if (octet > 0) {
+                if (i >= limit || s.charAt(i) != '.') return -1;
+                i++;
+            }
+            int value = 0;
+            int digits = 0;
+            while (i < limit && digits < 3 && isDigit(s.charAt(i))) {
+                final int next = value * 10 + (s.charAt(i) - '0');
+                if (next > 255) break;
+                value = next;
+                digits++;
+                i++;
+            }
+            if (digits == 0) return -1;
+        }
+        return i;
+    }
+
+    /**
+     * @return The end index of the IPv6 address (including a link-local zone id) starting at {@code start} or -1 if there is none
+     */
+    private static int matchIpv6(final CharSequence s, final int start) {
+        final int length = s.length();
+        int end = start;
+        boolean hasColon = false;
+        while (end < length && isIpv6Char(s.charAt(end))) {
+            hasColon |= s.charAt(end) == ':';
+            end++;
+        }
+        if (!hasColon) return -1;
+
+        // Don't treat trailing punctuation or a separating colon as part of the address
+        while (end > start && s.charAt(end - 1) == '.') end--;
+        if (end - start >= 2 && s.charAt(end - 1) == ':' && s.charAt(end - 2) != ':') end--;
+        if (!isValidIpv6(s, start, end)) {
+            // AddressUtil prints unbracketed IPv6 addresses with the port appended after a colon
+            int portStart = end;
+            while (portStart > start && isDigit(s.charAt(portStart - 1))) portStart--;
+            if (portStart == end || portStart - start < 3 || s.charAt(portStart - 1) != ':' || !isValidIpv6(s, start, portStart - 1)) return -1;
+            end = portStart - 1;
+        }
+
+        if (end < length && s.charAt(end) == '%' && end - start >= 4 && regionMatchesIgnoreCase(s, start, "fe80")) {
+            int zoneEnd = end + 1;
+            while (zoneEnd < length && Character.isLetterOrDigit(s.charAt(zoneEnd))) zoneEnd++;
+            if (zoneEnd > end + 1) end = zoneEnd;
+        }
+        if (end < length && isWordChar(s.charAt(end))) return -1;
+        if (hasMixedCase(s, start, end)) return -1; // Java method references like Face::add are all hex but never a printed address
+        return end;
+    }
+
+    private static boolean hasMixedCase(final CharSequence s, final int start, final int end) {
+        boolean upper = false;
+        boolean lower = false;
+        for (int i = start; i < end; i++) {
+            final char c = s.charAt(i);
+            upper |= c >= 'A' && c <= 'F';
+            lower |= c >= 'a' && c <= 'f';
+        }
+        return upper && lower;
+    }
+
+    private static boolean isValidIpv6(final CharSequence s, final int start, final int end) {
+        if (end - start < 2) return false;
+
+        int i = start;
+        int groups = 0;
+        boolean compressed = false;
+        if (s.charAt(i) == ':') {
+            if (s.charAt(i + 1) != ':') return false;
+            compressed = true;
+            i += 2;
+            if (i == end) return true;
+        }
+        while (true) {
+            final int groupStart = i;
+            while (i < end && isHexDigit(s.charAt(i))) i++;
+            if (i < end && s.charAt(i) == '.') { // Embedded IPv4 address, has to be the last part
+                if ((groups == 0 && !compressed) || matchIpv4(s, groupStart, end) != end) return false;
+                groups += 2;
+                break;
+            }
+            final int groupLength = i - groupStart;
+            if (groupLength == 0 || groupLength > 4) return false;
+            groups++;
+            if (i == end) break;
+
+            i++; // Skip the colon
+            if (i < end && s.charAt(i) == ':') {
+                if (compressed) return false;
+                compressed = true;
+                i++;
+                if (i == end) break;
+            } else if (i == end) {
+                return false;
+            }
+        }
+        return compressed ? groups <= 7 : groups == 8;
+    }
+
+    private static boolean regionMatchesIgnoreCase(final CharSequence s, final int start, final String other) {
+        for (int i = 0; i < other.length(); i++) {
+            if (Character.toLowerCase(s.charAt(start + i)) != other.charAt(i)) return false;
         }
+        return true;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(final char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isIpv6Char(final char c) {
+        return isHexDigit(c) || c == ':' || c == '.';
+    }
+
+    private static boolean isWordChar(final char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
     }
 
 }
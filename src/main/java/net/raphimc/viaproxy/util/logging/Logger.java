@@ -22,9 +22,14 @@ import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 import net.raphimc.viaproxy.util.AddressUtil;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AsyncAppender;
+import org.apache.logging.log4j.core.appender.RollingRandomAccessFileAppender;
+import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.core.config.plugins.util.PluginManager;
 import org.jline.jansi.AnsiConsole;
 
+import java.io.File;
 import java.io.PrintStream;
 import java.net.SocketAddress;
 import java.util.Locale;
@@ -48,6 +53,25 @@ public class Logger {
         System.setOut(new LoggerPrintStream("STDOUT", SYSOUT));
     }
 
+    /**
+     * Writes all pending log messages to latest.log.
+     *
+     * @return The latest.log file
+     */
+    public static File flushLatestLog() {
+        final Configuration configuration = LoggerContext.getContext(false).getConfiguration();
+        if (configuration.getAppender("Async") instanceof AsyncAppender asyncAppender) { // Wait until the background thread wrote all queued messages
+            try {
+                FlushBarrierFilter.await(asyncAppender, 5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        final RollingRandomAccessFileAppender fileAppender = configuration.getAppender("LatestFile");
+        fileAppender.getManager().flush();
+        return new File(fileAppender.getFileName());
+    }
+
     public static void u_info(final String title, final ProxyConnection proxyConnection, final String msg) {
         u_log(Level.INFO, title, proxyConnection, msg);
     }